@@ -105,6 +105,7 @@ public class Msql implements MiniSqlTreeConstants {
       if (node.isStats) {
 
         // get the new stats
+        Minibase.SystemCatalog.flushCounts();
         Minibase.BufferManager.flushAllPages();
         int reads2 = Minibase.DiskManager.getReadCount();
         int writes2 = Minibase.DiskManager.getWriteCount();
@@ -132,6 +133,7 @@ public class Msql implements MiniSqlTreeConstants {
       try {
         Plan plan = Optimizer.evaluate(node);
         plan.execute();
+        Minibase.SystemCatalog.flushCounts();
       } catch (QueryException exc) {
         System.out.println("ERROR: " + exc.getMessage());
         continue;
@@ -145,6 +147,7 @@ public class Msql implements MiniSqlTreeConstants {
 
     // close the database and exit
     System.out.println("Closing database...");
+    Minibase.SystemCatalog.flushCounts();
     Minibase.DiskManager.closeDB();
 
   } // public static void main(String[] args)
@@ -182,6 +185,7 @@ public class Msql implements MiniSqlTreeConstants {
       if (node.isStats) {
 
         // get the new stats
+        Minibase.SystemCatalog.flushCounts();
         Minibase.BufferManager.flushAllPages();
         int reads2 = Minibase.DiskManager.getReadCount();
         int writes2 = Minibase.DiskManager.getWriteCount();
@@ -208,6 +212,7 @@ public class Msql implements MiniSqlTreeConstants {
       // generate the plan and execute the query
       Plan plan = Optimizer.evaluate(node);
       plan.execute();
+      Minibase.SystemCatalog.flushCounts();
     }
   }
 
@@ -244,6 +249,7 @@ public class Msql implements MiniSqlTreeConstants {
       if (node.isStats) {
 
         // get the new stats
+        Minibase.SystemCatalog.flushCounts();
         Minibase.BufferManager.flushAllPages();
         int reads2 = Minibase.DiskManager.getReadCount();
         int writes2 = Minibase.DiskManager.getWriteCount();
@@ -273,6 +279,7 @@ public class Msql implements MiniSqlTreeConstants {
         return ((TestablePlan) plan).testExecute();
       } else {
         plan.execute();
+        Minibase.SystemCatalog.flushCounts();
         return null;
       }
     }
@@ -1,7 +1,12 @@
 package global;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+
 /**
  * Provides a general and type-safe way to store and compare index search keys.
+ * A composite key holds several values, compared in order, for an index on
+ * more than one column.
  */
 public class SearchKey implements Comparable<SearchKey> {
 
@@ -14,6 +19,9 @@ public class SearchKey implements Comparable<SearchKey> {
   /** Internal type number for String keys. */
   protected static final byte STRING_KEY = 3;
 
+  /** Internal type number for composite keys. */
+  protected static final byte COMPOSITE_KEY = 4;
+
   // --------------------------------------------------------------------------
 
   /** The type of the key value. */
@@ -55,7 +63,19 @@ public class SearchKey implements Comparable<SearchKey> {
   }
 
   /**
-   * Constructs a search key from a generic value.
+   * Constructs a new composite search key from the given values, in order.
+   *
+   * @throws IllegalArgumentException if a value's type is invalid
+   */
+  public SearchKey(Object[] values) {
+    this.type = COMPOSITE_KEY;
+    this.value = toParts(values);
+    this.size = getPartsSize((SearchKey[]) value);
+  }
+
+  /**
+   * Constructs a search key from a generic value; an array of values makes a
+   * composite key.
    * 
    * @throws IllegalArgumentException if value's type is invalid
    */
@@ -82,6 +102,13 @@ public class SearchKey implements Comparable<SearchKey> {
       this.value = value;
     }
 
+    // composite key?
+    else if (value instanceof Object[]) {
+      this.type = COMPOSITE_KEY;
+      this.value = toParts((Object[]) value);
+      this.size = getPartsSize((SearchKey[]) this.value);
+    }
+
     // otherwise, none of the above
     else {
       throw new IllegalArgumentException("invalid key value type");
@@ -109,10 +136,59 @@ public class SearchKey implements Comparable<SearchKey> {
       case STRING_KEY:
         this.value = new String((String) key.value);
         break;
+      case COMPOSITE_KEY:
+        SearchKey[] parts = (SearchKey[]) key.value;
+        SearchKey[] copies = new SearchKey[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+          copies[i] = new SearchKey(parts[i]);
+        }
+        this.value = copies;
+        break;
     }
 
   } // public SearchKey(SearchKey key)
 
+  /**
+   * Makes the single-valued keys of a composite key.
+   */
+  protected static SearchKey[] toParts(Object[] values) {
+    SearchKey[] parts = new SearchKey[values.length];
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] instanceof Object[]) {
+        throw new IllegalArgumentException("invalid key value type");
+      }
+      parts[i] = new SearchKey(values[i]);
+    }
+    return parts;
+  }
+
+  /**
+   * Gets the size of a composite key's values, as stored: each one only
+   * needs its type, plus a length if it's a string.
+   */
+  protected static short getPartsSize(SearchKey[] parts) {
+    int size = 0;
+    for (SearchKey part : parts) {
+      size += 1 + (part.type == STRING_KEY ? 2 : 0) + part.size;
+    }
+    return (short) size;
+  }
+
+  /**
+   * Gets the values of a composite key, or just the value of any other key.
+   */
+  public Object[] getValues() {
+    if (type != COMPOSITE_KEY) {
+      return new Object[] { value };
+    }
+    SearchKey[] parts = (SearchKey[]) value;
+    Object[] values = new Object[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      values[i] = parts[i].value;
+    }
+    return values;
+  }
+
   // --------------------------------------------------------------------------
 
   /**
@@ -127,14 +203,37 @@ public class SearchKey implements Comparable<SearchKey> {
     // extract the key value
     switch (type) {
       case INTEGER_KEY:
-        value = new Integer(Convert.getIntValue(offset + 3, data));
+        value = Integer.valueOf(Convert.getIntValue(offset + 3, data));
         break;
       case FLOAT_KEY:
-        value = new Float(Convert.getFloatValue(offset + 3, data));
+        value = Float.valueOf(Convert.getFloatValue(offset + 3, data));
         break;
       case STRING_KEY:
         value = Convert.getStringValue(offset + 3, data, size);
         break;
+      case COMPOSITE_KEY:
+        ArrayList<SearchKey> parts = new ArrayList<SearchKey>();
+        int pos = offset + 3;
+        while (pos < offset + 3 + size) {
+          byte ptype = data[pos++];
+          switch (ptype) {
+            case INTEGER_KEY:
+              parts.add(new SearchKey(Integer.valueOf(Convert.getIntValue(pos, data))));
+              pos += 4;
+              break;
+            case FLOAT_KEY:
+              parts.add(new SearchKey(Float.valueOf(Convert.getFloatValue(pos, data))));
+              pos += 4;
+              break;
+            default:
+              short length = Convert.getShortValue(pos, data);
+              parts.add(new SearchKey(Convert.getStringValue(pos + 2, data, length)));
+              pos += 2 + length;
+              break;
+          }
+        }
+        value = parts.toArray(new SearchKey[parts.size()]);
+        break;
     }
 
   } // public SearchKey(byte[] data, short offset)
@@ -159,6 +258,26 @@ public class SearchKey implements Comparable<SearchKey> {
       case STRING_KEY:
         Convert.setStringValue((String) value, offset + 3, data);
         break;
+      case COMPOSITE_KEY:
+        int pos = offset + 3;
+        for (SearchKey part : (SearchKey[]) value) {
+          data[pos++] = part.type;
+          switch (part.type) {
+            case INTEGER_KEY:
+              Convert.setIntValue((Integer) part.value, pos, data);
+              break;
+            case FLOAT_KEY:
+              Convert.setFloatValue((Float) part.value, pos, data);
+              break;
+            case STRING_KEY:
+              Convert.setShortValue(part.size, pos, data);
+              Convert.setStringValue((String) part.value, pos + 2, data);
+              pos += 2;
+              break;
+          }
+          pos += part.size;
+        }
+        break;
     }
 
   } // public void writeData(byte[] data, short offset)
@@ -202,6 +321,15 @@ public class SearchKey implements Comparable<SearchKey> {
         }
         return skey & mask;
 
+      case COMPOSITE_KEY:
+
+        // mix the hash values of every part
+        int ckey = 0;
+        for (SearchKey part : (SearchKey[]) value) {
+          ckey = ckey * 31 + part.getHash(Integer.SIZE - 1);
+        }
+        return ckey & mask;
+
     } // switch
 
   } // public int getHash(int depth)
@@ -226,22 +354,45 @@ public class SearchKey implements Comparable<SearchKey> {
    * Returns a generic hash code for the key value.
    */
   public int hashCode() {
+    if (type == COMPOSITE_KEY) {
+      return Arrays.hashCode((SearchKey[]) value);
+    }
     return value.hashCode();
   }
 
+  /**
+   * Returns a string representation of the key value.
+   */
+  public String toString() {
+    if (type == COMPOSITE_KEY) {
+      StringBuilder sb = new StringBuilder("(");
+      for (SearchKey part : (SearchKey[]) value) {
+        sb.append(sb.length() > 1 ? ", " : "").append(part);
+      }
+      return sb.append(")").toString();
+    }
+    return value.toString();
+  }
+
   /**
    * True if obj is a SearchKey with the same values; false otherwise.
    */
   public boolean equals(Object obj) {
     if (obj instanceof SearchKey) {
       SearchKey key = (SearchKey) obj;
+      if (type == COMPOSITE_KEY || key.type == COMPOSITE_KEY) {
+        return type == key.type
+            && Arrays.equals((SearchKey[]) value, (SearchKey[]) key.value);
+      }
       return (value.equals(key.value));
     }
     return false;
   }
 
   /**
-   * Generically compares two search keys.
+   * Generically compares two search keys. Composite keys compare their values
+   * in order, but only as many as both have, so that a key with fewer values
+   * equals every key it's a prefix of.
    * 
    * @return a negative integer, zero, or a positive integer as this object is
    *         less than, equal to, or greater than the specified object
@@ -249,6 +400,25 @@ public class SearchKey implements Comparable<SearchKey> {
    */
   public int compareTo(SearchKey key) {
 
+    // Composite comparison
+    if (type == COMPOSITE_KEY || key.type == COMPOSITE_KEY) {
+      if (type == key.type) {
+
+        SearchKey[] parts1 = (SearchKey[]) this.value;
+        SearchKey[] parts2 = (SearchKey[]) key.value;
+        for (int i = 0; i < parts1.length && i < parts2.length; i++) {
+          int result = parts1[i].compareTo(parts2[i]);
+          if (result != 0) {
+            return result;
+          }
+        }
+        return 0;
+
+      } else {
+        throw new IllegalArgumentException("search keys are not comparable");
+      }
+    }
+
     // Integer comparison
     if (value instanceof Integer) {
       if (key.value instanceof Integer) {
@@ -0,0 +1,397 @@
+package index;
+
+import global.GlobalConst;
+import global.Minibase;
+import global.PageId;
+import global.RID;
+import global.SearchKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <h3>Minibase B+ Tree Index</h3>
+ * Keeps search keys in order, so that besides single keys it can find every
+ * record in a range of keys, in key order. The root always stays on the first
+ * page of the index: when it splits, its entries move to a new page beneath
+ * it. Deleted entries are simply removed from their leaf; pages aren't merged
+ * again, and scans step over any leaf left empty.
+ */
+public class BTreeIndex implements GlobalConst {
+
+  /** Largest value an index column can hold, in bytes. */
+  public static final int MAX_KEY_SIZE = BTreePage.MAX_ENTRY_SIZE - 15;
+
+  // --------------------------------------------------------------------------
+
+  /** File name of the index. */
+  protected String fileName;
+
+  /** Page id of the root. */
+  protected PageId headId;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Opens an index if it exists, otherwise creates a new (empty) one.
+   */
+  public BTreeIndex(String fileName) {
+    this.fileName = fileName;
+    if (fileName != null) {
+      headId = Minibase.DiskManager.get_file_entry(fileName);
+    }
+    if (headId == null) {
+      headId = Minibase.BufferManager.newPage(new BTreePage(), 1);
+      Minibase.BufferManager.unpinPage(headId, UNPIN_DIRTY);
+      if (fileName != null) {
+        Minibase.DiskManager.add_file_entry(fileName, headId);
+      }
+    }
+  }
+
+  /**
+   * Deletes the index from the database, freeing all of its pages.
+   */
+  public void deleteFile() {
+    freePages(headId);
+    if (fileName != null) {
+      Minibase.DiskManager.delete_file_entry(fileName);
+    }
+  }
+
+  /**
+   * Frees the given page and all of the pages beneath it.
+   */
+  protected void freePages(PageId pageno) {
+    BTreePage page = new BTreePage();
+    Minibase.BufferManager.pinPage(pageno, page, PIN_DISKIO);
+    List<PageId> children = new ArrayList<>();
+    if (!page.isLeaf()) {
+      children.add(page.getFirstChild());
+      for (int i = 0; i < page.getEntryCount(); i++) {
+        children.add(page.getChildAt(i));
+      }
+    }
+    Minibase.BufferManager.unpinPage(pageno, UNPIN_CLEAN);
+    for (PageId child : children) {
+      freePages(child);
+    }
+    Minibase.BufferManager.freePage(pageno);
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Inserts a new data entry into the index.
+   *
+   * @throws IllegalArgumentException if the key is too large, or the entry
+   *           already exists
+   */
+  public void insertEntry(SearchKey key, RID rid) {
+    checkKey(key);
+    byte[] split = insertEntry(headId, key, rid);
+    if (split != null) {
+      growRoot(split);
+    }
+  }
+
+  /**
+   * Inserts a new data entry beneath the given page, splitting any page that
+   * overflows.
+   *
+   * @return the entry to add to the parent for a new right sibling of the
+   *         page, or null if the page didn't split
+   */
+  protected byte[] insertEntry(PageId pageno, SearchKey key, RID rid) {
+    BTreePage page = new BTreePage();
+    Minibase.BufferManager.pinPage(pageno, page, PIN_DISKIO);
+    byte[] entry;
+    if (page.isLeaf()) {
+      int slotno = page.findSlot(key, rid);
+      if (slotno < page.getEntryCount() && page.compareAt(slotno, key, rid) == 0) {
+        Minibase.BufferManager.unpinPage(pageno, UNPIN_CLEAN);
+        throw new IllegalArgumentException("entry already exists");
+      }
+      entry = BTreePage.makeEntry(key, rid, null);
+    } else {
+      // descend without holding on to the inner page
+      PageId child = page.getChildFor(key, rid);
+      Minibase.BufferManager.unpinPage(pageno, UNPIN_CLEAN);
+      entry = insertEntry(child, key, rid);
+      if (entry == null) {
+        return null;
+      }
+      Minibase.BufferManager.pinPage(pageno, page, PIN_DISKIO);
+    }
+
+    // add the entry, splitting the page if it's full
+    SearchKey entryKey = new SearchKey(entry, (short) 0);
+    RID entryRid = new RID(entry, entryKey.getLength());
+    int slotno = page.findSlot(entryKey, entryRid);
+    if (page.insertData(slotno, entry)) {
+      Minibase.BufferManager.unpinPage(pageno, UNPIN_DIRTY);
+      return null;
+    }
+    BTreePage right = new BTreePage();
+    PageId rightId = Minibase.BufferManager.newPage(right, 1);
+    right.init(page.getLevel());
+    page.split(right, slotno, entry);
+    byte[] separator = BTreePage.makeEntry(right.getKeyAt(0), right.getRidAt(0),
+        rightId);
+    if (page.isLeaf()) {
+      right.setNextPage(page.getNextPage());
+      page.setNextPage(rightId);
+    } else {
+      // an inner page's middle entry moves up to the parent
+      right.setFirstChild(right.getChildAt(0));
+      right.deleteAt(0);
+    }
+    Minibase.BufferManager.unpinPage(rightId, UNPIN_DIRTY);
+    Minibase.BufferManager.unpinPage(pageno, UNPIN_DIRTY);
+    return separator;
+
+  } // protected byte[] insertEntry(PageId pageno, SearchKey key, RID rid)
+
+  /**
+   * Checks that an entry for the given key fits on an inner page.
+   *
+   * @throws IllegalArgumentException if the key is too large
+   */
+  protected static void checkKey(SearchKey key) {
+    if (BTreePage.makeEntry(key, new RID(), new PageId()).length
+        > BTreePage.MAX_ENTRY_SIZE) {
+      throw new IllegalArgumentException("entry too large");
+    }
+  }
+
+  /**
+   * Adds a level to the tree after the root split, moving the root's entries
+   * to a new page so that the root stays in place.
+   */
+  protected void growRoot(byte[] separator) {
+    BTreePage root = new BTreePage();
+    Minibase.BufferManager.pinPage(headId, root, PIN_DISKIO);
+    BTreePage left = new BTreePage();
+    PageId leftId = Minibase.BufferManager.newPage(left, 1);
+    left.copyPage(root);
+    root.init(left.getLevel() + 1);
+    root.setFirstChild(leftId);
+    root.appendData(separator);
+    Minibase.BufferManager.unpinPage(leftId, UNPIN_DIRTY);
+    Minibase.BufferManager.unpinPage(headId, UNPIN_DIRTY);
+  }
+
+  /**
+   * Deletes the specified data entry from the index.
+   *
+   * @throws IllegalArgumentException if the entry doesn't exist
+   */
+  public void deleteEntry(SearchKey key, RID rid) {
+    PageId pageno = findLeaf(key, rid);
+    BTreePage page = new BTreePage();
+    Minibase.BufferManager.pinPage(pageno, page, PIN_DISKIO);
+    int slotno = page.findSlot(key, rid);
+    if (slotno == page.getEntryCount() || page.compareAt(slotno, key, rid) != 0) {
+      Minibase.BufferManager.unpinPage(pageno, UNPIN_CLEAN);
+      throw new IllegalArgumentException("entry doesn't exist");
+    }
+    page.deleteAt(slotno);
+    Minibase.BufferManager.unpinPage(pageno, UNPIN_DIRTY);
+  }
+
+  /**
+   * Gets the leaf that holds the given key and record id; a null key finds the
+   * first leaf, and a null record id the first entry with the key.
+   */
+  protected PageId findLeaf(SearchKey key, RID rid) {
+    PageId pageno = new PageId(headId.pid);
+    BTreePage page = new BTreePage();
+    while (true) {
+      Minibase.BufferManager.pinPage(pageno, page, PIN_DISKIO);
+      if (page.isLeaf()) {
+        Minibase.BufferManager.unpinPage(pageno, UNPIN_CLEAN);
+        return pageno;
+      }
+      PageId child = key == null ? page.getFirstChild()
+          : page.getChildFor(key, rid);
+      Minibase.BufferManager.unpinPage(pageno, UNPIN_CLEAN);
+      pageno = child;
+    }
+  }
+
+  /**
+   * True if the index holds no entries. Pages aren't merged on delete, so a
+   * tree that held entries keeps its levels; this checks every leaf.
+   */
+  public boolean isEmpty() {
+    BTreeScan scan = openScan();
+    boolean empty = !scan.hasNext();
+    scan.close();
+    return empty;
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Fills an empty index with the given entries at once: they are sorted, the
+   * leaves are packed in order, then each level above them is built from the
+   * first entries of the one below. This writes every page once, instead of
+   * splitting pages as the tree grows.
+   *
+   * @throws IllegalStateException if the index isn't empty
+   * @throws IllegalArgumentException if a key is too large
+   */
+  public void bulkLoad(final SearchKey[] keys, final RID[] rids) {
+    if (!isEmpty()) {
+      throw new IllegalStateException("index isn't empty");
+    }
+    if (keys.length == 0) {
+      return;
+    }
+
+    // a tree emptied by deletes keeps its pages, so drop them first
+    BTreePage root = new BTreePage();
+    Minibase.BufferManager.pinPage(headId, root, PIN_DISKIO);
+    if (!root.isLeaf()) {
+      List<PageId> children = new ArrayList<>();
+      children.add(root.getFirstChild());
+      for (int i = 0; i < root.getEntryCount(); i++) {
+        children.add(root.getChildAt(i));
+      }
+      root.init(0);
+      Minibase.BufferManager.unpinPage(headId, UNPIN_DIRTY);
+      for (PageId child : children) {
+        freePages(child);
+      }
+    } else {
+      Minibase.BufferManager.unpinPage(headId, UNPIN_CLEAN);
+    }
+
+    // sort the entries by key, then record id
+    Integer[] order = new Integer[keys.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      public int compare(Integer a, Integer b) {
+        int result = keys[a].compareTo(keys[b]);
+        return result != 0 ? result : BTreePage.compare(rids[a], rids[b]);
+      }
+    });
+    List<byte[]> entries = new ArrayList<>(order.length);
+    for (int i : order) {
+      checkKey(keys[i]);
+      entries.add(BTreePage.makeEntry(keys[i], rids[i], null));
+    }
+
+    // build the levels bottom up, until one holds a single page
+    int level = 0;
+    PageId first = null;
+    while (level == 0 || !entries.isEmpty()) {
+      List<byte[]> upper = new ArrayList<>();
+      first = loadLevel(level++, first, entries, upper);
+      entries = upper;
+    }
+
+    // and move that page's entries into the root
+    BTreePage top = new BTreePage();
+    Minibase.BufferManager.pinPage(headId, root, PIN_DISKIO);
+    Minibase.BufferManager.pinPage(first, top, PIN_DISKIO);
+    root.copyPage(top);
+    Minibase.BufferManager.unpinPage(first, UNPIN_CLEAN);
+    Minibase.BufferManager.freePage(first);
+    Minibase.BufferManager.unpinPage(headId, UNPIN_DIRTY);
+
+  } // public void bulkLoad(final SearchKey[] keys, final RID[] rids)
+
+  /**
+   * Packs the given entries into new pages at the given level, linking leaves
+   * in order; on inner pages, each entry's child is the first child of the
+   * page it starts.
+   *
+   * @param first first child of the level's first page, for inner pages
+   * @param upper receives an entry for each page after the first, to build the
+   *          level above from
+   * @return the level's first page
+   */
+  protected PageId loadLevel(int level, PageId first, List<byte[]> entries,
+      List<byte[]> upper) {
+    BTreePage page = new BTreePage();
+    PageId pageno = Minibase.BufferManager.newPage(page, 1);
+    page.init(level);
+    if (first != null) {
+      page.setFirstChild(first);
+    }
+    PageId firstId = pageno;
+    for (byte[] entry : entries) {
+      if (page.appendData(entry)) {
+        continue;
+      }
+
+      // the page is full, so start the next one with this entry
+      BTreePage next = new BTreePage();
+      PageId nextId = Minibase.BufferManager.newPage(next, 1);
+      next.init(level);
+      SearchKey key = new SearchKey(entry, (short) 0);
+      RID rid = new RID(entry, key.getLength());
+      if (level == 0) {
+        page.setNextPage(nextId);
+        next.appendData(entry);
+      } else {
+        next.setFirstChild(BTreePage.getChild(entry));
+      }
+      upper.add(BTreePage.makeEntry(key, rid, nextId));
+      Minibase.BufferManager.unpinPage(pageno, UNPIN_DIRTY);
+      page = next;
+      pageno = nextId;
+    }
+    Minibase.BufferManager.unpinPage(pageno, UNPIN_DIRTY);
+    return firstId;
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Initiates an ordered scan of the whole index.
+   */
+  public BTreeScan openScan() {
+    return new BTreeScan(this, null, true, null, true);
+  }
+
+  /**
+   * Initiates a scan of the entries with the given key.
+   */
+  public BTreeScan openScan(SearchKey key) {
+    return new BTreeScan(this, key, true, key, true);
+  }
+
+  /**
+   * Initiates an ordered scan of the entries between the given keys; either
+   * of them may be null for no bound.
+   */
+  public BTreeScan openScan(SearchKey low, boolean lowInclusive,
+      SearchKey high, boolean highInclusive) {
+    return new BTreeScan(this, low, lowInclusive, high, highInclusive);
+  }
+
+  /**
+   * Gets the height of the tree, counting the leaves.
+   */
+  public int getHeight() {
+    BTreePage root = new BTreePage();
+    Minibase.BufferManager.pinPage(headId, root, PIN_DISKIO);
+    int height = root.getLevel() + 1;
+    Minibase.BufferManager.unpinPage(headId, UNPIN_CLEAN);
+    return height;
+  }
+
+  /**
+   * Returns the name of the index.
+   */
+  public String toString() {
+    return fileName;
+  }
+
+} // public class BTreeIndex implements GlobalConst
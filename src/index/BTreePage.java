@@ -0,0 +1,357 @@
+package index;
+
+import global.Convert;
+import global.Page;
+import global.PageId;
+import global.RID;
+import global.SearchKey;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A node of a B+ tree, i.e. a slotted page of entries kept in order. Every
+ * entry holds a search key and the id of the record it belongs to; ordering
+ * on both keeps the entries unique even when keys repeat. An inner entry also
+ * points to the child page holding the entries at or above it, while the
+ * page's first child holds those below its first entry. Leaves are linked in
+ * order for range scans.
+ */
+class BTreePage extends Page {
+
+  /** Offset of the number of entries (short). */
+  protected static final int ENTRY_CNT = 0;
+
+  /** Offset of the start of the used entry space (short). */
+  protected static final int USED_PTR = 2;
+
+  /** Offset of the next leaf's page id (int). */
+  protected static final int NEXT_PAGE = 4;
+
+  /** Offset of the first child's page id, for inner pages (int). */
+  protected static final int FIRST_CHILD = 8;
+
+  /** Offset of the page's height above the leaves (short). */
+  protected static final int LEVEL = 12;
+
+  /** Size of the page header. */
+  protected static final int HEADER_SIZE = 16;
+
+  /** Size of each slot, i.e. the entry's length and offset. */
+  protected static final int SLOT_SIZE = 4;
+
+  /**
+   * Largest entry, so that splitting a full page plus one more entry always
+   * leaves both halves room to spare.
+   */
+  protected static final int MAX_ENTRY_SIZE = (PAGE_SIZE - HEADER_SIZE) / 4
+      - SLOT_SIZE;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs an empty leaf page.
+   */
+  public BTreePage() {
+    init(0);
+  }
+
+  /**
+   * Constructs a B+ tree page that wraps the given page's data.
+   */
+  public BTreePage(Page page) {
+    super(page.getData());
+  }
+
+  /**
+   * Empties the page, making it a node at the given height (0 for a leaf).
+   */
+  public void init(int level) {
+    setShortValue((short) 0, ENTRY_CNT);
+    setShortValue((short) PAGE_SIZE, USED_PTR);
+    setIntValue(INVALID_PAGEID, NEXT_PAGE);
+    setIntValue(INVALID_PAGEID, FIRST_CHILD);
+    setShortValue((short) level, LEVEL);
+  }
+
+  /**
+   * Gets the number of entries on the page.
+   */
+  public short getEntryCount() {
+    return getShortValue(ENTRY_CNT);
+  }
+
+  /**
+   * Gets the number of bytes still available for entries and their slots.
+   */
+  public int getFreeSpace() {
+    return getShortValue(USED_PTR) - (HEADER_SIZE + getEntryCount() * SLOT_SIZE);
+  }
+
+  /**
+   * Gets the page's height above the leaves.
+   */
+  public int getLevel() {
+    return getShortValue(LEVEL);
+  }
+
+  /**
+   * True if the page is a leaf, i.e. its entries point to records only.
+   */
+  public boolean isLeaf() {
+    return getLevel() == 0;
+  }
+
+  /**
+   * Gets the next leaf in key order.
+   */
+  public PageId getNextPage() {
+    return new PageId(getIntValue(NEXT_PAGE));
+  }
+
+  /**
+   * Sets the next leaf in key order.
+   */
+  public void setNextPage(PageId pageno) {
+    setIntValue(pageno.pid, NEXT_PAGE);
+  }
+
+  /**
+   * Gets the child holding the entries below the first one.
+   */
+  public PageId getFirstChild() {
+    return new PageId(getIntValue(FIRST_CHILD));
+  }
+
+  /**
+   * Sets the child holding the entries below the first one.
+   */
+  public void setFirstChild(PageId pageno) {
+    setIntValue(pageno.pid, FIRST_CHILD);
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Gets the offset of the given entry.
+   */
+  protected short getSlotOffset(int slotno) {
+    return getShortValue(HEADER_SIZE + slotno * SLOT_SIZE + 2);
+  }
+
+  /**
+   * Gets the length of the given entry.
+   */
+  protected short getSlotLength(int slotno) {
+    return getShortValue(HEADER_SIZE + slotno * SLOT_SIZE);
+  }
+
+  /**
+   * Gets the search key of the given entry.
+   */
+  public SearchKey getKeyAt(int slotno) {
+    return new SearchKey(data, getSlotOffset(slotno));
+  }
+
+  /**
+   * Gets the record id of the given entry.
+   */
+  public RID getRidAt(int slotno) {
+    short offset = getSlotOffset(slotno);
+    return new RID(data, (short) (offset + keyLength(offset)));
+  }
+
+  /**
+   * Gets the child page of the given entry, on an inner page.
+   */
+  public PageId getChildAt(int slotno) {
+    short offset = getSlotOffset(slotno);
+    return new PageId(getIntValue(offset + keyLength(offset) + 8));
+  }
+
+  /**
+   * Gets the length of the search key stored at the given offset.
+   */
+  protected int keyLength(int offset) {
+    return 3 + getShortValue(offset + 1);
+  }
+
+  /**
+   * Compares the given entry with a key and record id; a null record id sorts
+   * before every entry with the same key.
+   *
+   * @return a negative integer, zero, or a positive integer as the entry is
+   *         less than, equal to, or greater than the given one
+   */
+  public int compareAt(int slotno, SearchKey key, RID rid) {
+    int result = getKeyAt(slotno).compareTo(key);
+    if (result != 0) {
+      return result;
+    }
+    if (rid == null) {
+      return 1;
+    }
+    return compare(getRidAt(slotno), rid);
+  }
+
+  /**
+   * Orders record ids by page, then slot.
+   */
+  public static int compare(RID rid1, RID rid2) {
+    if (rid1.pageno.pid != rid2.pageno.pid) {
+      return rid1.pageno.pid < rid2.pageno.pid ? -1 : 1;
+    }
+    return Integer.compare(rid1.slotno, rid2.slotno);
+  }
+
+  /**
+   * Gets the first slot whose entry is at or above the given key and record
+   * id, or the entry count if there is none.
+   */
+  public int findSlot(SearchKey key, RID rid) {
+    int low = 0;
+    int high = getEntryCount();
+    while (low < high) {
+      int mid = (low + high) / 2;
+      if (compareAt(mid, key, rid) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Gets the child of an inner page that holds the given key and record id.
+   */
+  public PageId getChildFor(SearchKey key, RID rid) {
+    int slotno = findSlot(key, rid);
+    if (slotno < getEntryCount() && compareAt(slotno, key, rid) == 0) {
+      return getChildAt(slotno);
+    }
+    return slotno == 0 ? getFirstChild() : getChildAt(slotno - 1);
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Builds the stored form of an entry; the child is null for leaf entries.
+   */
+  public static byte[] makeEntry(SearchKey key, RID rid, PageId child) {
+    int keylen = key.getLength();
+    byte[] entry = new byte[keylen + 8 + (child == null ? 0 : 4)];
+    key.writeData(entry, (short) 0);
+    rid.writeData(entry, (short) keylen);
+    if (child != null) {
+      Convert.setIntValue(child.pid, keylen + 8, entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Gets the child page of an inner entry's stored form.
+   */
+  public static PageId getChild(byte[] entry) {
+    return new PageId(Convert.getIntValue(
+        3 + Convert.getShortValue(1, entry) + 8, entry));
+  }
+
+  /**
+   * Gets a copy of the stored form of the given entry.
+   */
+  public byte[] getEntryData(int slotno) {
+    byte[] entry = new byte[getSlotLength(slotno)];
+    System.arraycopy(data, getSlotOffset(slotno), entry, 0, entry.length);
+    return entry;
+  }
+
+  /**
+   * Inserts an entry's stored form at the given slot.
+   *
+   * @return false if the page doesn't have room for it
+   */
+  public boolean insertData(int slotno, byte[] entry) {
+    if (entry.length + SLOT_SIZE > getFreeSpace()) {
+      return false;
+    }
+    int count = getEntryCount();
+    int slotpos = HEADER_SIZE + slotno * SLOT_SIZE;
+    System.arraycopy(data, slotpos, data, slotpos + SLOT_SIZE,
+        (count - slotno) * SLOT_SIZE);
+    short used = (short) (getShortValue(USED_PTR) - entry.length);
+    System.arraycopy(entry, 0, data, used, entry.length);
+    setShortValue(used, USED_PTR);
+    setShortValue((short) entry.length, slotpos);
+    setShortValue(used, slotpos + 2);
+    setShortValue((short) (count + 1), ENTRY_CNT);
+    return true;
+  }
+
+  /**
+   * Appends an entry's stored form after the last one.
+   *
+   * @return false if the page doesn't have room for it
+   */
+  public boolean appendData(byte[] entry) {
+    return insertData(getEntryCount(), entry);
+  }
+
+  /**
+   * Removes the given entry, compacting the space it used.
+   */
+  public void deleteAt(int slotno) {
+    int count = getEntryCount();
+    int slotpos = HEADER_SIZE + slotno * SLOT_SIZE;
+    short length = getSlotLength(slotno);
+    short offset = getSlotOffset(slotno);
+    short used = getShortValue(USED_PTR);
+
+    // close the gaps in the slots and in the entry space
+    System.arraycopy(data, slotpos + SLOT_SIZE, data, slotpos,
+        (count - slotno - 1) * SLOT_SIZE);
+    System.arraycopy(data, used, data, used + length, offset - used);
+    setShortValue((short) (used + length), USED_PTR);
+    setShortValue((short) (count - 1), ENTRY_CNT);
+    for (int i = 0; i < count - 1; i++) {
+      short moved = getSlotOffset(i);
+      if (moved < offset) {
+        setShortValue((short) (moved + length),
+            HEADER_SIZE + i * SLOT_SIZE + 2);
+      }
+    }
+  }
+
+  /**
+   * Splits the page's entries, plus a new one at the given slot, in half by
+   * size, moving the upper half to the given empty page of the same level.
+   */
+  public void split(BTreePage right, int slotno, byte[] entry) {
+    List<byte[]> entries = new ArrayList<>();
+    int total = 0;
+    for (int i = 0; i < getEntryCount(); i++) {
+      entries.add(getEntryData(i));
+    }
+    entries.add(slotno, entry);
+    for (byte[] e : entries) {
+      total += e.length + SLOT_SIZE;
+    }
+
+    // refill this page with the lower half, keeping its links
+    PageId next = getNextPage();
+    PageId first = getFirstChild();
+    init(getLevel());
+    setNextPage(next);
+    setFirstChild(first);
+    int size = 0;
+    int i = 0;
+    while (i < entries.size() - 1 && size < total / 2) {
+      appendData(entries.get(i));
+      size += entries.get(i++).length + SLOT_SIZE;
+    }
+    for (; i < entries.size(); i++) {
+      right.appendData(entries.get(i));
+    }
+  }
+
+} // class BTreePage extends Page
@@ -0,0 +1,128 @@
+package index;
+
+import global.GlobalConst;
+import global.Minibase;
+import global.PageId;
+import global.RID;
+import global.SearchKey;
+
+/**
+ * Scans the entries of a B+ tree index between two keys, in key order. Only
+ * the current leaf is pinned; the scan follows the leaf links until it passes
+ * the upper bound.
+ */
+public class BTreeScan implements GlobalConst {
+
+  /** Lowest key to return, or null for no lower bound. */
+  protected SearchKey low;
+
+  /** True if entries equal to the lower bound are returned. */
+  protected boolean lowInclusive;
+
+  /** Highest key to return, or null for no upper bound. */
+  protected SearchKey high;
+
+  /** True if entries equal to the upper bound are returned. */
+  protected boolean highInclusive;
+
+  /** Id of the current leaf, or invalid once the scan is done. */
+  protected PageId curPageId;
+
+  /** The current leaf. */
+  protected BTreePage curPage;
+
+  /** Slot of the next entry to check on the current leaf. */
+  protected int curSlot;
+
+  /** Key of the last entry returned. */
+  protected SearchKey lastKey;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a scan of the given index between the given keys.
+   */
+  protected BTreeScan(BTreeIndex index, SearchKey low, boolean lowInclusive,
+      SearchKey high, boolean highInclusive) {
+    this.low = low;
+    this.lowInclusive = lowInclusive;
+    this.high = high;
+    this.highInclusive = highInclusive;
+
+    // start at the first entry that could be in range
+    curPageId = index.findLeaf(low, null);
+    curPage = new BTreePage();
+    Minibase.BufferManager.pinPage(curPageId, curPage, PIN_DISKIO);
+    curSlot = low == null ? 0 : curPage.findSlot(low, null);
+  }
+
+  /**
+   * Closes the index scan, releasing any pinned pages.
+   */
+  public void close() {
+    if (curPageId.pid != INVALID_PAGEID) {
+      Minibase.BufferManager.unpinPage(curPageId, UNPIN_CLEAN);
+      curPageId.pid = INVALID_PAGEID;
+    }
+  }
+
+  /**
+   * Returns true if there are more entries in range, false otherwise.
+   */
+  public boolean hasNext() {
+    while (curPageId.pid != INVALID_PAGEID) {
+
+      // move on to the next leaf, if this one is done
+      if (curSlot >= curPage.getEntryCount()) {
+        PageId nextId = curPage.getNextPage();
+        Minibase.BufferManager.unpinPage(curPageId, UNPIN_CLEAN);
+        curPageId = nextId;
+        curSlot = 0;
+        if (curPageId.pid != INVALID_PAGEID) {
+          Minibase.BufferManager.pinPage(curPageId, curPage, PIN_DISKIO);
+        }
+        continue;
+      }
+
+      // skip entries equal to an exclusive lower bound
+      SearchKey key = curPage.getKeyAt(curSlot);
+      if (low != null && !lowInclusive && key.compareTo(low) == 0) {
+        curSlot++;
+        continue;
+      }
+
+      // and stop at the upper bound
+      if (high != null) {
+        int result = key.compareTo(high);
+        if (result > 0 || (result == 0 && !highInclusive)) {
+          close();
+          return false;
+        }
+      }
+      return true;
+
+    } // while
+    return false;
+  }
+
+  /**
+   * Gets the record id of the next entry in range.
+   *
+   * @throws IllegalStateException if no more entries
+   */
+  public RID getNext() {
+    if (!hasNext()) {
+      throw new IllegalStateException("no more entries");
+    }
+    lastKey = curPage.getKeyAt(curSlot);
+    return curPage.getRidAt(curSlot++);
+  }
+
+  /**
+   * Gets the key of the last entry returned.
+   */
+  public SearchKey getLastKey() {
+    return lastKey;
+  }
+
+} // public class BTreeScan implements GlobalConst
@@ -0,0 +1,26 @@
+package parser;
+
+/**
+ * AST node for ANALYZE statements.
+ */
+public class AST_Analyze extends SimpleNode {
+
+  public AST_Analyze(int id) {
+    super(id);
+  }
+
+  public AST_Analyze(MiniSql p, int id) {
+    super(p, id);
+  }
+
+  /** Name of the table to analyze. */
+  protected String fileName;
+
+  /**
+   * Gets the name of the table to analyze.
+   */
+  public String getFileName() {
+    return fileName;
+  }
+
+} // public class AST_Analyze extends SimpleNode
@@ -0,0 +1,36 @@
+package parser;
+
+/**
+ * AST node for COPY statements.
+ */
+public class AST_Copy extends SimpleNode {
+
+  public AST_Copy(int id) {
+    super(id);
+  }
+
+  public AST_Copy(MiniSql p, int id) {
+    super(p, id);
+  }
+
+  /** Name of the table to load. */
+  protected String fileName;
+
+  /** Path of the CSV file to load it from. */
+  protected String path;
+
+  /**
+   * Gets the name of the table to load.
+   */
+  public String getFileName() {
+    return fileName;
+  }
+
+  /**
+   * Gets the path of the CSV file to load the table from.
+   */
+  public String getPath() {
+    return path;
+  }
+
+} // public class AST_Copy extends SimpleNode
@@ -1,5 +1,7 @@
 package parser;
 
+import java.util.ArrayList;
+
 /**
  * AST node for CREATE INDEX statements.
  */
@@ -19,8 +21,14 @@ public class AST_CreateIndex extends SimpleNode {
   /** Name of the table to index. */
   protected String ixTable;
 
-  /** Name of the column to index. */
-  protected String ixColumn;
+  /** Names of the columns to index, in key order. */
+  protected ArrayList<String> ixColumns = new ArrayList<String>();
+
+  /** Names of the columns to store in the index after the key. */
+  protected ArrayList<String> ixIncludes = new ArrayList<String>();
+
+  /** Type of index to create, or null for the default. */
+  protected String ixType;
 
   /**
    * Gets the name of the index to create.
@@ -37,10 +45,25 @@ public class AST_CreateIndex extends SimpleNode {
   }
 
   /**
-   * Gets the name of the column to index.
+   * Gets the names of the columns to index, in key order.
+   */
+  public String[] getIxColumns() {
+    return ixColumns.toArray(new String[ixColumns.size()]);
+  }
+
+  /**
+   * Gets the names of the columns to store in the index after the key, if
+   * any, so that queries reading only those columns never visit the table.
+   */
+  public String[] getIxIncludes() {
+    return ixIncludes.toArray(new String[ixIncludes.size()]);
+  }
+
+  /**
+   * Gets the type of index to create, or null for the default.
    */
-  public String getIxColumn() {
-    return ixColumn;
+  public String getIxType() {
+    return ixType;
   }
 
 } // public class AST_CreateIndex extends SimpleNode
@@ -1,5 +1,7 @@
 package parser;
 
+import java.util.ArrayList;
+
 /**
  * AST node for INSERT statements.
  */
@@ -16,6 +18,9 @@ public class AST_Insert extends SimpleNode {
   /** Name of the table to insert into. */
   protected String fileName;
 
+  /** Number of values parsed by the end of each row. */
+  protected ArrayList<Integer> rowEnds = new ArrayList<Integer>();
+
   /**
    * Gets the name of the table to insert into.
    */
@@ -24,18 +29,23 @@ public class AST_Insert extends SimpleNode {
   }
 
   /**
-   * Gets the parsed values to insert.
+   * Gets the parsed values to insert, one array per row.
    */
-  public Object[] getValues() {
-
-    // bundle all children into one value array
-    Object[] values = new Object[children.length];
-    for (int i = 0; i < children.length; i++) {
-      AST_ExprValue vnode = (AST_ExprValue) children[i];
-      values[i] = vnode.value;
+  public Object[][] getRows() {
+
+    // bundle the children of each row into one value array
+    Object[][] rows = new Object[rowEnds.size()][];
+    int start = 0;
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = new Object[rowEnds.get(i) - start];
+      for (int j = 0; j < rows[i].length; j++) {
+        AST_ExprValue vnode = (AST_ExprValue) children[start + j];
+        rows[i][j] = vnode.value;
+      }
+      start = rowEnds.get(i);
     }
-    return values;
+    return rows;
 
-  } // public Object[] getValues()
+  } // public Object[][] getRows()
 
 } // public class AST_Insert extends SimpleNode
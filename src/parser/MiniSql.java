@@ -63,6 +63,8 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     jjtc000 = false;
     jjtn000.isQuit = true; {if (true) return jjtn000;}
         break;
+      case K_ANALYZE:
+      case K_COPY:
       case K_CREATE:
       case K_DELETE:
       case K_DESCRIBE:
@@ -124,9 +126,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
           case K_DESCRIBE:
             DescribeStatement();
             break;
+          case K_ANALYZE:
+            AnalyzeStatement();
+            break;
           case K_INSERT:
             InsertStatement();
             break;
+          case K_COPY:
+            CopyStatement();
+            break;
           case K_EXPLAIN:
           case K_SELECT:
             SelectStatement();
@@ -196,8 +204,58 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
    jjtn000.ixTable = token.image;
       jj_consume_token(O_LPAREN);
       jj_consume_token(S_IDENTIFIER);
-                             jjtn000.ixColumn = token.image;
+                             jjtn000.ixColumns.add(token.image);
+      label_1:
+      while (true) {
+        switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+        case O_COMMA:
+          ;
+          break;
+        default:
+          jj_la1[3] = jj_gen;
+          break label_1;
+        }
+        jj_consume_token(O_COMMA);
+        jj_consume_token(S_IDENTIFIER);
+                              jjtn000.ixColumns.add(token.image);
+      }
       jj_consume_token(O_RPAREN);
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case K_INCLUDE:
+        jj_consume_token(K_INCLUDE);
+        jj_consume_token(O_LPAREN);
+        jj_consume_token(S_IDENTIFIER);
+                               jjtn000.ixIncludes.add(token.image);
+        label_2:
+        while (true) {
+          switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+          case O_COMMA:
+            ;
+            break;
+          default:
+            jj_la1[4] = jj_gen;
+            break label_2;
+          }
+          jj_consume_token(O_COMMA);
+          jj_consume_token(S_IDENTIFIER);
+                                jjtn000.ixIncludes.add(token.image);
+        }
+        jj_consume_token(O_RPAREN);
+        break;
+      default:
+        jj_la1[5] = jj_gen;
+        ;
+      }
+      switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+      case K_USING:
+        jj_consume_token(K_USING);
+        jj_consume_token(S_IDENTIFIER);
+                              jjtn000.ixType = token.image;
+        break;
+      default:
+        jj_la1[6] = jj_gen;
+        ;
+      }
     } finally {
     if (jjtc000) {
       jjtree.closeNodeScope(jjtn000, true);
@@ -261,6 +319,24 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     }
   }
 
+  final public void AnalyzeStatement() throws ParseException {
+                                     /*@bgen(jjtree) _Analyze */
+  AST_Analyze jjtn000 = new AST_Analyze(JJT_ANALYZE);
+  boolean jjtc000 = true;
+  jjtree.openNodeScope(jjtn000);
+    try {
+      jj_consume_token(K_ANALYZE);
+      jj_consume_token(S_IDENTIFIER);
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+   jjtn000.fileName = token.image;
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+  }
+
   final public void InsertStatement() throws ParseException {
                                    /*@bgen(jjtree) _Insert */
   AST_Insert jjtn000 = new AST_Insert(JJT_INSERT);
@@ -275,6 +351,23 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
       jj_consume_token(O_LPAREN);
       SqlValueExpressionList();
       jj_consume_token(O_RPAREN);
+   jjtn000.rowEnds.add(jjtree.nodeArity());
+      label_3:
+      while (true) {
+        switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
+        case O_COMMA:
+          ;
+          break;
+        default:
+          jj_la1[7] = jj_gen;
+          break label_3;
+        }
+        jj_consume_token(O_COMMA);
+        jj_consume_token(O_LPAREN);
+        SqlValueExpressionList();
+        jj_consume_token(O_RPAREN);
+     jjtn000.rowEnds.add(jjtree.nodeArity());
+      }
     } catch (Throwable jjte000) {
     if (jjtc000) {
       jjtree.clearNodeScope(jjtn000);
@@ -296,6 +389,27 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     }
   }
 
+  final public void CopyStatement() throws ParseException {
+                               /*@bgen(jjtree) _Copy */
+  AST_Copy jjtn000 = new AST_Copy(JJT_COPY);
+  boolean jjtc000 = true;
+  jjtree.openNodeScope(jjtn000);
+    try {
+      jj_consume_token(K_COPY);
+      jj_consume_token(S_IDENTIFIER);
+   jjtn000.fileName = token.image;
+      jj_consume_token(K_FROM);
+      jj_consume_token(S_STRING);
+    jjtree.closeNodeScope(jjtn000, true);
+    jjtc000 = false;
+   jjtn000.path = token.image.substring(1, token.image.length() - 1);
+    } finally {
+    if (jjtc000) {
+      jjtree.closeNodeScope(jjtn000, true);
+    }
+    }
+  }
+
   final public void SelectStatement() throws ParseException {
                                    /*@bgen(jjtree) _Select */
   AST_Select jjtn000 = new AST_Select(JJT_SELECT);
@@ -308,7 +422,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
                 jjtn000.isExplain = true;
         break;
       default:
-        jj_la1[3] = jj_gen;
+        jj_la1[8] = jj_gen;
         ;
       }
       jj_consume_token(K_SELECT);
@@ -318,7 +432,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
                             jjtn000.isDistinct = true;
         break;
       default:
-        jj_la1[4] = jj_gen;
+        jj_la1[9] = jj_gen;
         ;
       }
       SelectClause();
@@ -328,7 +442,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
         WhereClause();
         break;
       default:
-        jj_la1[5] = jj_gen;
+        jj_la1[10] = jj_gen;
         ;
       }
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
@@ -336,7 +450,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
         OrderByClause();
         break;
       default:
-        jj_la1[6] = jj_gen;
+        jj_la1[11] = jj_gen;
         ;
       }
     } catch (Throwable jjte000) {
@@ -376,7 +490,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
         WhereClause();
         break;
       default:
-        jj_la1[7] = jj_gen;
+        jj_la1[12] = jj_gen;
         ;
       }
     } catch (Throwable jjte000) {
@@ -412,7 +526,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
         jj_consume_token(K_FROM);
         break;
       default:
-        jj_la1[8] = jj_gen;
+        jj_la1[13] = jj_gen;
         ;
       }
       jj_consume_token(S_IDENTIFIER);
@@ -422,7 +536,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
         WhereClause();
         break;
       default:
-        jj_la1[9] = jj_gen;
+        jj_la1[14] = jj_gen;
         ;
       }
     } catch (Throwable jjte000) {
@@ -458,15 +572,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
       jj_consume_token(S_IDENTIFIER);
                   jjtn000.names.add(token.image);
       ColumnType();
-      label_1:
+      label_4:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
         case O_COMMA:
           ;
           break;
         default:
-          jj_la1[10] = jj_gen;
-          break label_1;
+          jj_la1[15] = jj_gen;
+          break label_4;
         }
         jj_consume_token(O_COMMA);
         jj_consume_token(S_IDENTIFIER);
@@ -527,12 +641,12 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
           jj_consume_token(O_RPAREN);
           break;
         default:
-          jj_la1[11] = jj_gen;
+          jj_la1[16] = jj_gen;
           ;
         }
         break;
       default:
-        jj_la1[12] = jj_gen;
+        jj_la1[17] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -556,15 +670,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
       case S_IDENTIFIER:
         jj_consume_token(S_IDENTIFIER);
                   jjtn000.names.add(token.image);
-        label_2:
+        label_5:
         while (true) {
           switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
           case O_COMMA:
             ;
             break;
           default:
-            jj_la1[13] = jj_gen;
-            break label_2;
+            jj_la1[18] = jj_gen;
+            break label_5;
           }
           jj_consume_token(O_COMMA);
           jj_consume_token(S_IDENTIFIER);
@@ -572,7 +686,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
         }
         break;
       default:
-        jj_la1[14] = jj_gen;
+        jj_la1[19] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -592,15 +706,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
       jj_consume_token(K_FROM);
       jj_consume_token(S_IDENTIFIER);
                            jjtn000.names.add(token.image);
-      label_3:
+      label_6:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
         case O_COMMA:
           ;
           break;
         default:
-          jj_la1[15] = jj_gen;
-          break label_3;
+          jj_la1[20] = jj_gen;
+          break label_6;
         }
         jj_consume_token(O_COMMA);
         jj_consume_token(S_IDENTIFIER);
@@ -634,18 +748,18 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
              jjtn000.setDesc();
         break;
       default:
-        jj_la1[16] = jj_gen;
+        jj_la1[21] = jj_gen;
         ;
       }
-      label_4:
+      label_7:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
         case O_COMMA:
           ;
           break;
         default:
-          jj_la1[17] = jj_gen;
-          break label_4;
+          jj_la1[22] = jj_gen;
+          break label_7;
         }
         jj_consume_token(O_COMMA);
         jj_consume_token(S_IDENTIFIER);
@@ -656,7 +770,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
                jjtn000.setDesc();
           break;
         default:
-          jj_la1[18] = jj_gen;
+          jj_la1[23] = jj_gen;
           ;
         }
       }
@@ -677,15 +791,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
    jjtn000.names.add(token.image);
       jj_consume_token(O_EQ);
       SqlValueExpression();
-      label_5:
+      label_8:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
         case O_COMMA:
           ;
           break;
         default:
-          jj_la1[19] = jj_gen;
-          break label_5;
+          jj_la1[24] = jj_gen;
+          break label_8;
         }
         jj_consume_token(O_COMMA);
         jj_consume_token(S_IDENTIFIER);
@@ -724,15 +838,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
   jjtree.openNodeScope(jjtn000);
     try {
       SqlAndExpression();
-      label_6:
+      label_9:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
         case K_OR:
           ;
           break;
         default:
-          jj_la1[20] = jj_gen;
-          break label_6;
+          jj_la1[25] = jj_gen;
+          break label_9;
         }
         jj_consume_token(K_OR);
         SqlAndExpression();
@@ -765,15 +879,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
   jjtree.openNodeScope(jjtn000);
     try {
       SqlRelationalExpression();
-      label_7:
+      label_10:
       while (true) {
         switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
         case K_AND:
           ;
           break;
         default:
-          jj_la1[21] = jj_gen;
-          break label_7;
+          jj_la1[26] = jj_gen;
+          break label_10;
         }
         jj_consume_token(K_AND);
         SqlRelationalExpression();
@@ -851,7 +965,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
       jj_consume_token(O_LTE);
       break;
     default:
-      jj_la1[22] = jj_gen;
+      jj_la1[27] = jj_gen;
       jj_consume_token(-1);
       throw new ParseException();
     }
@@ -882,7 +996,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
    jjtn000.children = null;
         break;
       default:
-        jj_la1[23] = jj_gen;
+        jj_la1[28] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -936,7 +1050,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
    jjtn000.value = token.image.substring(1, token.image.length() - 1);
         break;
       default:
-        jj_la1[24] = jj_gen;
+        jj_la1[29] = jj_gen;
         jj_consume_token(-1);
         throw new ParseException();
       }
@@ -949,15 +1063,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
 
   final public void SqlValueExpressionList() throws ParseException {
     SqlValueExpression();
-    label_8:
+    label_11:
     while (true) {
       switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
       case O_COMMA:
         ;
         break;
       default:
-        jj_la1[25] = jj_gen;
-        break label_8;
+        jj_la1[30] = jj_gen;
+        break label_11;
       }
       jj_consume_token(O_COMMA);
       SqlValueExpression();
@@ -978,25 +1092,25 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     finally { jj_save(1, xla); }
   }
 
-  final private boolean jj_3R_9() {
+  final private boolean jj_3R_12() {
     if (jj_scan_token(K_CREATE)) return true;
     if (jj_scan_token(K_TABLE)) return true;
     return false;
   }
 
-  final private boolean jj_3R_10() {
-    if (jj_scan_token(K_DROP)) return true;
-    if (jj_scan_token(K_TABLE)) return true;
+  final private boolean jj_3_2() {
+    if (jj_3R_13()) return true;
     return false;
   }
 
-  final private boolean jj_3_2() {
-    if (jj_3R_10()) return true;
+  final private boolean jj_3_1() {
+    if (jj_3R_12()) return true;
     return false;
   }
 
-  final private boolean jj_3_1() {
-    if (jj_3R_9()) return true;
+  final private boolean jj_3R_13() {
+    if (jj_scan_token(K_DROP)) return true;
+    if (jj_scan_token(K_TABLE)) return true;
     return false;
   }
 
@@ -1009,7 +1123,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
   public boolean lookingAhead = false;
   private boolean jj_semLA;
   private int jj_gen;
-  final private int[] jj_la1 = new int[26];
+  final private int[] jj_la1 = new int[31];
   static private int[] jj_la1_0;
   static private int[] jj_la1_1;
   static {
@@ -1017,10 +1131,10 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
       jj_la1_1();
    }
    private static void jj_la1_0() {
-      jj_la1_0 = new int[] {0xa608eb00,0x100,0x84086a00,0x4000,0x1000,0x0,0x1000000,0x0,0x20000,0x0,0x0,0x0,0x10110000,0x0,0x0,0x0,0x400,0x0,0x400,0x0,0x800000,0x40,0x0,0x0,0x0,0x0,};
+      jj_la1_0 = new int[] {0x3043ae40,0x400,0x2041aa40,0x0,0x0,0x100000,0x0,0x0,0x10000,0x4000,0x0,0x8000000,0x0,0x80000,0x0,0x0,0x0,0x80840000,0x0,0x0,0x0,0x1000,0x0,0x1000,0x0,0x4000000,0x80,0x0,0x0,0x0,0x0,};
    }
    private static void jj_la1_1() {
-      jj_la1_1 = new int[] {0x0,0x0,0x0,0x0,0x0,0x2,0x0,0x2,0x0,0x2,0x400,0x100,0x0,0x400,0x11000,0x400,0x0,0x400,0x0,0x400,0x0,0x0,0xfc,0x9a000,0x8a000,0x400,};
+      jj_la1_1 = new int[] {0x5,0x0,0x4,0x4000,0x4000,0x0,0x8,0x4000,0x0,0x0,0x20,0x0,0x20,0x0,0x20,0x4000,0x1000,0x0,0x4000,0x110000,0x4000,0x0,0x4000,0x0,0x4000,0x0,0x0,0xfc0,0x9a0000,0x8a0000,0x4000,};
    }
   final private JJCalls[] jj_2_rtns = new JJCalls[2];
   private boolean jj_rescan = false;
@@ -1035,7 +1149,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     token = new Token();
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 26; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 31; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1049,7 +1163,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     jj_ntk = -1;
     jjtree.reset();
     jj_gen = 0;
-    for (int i = 0; i < 26; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 31; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1059,7 +1173,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     token = new Token();
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 26; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 31; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1070,7 +1184,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     jj_ntk = -1;
     jjtree.reset();
     jj_gen = 0;
-    for (int i = 0; i < 26; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 31; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1079,7 +1193,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     token = new Token();
     jj_ntk = -1;
     jj_gen = 0;
-    for (int i = 0; i < 26; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 31; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1089,7 +1203,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
     jj_ntk = -1;
     jjtree.reset();
     jj_gen = 0;
-    for (int i = 0; i < 26; i++) jj_la1[i] = -1;
+    for (int i = 0; i < 31; i++) jj_la1[i] = -1;
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
@@ -1200,15 +1314,15 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
 
   public ParseException generateParseException() {
     jj_expentries.removeAllElements();
-    boolean[] la1tokens = new boolean[54];
-    for (int i = 0; i < 54; i++) {
+    boolean[] la1tokens = new boolean[58];
+    for (int i = 0; i < 58; i++) {
       la1tokens[i] = false;
     }
     if (jj_kind >= 0) {
       la1tokens[jj_kind] = true;
       jj_kind = -1;
     }
-    for (int i = 0; i < 26; i++) {
+    for (int i = 0; i < 31; i++) {
       if (jj_la1[i] == jj_gen) {
         for (int j = 0; j < 32; j++) {
           if ((jj_la1_0[i] & (1<<j)) != 0) {
@@ -1220,7 +1334,7 @@ public class MiniSql/*@bgen(jjtree)*/implements MiniSqlTreeConstants, MiniSqlCon
         }
       }
     }
-    for (int i = 0; i < 54; i++) {
+    for (int i = 0; i < 58; i++) {
       if (la1tokens[i]) {
         jj_expentry = new int[1];
         jj_expentry[0] = i;
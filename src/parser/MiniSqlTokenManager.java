@@ -6,88 +6,88 @@ public class MiniSqlTokenManager implements MiniSqlConstants
 {
   public  java.io.PrintStream debugStream = System.out;
   public  void setDebugStream(java.io.PrintStream ds) { debugStream = ds; }
-private final int jjStopStringLiteralDfa_0(int pos, long active0)
+private final int jjStopStringLiteralDfa_0(int pos, long active0)
 {
-   switch (pos)
+   switch (pos)
    {
       case 0:
-         if ((active0 & 0x3ffffffc0L) != 0L)
+         if ((active0 & 0x3fffffffc0L) != 0L)
          {
-            jjmatchedKind = 48;
+            jjmatchedKind = 52;
             return 25;
          }
          return -1;
       case 1:
-         if ((active0 & 0x3fe3fff40L) != 0L)
+         if ((active0 & 0x3ff1fffec0L) != 0L)
          {
             if (jjmatchedPos != 1)
             {
-               jjmatchedKind = 48;
+               jjmatchedKind = 52;
                jjmatchedPos = 1;
             }
             return 25;
          }
-         if ((active0 & 0x1c00080L) != 0L)
+         if ((active0 & 0xe000100L) != 0L)
             return 25;
          return -1;
       case 2:
-         if ((active0 & 0x3f73fff00L) != 0L)
+         if ((active0 & 0x3fb9fffe40L) != 0L)
          {
-            jjmatchedKind = 48;
+            jjmatchedKind = 52;
             jjmatchedPos = 2;
             return 25;
          }
-         if ((active0 & 0x8000040L) != 0L)
+         if ((active0 & 0x40000080L) != 0L)
             return 25;
          return -1;
       case 3:
-         if ((active0 & 0x3f51d5300L) != 0L)
+         if ((active0 & 0x3fa8f54c40L) != 0L)
          {
             if (jjmatchedPos != 3)
             {
-               jjmatchedKind = 48;
+               jjmatchedKind = 52;
                jjmatchedPos = 3;
             }
             return 25;
          }
-         if ((active0 & 0x222ac00L) != 0L)
+         if ((active0 & 0x110ab200L) != 0L)
             return 25;
          return -1;
       case 4:
-         if ((active0 & 0x194185b00L) != 0L)
+         if ((active0 & 0x2b08240000L) != 0L)
+            return 25;
+         if ((active0 & 0x14a0d16c40L) != 0L)
          {
-            jjmatchedKind = 48;
+            jjmatchedKind = 52;
             jjmatchedPos = 4;
             return 25;
          }
-         if ((active0 & 0x261050000L) != 0L)
-            return 25;
          return -1;
       case 5:
-         if ((active0 & 0x105800L) != 0L)
+         if ((active0 & 0x916040L) != 0L)
          {
-            jjmatchedKind = 48;
+            jjmatchedKind = 52;
             jjmatchedPos = 5;
             return 25;
          }
-         if ((active0 & 0x194080300L) != 0L)
+         if ((active0 & 0x14a0400c00L) != 0L)
             return 25;
          return -1;
       case 6:
-         if ((active0 & 0x1800L) != 0L)
+         if ((active0 & 0x6000L) != 0L)
          {
-            jjmatchedKind = 48;
+            jjmatchedKind = 52;
             jjmatchedPos = 6;
             return 25;
          }
-         if ((active0 & 0x104000L) != 0L)
+         if ((active0 & 0x910040L) != 0L)
             return 25;
          return -1;
       default :
          return -1;
    }
 }
-private final int jjStartNfa_0(int pos, long active0)
+private final int jjStartNfa_0(int pos, long active0)
 {
    return jjMoveNfa_0(jjStopStringLiteralDfa_0(pos, active0), pos + 1);
 }
@@ -110,68 +110,68 @@ private final int jjMoveStringLiteralDfa0_0()
    switch(curChar)
    {
       case 40:
-         return jjStopAtPos(0, 40);
+         return jjStopAtPos(0, 44);
       case 41:
-         return jjStopAtPos(0, 41);
+         return jjStopAtPos(0, 45);
       case 42:
-         return jjStopAtPos(0, 44);
+         return jjStopAtPos(0, 48);
       case 44:
-         return jjStopAtPos(0, 42);
+         return jjStopAtPos(0, 46);
       case 59:
-         return jjStopAtPos(0, 43);
+         return jjStopAtPos(0, 47);
       case 60:
-         jjmatchedKind = 38;
-         return jjMoveStringLiteralDfa1_0(0x8800000000L);
+         jjmatchedKind = 42;
+         return jjMoveStringLiteralDfa1_0(0x88000000000L);
       case 61:
-         return jjStopAtPos(0, 34);
+         return jjStopAtPos(0, 38);
       case 62:
-         jjmatchedKind = 36;
-         return jjMoveStringLiteralDfa1_0(0x2000000000L);
+         jjmatchedKind = 40;
+         return jjMoveStringLiteralDfa1_0(0x20000000000L);
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa1_0(0x40L);
+         return jjMoveStringLiteralDfa1_0(0xc0L);
       case 66:
       case 98:
-         return jjMoveStringLiteralDfa1_0(0x80L);
+         return jjMoveStringLiteralDfa1_0(0x100L);
       case 67:
       case 99:
-         return jjMoveStringLiteralDfa1_0(0x100L);
+         return jjMoveStringLiteralDfa1_0(0x600L);
       case 68:
       case 100:
-         return jjMoveStringLiteralDfa1_0(0x3e00L);
+         return jjMoveStringLiteralDfa1_0(0xf800L);
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa1_0(0x4000L);
+         return jjMoveStringLiteralDfa1_0(0x10000L);
       case 70:
       case 102:
-         return jjMoveStringLiteralDfa1_0(0x30000L);
+         return jjMoveStringLiteralDfa1_0(0xc0000L);
       case 72:
       case 104:
-         return jjMoveStringLiteralDfa1_0(0x8000L);
+         return jjMoveStringLiteralDfa1_0(0x20000L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa1_0(0x3c0000L);
+         return jjMoveStringLiteralDfa1_0(0x1f00000L);
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa1_0(0x1c00000L);
+         return jjMoveStringLiteralDfa1_0(0xe000000L);
       case 81:
       case 113:
-         return jjMoveStringLiteralDfa1_0(0x2000000L);
+         return jjMoveStringLiteralDfa1_0(0x10000000L);
       case 83:
       case 115:
-         return jjMoveStringLiteralDfa1_0(0x3c000000L);
+         return jjMoveStringLiteralDfa1_0(0x1e0000000L);
       case 84:
       case 116:
-         return jjMoveStringLiteralDfa1_0(0x40000000L);
+         return jjMoveStringLiteralDfa1_0(0x200000000L);
       case 85:
       case 117:
-         return jjMoveStringLiteralDfa1_0(0x80000000L);
+         return jjMoveStringLiteralDfa1_0(0xc00000000L);
       case 86:
       case 118:
-         return jjMoveStringLiteralDfa1_0(0x100000000L);
+         return jjMoveStringLiteralDfa1_0(0x1000000000L);
       case 87:
       case 119:
-         return jjMoveStringLiteralDfa1_0(0x200000000L);
+         return jjMoveStringLiteralDfa1_0(0x2000000000L);
       default :
          return jjMoveNfa_0(5, 0);
    }
@@ -186,59 +186,65 @@ private final int jjMoveStringLiteralDfa1_0(long active0)
    switch(curChar)
    {
       case 61:
-         if ((active0 & 0x2000000000L) != 0L)
-            return jjStopAtPos(1, 37);
-         else if ((active0 & 0x8000000000L) != 0L)
-            return jjStopAtPos(1, 39);
+         if ((active0 & 0x20000000000L) != 0L)
+            return jjStopAtPos(1, 41);
+         else if ((active0 & 0x80000000000L) != 0L)
+            return jjStopAtPos(1, 43);
          break;
       case 62:
-         if ((active0 & 0x800000000L) != 0L)
-            return jjStopAtPos(1, 35);
+         if ((active0 & 0x8000000000L) != 0L)
+            return jjStopAtPos(1, 39);
          break;
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa2_0(active0, 0x140000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x1200000000L);
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa2_0(active0, 0xc008e00L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x60023800L);
       case 72:
       case 104:
-         return jjMoveStringLiteralDfa2_0(active0, 0x200000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x2000000000L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa2_0(active0, 0x1000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x4000L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa2_0(active0, 0x10000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x40000L);
       case 78:
       case 110:
-         if ((active0 & 0x400000L) != 0L)
-            return jjStartNfaWithStates_0(1, 22, 25);
-         return jjMoveStringLiteralDfa2_0(active0, 0x3c0040L);
+         if ((active0 & 0x2000000L) != 0L)
+            return jjStartNfaWithStates_0(1, 25, 25);
+         return jjMoveStringLiteralDfa2_0(active0, 0x1f000c0L);
+      case 79:
+      case 111:
+         return jjMoveStringLiteralDfa2_0(active0, 0x200L);
       case 80:
       case 112:
-         return jjMoveStringLiteralDfa2_0(active0, 0x80000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x400000000L);
       case 82:
       case 114:
-         if ((active0 & 0x800000L) != 0L)
+         if ((active0 & 0x4000000L) != 0L)
          {
-            jjmatchedKind = 23;
+            jjmatchedKind = 26;
             jjmatchedPos = 1;
          }
-         return jjMoveStringLiteralDfa2_0(active0, 0x1022100L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x8088400L);
+      case 83:
+      case 115:
+         return jjMoveStringLiteralDfa2_0(active0, 0x800000000L);
       case 84:
       case 116:
-         return jjMoveStringLiteralDfa2_0(active0, 0x30000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x180000000L);
       case 85:
       case 117:
-         return jjMoveStringLiteralDfa2_0(active0, 0x2000000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x10000000L);
       case 88:
       case 120:
-         return jjMoveStringLiteralDfa2_0(active0, 0x4000L);
+         return jjMoveStringLiteralDfa2_0(active0, 0x10000L);
       case 89:
       case 121:
-         if ((active0 & 0x80L) != 0L)
-            return jjStartNfaWithStates_0(1, 7, 25);
+         if ((active0 & 0x100L) != 0L)
+            return jjStartNfaWithStates_0(1, 8, 25);
          break;
       default :
          break;
@@ -258,41 +264,44 @@ private final int jjMoveStringLiteralDfa2_0(long old0, long active0)
    {
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa3_0(active0, 0x20000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x100000040L);
       case 66:
       case 98:
-         return jjMoveStringLiteralDfa3_0(active0, 0x40000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x200000000L);
+      case 67:
+      case 99:
+         return jjMoveStringLiteralDfa3_0(active0, 0x100000L);
       case 68:
       case 100:
-         if ((active0 & 0x40L) != 0L)
-            return jjStartNfaWithStates_0(2, 6, 25);
-         return jjMoveStringLiteralDfa3_0(active0, 0x81040000L);
+         if ((active0 & 0x80L) != 0L)
+            return jjStartNfaWithStates_0(2, 7, 25);
+         return jjMoveStringLiteralDfa3_0(active0, 0x408200000L);
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa3_0(active0, 0x200000100L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x2000000400L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa3_0(active0, 0x2000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x810000000L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa3_0(active0, 0x104008200L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x1020020800L);
       case 79:
       case 111:
-         return jjMoveStringLiteralDfa3_0(active0, 0x32000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0xc8000L);
       case 80:
       case 112:
-         return jjMoveStringLiteralDfa3_0(active0, 0x4000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x10200L);
       case 82:
       case 114:
-         return jjMoveStringLiteralDfa3_0(active0, 0x10000000L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x80000000L);
       case 83:
       case 115:
-         return jjMoveStringLiteralDfa3_0(active0, 0x81c00L);
+         return jjMoveStringLiteralDfa3_0(active0, 0x407000L);
       case 84:
       case 116:
-         if ((active0 & 0x8000000L) != 0L)
-            return jjStartNfaWithStates_0(2, 27, 25);
-         return jjMoveStringLiteralDfa3_0(active0, 0x300000L);
+         if ((active0 & 0x40000000L) != 0L)
+            return jjStartNfaWithStates_0(2, 30, 25);
+         return jjMoveStringLiteralDfa3_0(active0, 0x1800000L);
       default :
          break;
    }
@@ -311,52 +320,60 @@ private final int jjMoveStringLiteralDfa3_0(long old0, long active0)
    {
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa4_0(active0, 0x80010100L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x400040400L);
       case 67:
       case 99:
-         if ((active0 & 0x400L) != 0L)
+         if ((active0 & 0x1000L) != 0L)
          {
-            jjmatchedKind = 10;
+            jjmatchedKind = 12;
             jjmatchedPos = 3;
          }
-         return jjMoveStringLiteralDfa4_0(active0, 0x800L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x2000L);
       case 69:
       case 101:
-         return jjMoveStringLiteralDfa4_0(active0, 0x51c0200L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x28e00800L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa4_0(active0, 0x10000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x80000000L);
       case 76:
       case 108:
-         return jjMoveStringLiteralDfa4_0(active0, 0x40004000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x200110040L);
       case 77:
       case 109:
-         if ((active0 & 0x20000L) != 0L)
-            return jjStartNfaWithStates_0(3, 17, 25);
+         if ((active0 & 0x80000L) != 0L)
+            return jjStartNfaWithStates_0(3, 19, 25);
          break;
+      case 78:
+      case 110:
+         return jjMoveStringLiteralDfa4_0(active0, 0x800000000L);
       case 79:
       case 111:
-         if ((active0 & 0x200000L) != 0L)
-            return jjStartNfaWithStates_0(3, 21, 25);
+         if ((active0 & 0x1000000L) != 0L)
+            return jjStartNfaWithStates_0(3, 24, 25);
          break;
       case 80:
       case 112:
-         if ((active0 & 0x2000L) != 0L)
-            return jjStartNfaWithStates_0(3, 13, 25);
-         else if ((active0 & 0x8000L) != 0L)
+         if ((active0 & 0x8000L) != 0L)
             return jjStartNfaWithStates_0(3, 15, 25);
+         else if ((active0 & 0x20000L) != 0L)
+            return jjStartNfaWithStates_0(3, 17, 25);
          break;
       case 82:
       case 114:
-         return jjMoveStringLiteralDfa4_0(active0, 0x200000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x2000000000L);
       case 84:
       case 116:
-         if ((active0 & 0x2000000L) != 0L)
-            return jjStartNfaWithStates_0(3, 25, 25);
-         return jjMoveStringLiteralDfa4_0(active0, 0x20001000L);
+         if ((active0 & 0x10000000L) != 0L)
+            return jjStartNfaWithStates_0(3, 28, 25);
+         return jjMoveStringLiteralDfa4_0(active0, 0x100004000L);
       case 85:
       case 117:
-         return jjMoveStringLiteralDfa4_0(active0, 0x100000000L);
+         return jjMoveStringLiteralDfa4_0(active0, 0x1000000000L);
+      case 89:
+      case 121:
+         if ((active0 & 0x200L) != 0L)
+            return jjStartNfaWithStates_0(3, 9, 25);
+         break;
       default :
          break;
    }
@@ -375,46 +392,54 @@ private final int jjMoveStringLiteralDfa4_0(long old0, long active0)
    {
       case 65:
       case 97:
-         return jjMoveStringLiteralDfa5_0(active0, 0x4000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x10000L);
       case 67:
       case 99:
-         return jjMoveStringLiteralDfa5_0(active0, 0x4000000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x20000000L);
       case 69:
       case 101:
-         if ((active0 & 0x40000000L) != 0L)
-            return jjStartNfaWithStates_0(4, 30, 25);
-         else if ((active0 & 0x200000000L) != 0L)
+         if ((active0 & 0x200000000L) != 0L)
             return jjStartNfaWithStates_0(4, 33, 25);
-         return jjMoveStringLiteralDfa5_0(active0, 0x100000000L);
+         else if ((active0 & 0x2000000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 37, 25);
+         return jjMoveStringLiteralDfa5_0(active0, 0x1000000000L);
       case 71:
       case 103:
-         return jjMoveStringLiteralDfa5_0(active0, 0x100000L);
+         if ((active0 & 0x800000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 35, 25);
+         return jjMoveStringLiteralDfa5_0(active0, 0x800000L);
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa5_0(active0, 0x1000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x4000L);
       case 78:
       case 110:
-         return jjMoveStringLiteralDfa5_0(active0, 0x10000000L);
+         return jjMoveStringLiteralDfa5_0(active0, 0x80000000L);
       case 82:
       case 114:
-         if ((active0 & 0x1000000L) != 0L)
-            return jjStartNfaWithStates_0(4, 24, 25);
-         return jjMoveStringLiteralDfa5_0(active0, 0x80800L);
+         if ((active0 & 0x8000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 27, 25);
+         return jjMoveStringLiteralDfa5_0(active0, 0x402000L);
       case 83:
       case 115:
-         if ((active0 & 0x20000000L) != 0L)
-            return jjStartNfaWithStates_0(4, 29, 25);
+         if ((active0 & 0x100000000L) != 0L)
+            return jjStartNfaWithStates_0(4, 32, 25);
          break;
       case 84:
       case 116:
-         if ((active0 & 0x10000L) != 0L)
-            return jjStartNfaWithStates_0(4, 16, 25);
-         return jjMoveStringLiteralDfa5_0(active0, 0x80000300L);
-      case 88:
-      case 120:
          if ((active0 & 0x40000L) != 0L)
             return jjStartNfaWithStates_0(4, 18, 25);
+         return jjMoveStringLiteralDfa5_0(active0, 0x400000c00L);
+      case 85:
+      case 117:
+         return jjMoveStringLiteralDfa5_0(active0, 0x100000L);
+      case 88:
+      case 120:
+         if ((active0 & 0x200000L) != 0L)
+            return jjStartNfaWithStates_0(4, 21, 25);
          break;
+      case 89:
+      case 121:
+         return jjMoveStringLiteralDfa5_0(active0, 0x40L);
       default :
          break;
    }
@@ -431,38 +456,44 @@ private final int jjMoveStringLiteralDfa5_0(long old0, long active0)
    }
    switch(curChar)
    {
+      case 68:
+      case 100:
+         return jjMoveStringLiteralDfa6_0(active0, 0x100000L);
       case 69:
       case 101:
-         if ((active0 & 0x100L) != 0L)
-            return jjStartNfaWithStates_0(5, 8, 25);
-         else if ((active0 & 0x200L) != 0L)
-            return jjStartNfaWithStates_0(5, 9, 25);
-         else if ((active0 & 0x80000000L) != 0L)
-            return jjStartNfaWithStates_0(5, 31, 25);
-         return jjMoveStringLiteralDfa6_0(active0, 0x100000L);
+         if ((active0 & 0x400L) != 0L)
+            return jjStartNfaWithStates_0(5, 10, 25);
+         else if ((active0 & 0x800L) != 0L)
+            return jjStartNfaWithStates_0(5, 11, 25);
+         else if ((active0 & 0x400000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 34, 25);
+         return jjMoveStringLiteralDfa6_0(active0, 0x800000L);
       case 71:
       case 103:
-         if ((active0 & 0x10000000L) != 0L)
-            return jjStartNfaWithStates_0(5, 28, 25);
+         if ((active0 & 0x80000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 31, 25);
          break;
       case 73:
       case 105:
-         return jjMoveStringLiteralDfa6_0(active0, 0x4800L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x12000L);
       case 78:
       case 110:
-         return jjMoveStringLiteralDfa6_0(active0, 0x1000L);
+         return jjMoveStringLiteralDfa6_0(active0, 0x4000L);
       case 83:
       case 115:
-         if ((active0 & 0x100000000L) != 0L)
-            return jjStartNfaWithStates_0(5, 32, 25);
+         if ((active0 & 0x1000000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 36, 25);
          break;
       case 84:
       case 116:
-         if ((active0 & 0x80000L) != 0L)
-            return jjStartNfaWithStates_0(5, 19, 25);
-         else if ((active0 & 0x4000000L) != 0L)
-            return jjStartNfaWithStates_0(5, 26, 25);
+         if ((active0 & 0x400000L) != 0L)
+            return jjStartNfaWithStates_0(5, 22, 25);
+         else if ((active0 & 0x20000000L) != 0L)
+            return jjStartNfaWithStates_0(5, 29, 25);
          break;
+      case 90:
+      case 122:
+         return jjMoveStringLiteralDfa6_0(active0, 0x40L);
       default :
          break;
    }
@@ -481,19 +512,26 @@ private final int jjMoveStringLiteralDfa6_0(long old0, long active0)
    {
       case 66:
       case 98:
-         return jjMoveStringLiteralDfa7_0(active0, 0x800L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x2000L);
       case 67:
       case 99:
-         return jjMoveStringLiteralDfa7_0(active0, 0x1000L);
+         return jjMoveStringLiteralDfa7_0(active0, 0x4000L);
+      case 69:
+      case 101:
+         if ((active0 & 0x40L) != 0L)
+            return jjStartNfaWithStates_0(6, 6, 25);
+         else if ((active0 & 0x100000L) != 0L)
+            return jjStartNfaWithStates_0(6, 20, 25);
+         break;
       case 78:
       case 110:
-         if ((active0 & 0x4000L) != 0L)
-            return jjStartNfaWithStates_0(6, 14, 25);
+         if ((active0 & 0x10000L) != 0L)
+            return jjStartNfaWithStates_0(6, 16, 25);
          break;
       case 82:
       case 114:
-         if ((active0 & 0x100000L) != 0L)
-            return jjStartNfaWithStates_0(6, 20, 25);
+         if ((active0 & 0x800000L) != 0L)
+            return jjStartNfaWithStates_0(6, 23, 25);
          break;
       default :
          break;
@@ -513,13 +551,13 @@ private final int jjMoveStringLiteralDfa7_0(long old0, long active0)
    {
       case 69:
       case 101:
-         if ((active0 & 0x800L) != 0L)
-            return jjStartNfaWithStates_0(7, 11, 25);
+         if ((active0 & 0x2000L) != 0L)
+            return jjStartNfaWithStates_0(7, 13, 25);
          break;
       case 84:
       case 116:
-         if ((active0 & 0x1000L) != 0L)
-            return jjStartNfaWithStates_0(7, 12, 25);
+         if ((active0 & 0x4000L) != 0L)
+            return jjStartNfaWithStates_0(7, 14, 25);
          break;
       default :
          break;
@@ -556,8 +594,8 @@ private final void jjCheckNAddStates(int start)
    jjCheckNAdd(jjnextStates[start]);
    jjCheckNAdd(jjnextStates[start + 1]);
 }
-static final long[] jjbitVec0 = {
-   0x0L, 0x0L, 0xffffffffffffffffL, 0xffffffffffffffffL
+static final long[] jjbitVec0 = {
+   0x0L, 0x0L, 0xffffffffffffffffL, 0xffffffffffffffffL
 };
 private final int jjMoveNfa_0(int startState, int curPos)
 {
@@ -582,15 +620,15 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 4:
                   if ((0x3ff001000000000L & l) == 0L)
                      break;
-                  if (kind > 48)
-                     kind = 48;
+                  if (kind > 52)
+                     kind = 52;
                   jjCheckNAdd(4);
                   break;
                case 5:
                   if ((0x3ff000000000000L & l) != 0L)
                   {
-                     if (kind > 45)
-                        kind = 45;
+                     if (kind > 49)
+                        kind = 49;
                      jjCheckNAddStates(0, 2);
                   }
                   else if (curChar == 45)
@@ -615,8 +653,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 2:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 47)
-                     kind = 47;
+                  if (kind > 51)
+                     kind = 51;
                   jjCheckNAdd(2);
                   break;
                case 6:
@@ -626,8 +664,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 7:
                   if (curChar != 39)
                      break;
-                  if (kind > 51)
-                     kind = 51;
+                  if (kind > 55)
+                     kind = 55;
                   jjstateSet[jjnewStateCnt++] = 8;
                   break;
                case 8:
@@ -641,15 +679,15 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 10:
                   if (curChar != 45)
                      break;
-                  if (kind > 52)
-                     kind = 52;
+                  if (kind > 56)
+                     kind = 56;
                   jjCheckNAdd(11);
                   break;
                case 11:
                   if ((0xffffffffffffdbffL & l) == 0L)
                      break;
-                  if (kind > 52)
-                     kind = 52;
+                  if (kind > 56)
+                     kind = 56;
                   jjCheckNAdd(11);
                   break;
                case 12:
@@ -677,8 +715,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                      jjCheckNAddTwoStates(17, 15);
                   break;
                case 18:
-                  if (curChar == 47 && kind > 53)
-                     kind = 53;
+                  if (curChar == 47 && kind > 57)
+                     kind = 57;
                   break;
                case 19:
                   if (curChar == 47)
@@ -691,8 +729,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 21:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 45)
-                     kind = 45;
+                  if (kind > 49)
+                     kind = 49;
                   jjCheckNAdd(21);
                   break;
                case 22:
@@ -706,8 +744,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 24:
                   if ((0x3ff000000000000L & l) == 0L)
                      break;
-                  if (kind > 45)
-                     kind = 45;
+                  if (kind > 49)
+                     kind = 49;
                   jjCheckNAddStates(0, 2);
                   break;
                default : break;
@@ -724,14 +762,14 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 25:
                   if ((0x7fffffe87fffffeL & l) != 0L)
                   {
-                     if (kind > 48)
-                        kind = 48;
+                     if (kind > 52)
+                        kind = 52;
                      jjCheckNAdd(4);
                   }
                   if ((0x7fffffe07fffffeL & l) != 0L)
                   {
-                     if (kind > 48)
-                        kind = 48;
+                     if (kind > 52)
+                        kind = 52;
                      jjCheckNAddTwoStates(3, 4);
                   }
                   break;
@@ -739,15 +777,15 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 3:
                   if ((0x7fffffe07fffffeL & l) == 0L)
                      break;
-                  if (kind > 48)
-                     kind = 48;
+                  if (kind > 52)
+                     kind = 52;
                   jjCheckNAddTwoStates(3, 4);
                   break;
                case 4:
                   if ((0x7fffffe87fffffeL & l) == 0L)
                      break;
-                  if (kind > 48)
-                     kind = 48;
+                  if (kind > 52)
+                     kind = 52;
                   jjCheckNAdd(4);
                   break;
                case 6:
@@ -757,8 +795,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                   jjCheckNAddTwoStates(9, 7);
                   break;
                case 11:
-                  if (kind > 52)
-                     kind = 52;
+                  if (kind > 56)
+                     kind = 56;
                   jjstateSet[jjnewStateCnt++] = 11;
                   break;
                case 14:
@@ -791,8 +829,8 @@ private final int jjMoveNfa_0(int startState, int curPos)
                case 11:
                   if ((jjbitVec0[i2] & l2) == 0L)
                      break;
-                  if (kind > 52)
-                     kind = 52;
+                  if (kind > 56)
+                     kind = 56;
                   jjstateSet[jjnewStateCnt++] = 11;
                   break;
                case 14:
@@ -821,26 +859,26 @@ private final int jjMoveNfa_0(int startState, int curPos)
       catch(java.io.IOException e) { return curPos; }
    }
 }
-static final int[] jjnextStates = {
-   21, 23, 0, 21, 22, 23, 0, 15, 16, 18, 
+static final int[] jjnextStates = {
+   21, 23, 0, 21, 22, 23, 0, 15, 16, 18, 
 };
 public static final String[] jjstrLiteralImages = {
 "", null, null, null, null, null, null, null, null, null, null, null, null, 
 null, null, null, null, null, null, null, null, null, null, null, null, null, null, 
-null, null, null, null, null, null, null, "\75", "\74\76", "\76", "\76\75", "\74", 
-"\74\75", "\50", "\51", "\54", "\73", "\52", null, null, null, null, null, null, null, 
-null, null, };
+null, null, null, null, null, null, null, null, null, null, null, "\75", "\74\76", 
+"\76", "\76\75", "\74", "\74\75", "\50", "\51", "\54", "\73", "\52", null, null, null, 
+null, null, null, null, null, null, };
 public static final String[] lexStateNames = {
    "DEFAULT", 
 };
-static final long[] jjtoToken = {
-   0x9bfffffffffc1L, 
+static final long[] jjtoToken = {
+   0x9bffffffffffc1L, 
 };
-static final long[] jjtoSkip = {
-   0x3000000000003eL, 
+static final long[] jjtoSkip = {
+   0x30000000000003eL, 
 };
-static final long[] jjtoSpecial = {
-   0x30000000000000L, 
+static final long[] jjtoSpecial = {
+   0x300000000000000L, 
 };
 protected SimpleCharStream input_stream;
 private final int[] jjrounds = new int[25];
@@ -909,7 +947,7 @@ public Token getNextToken()
   Token matchedToken;
   int curPos = 0;
 
-  EOFLoop :
+  EOFLoop :
   for (;;)
   {   
    try   
@@ -11,17 +11,19 @@ public interface MiniSqlTreeConstants
   public int JJT_DROPTABLE = 4;
   public int JJT_DROPINDEX = 5;
   public int JJT_DESCRIBE = 6;
-  public int JJT_INSERT = 7;
-  public int JJT_SELECT = 8;
-  public int JJT_UPDATE = 9;
-  public int JJT_DELETE = 10;
-  public int JJT_IDENTLIST = 11;
-  public int JJT_COLUMNTYPE = 12;
-  public int JJT_ORDERBY = 13;
-  public int JJT_OREXPR = 14;
-  public int JJT_ANDEXPR = 15;
-  public int JJT_EXPRPRED = 16;
-  public int JJT_EXPRVALUE = 17;
+  public int JJT_ANALYZE = 7;
+  public int JJT_INSERT = 8;
+  public int JJT_COPY = 9;
+  public int JJT_SELECT = 10;
+  public int JJT_UPDATE = 11;
+  public int JJT_DELETE = 12;
+  public int JJT_IDENTLIST = 13;
+  public int JJT_COLUMNTYPE = 14;
+  public int JJT_ORDERBY = 15;
+  public int JJT_OREXPR = 16;
+  public int JJT_ANDEXPR = 17;
+  public int JJT_EXPRPRED = 18;
+  public int JJT_EXPRVALUE = 19;
 
 
   public String[] jjtNodeName = {
@@ -32,7 +34,9 @@ public interface MiniSqlTreeConstants
     "_DropTable",
     "_DropIndex",
     "_Describe",
+    "_Analyze",
     "_Insert",
+    "_Copy",
     "_Select",
     "_Update",
     "_Delete",
@@ -0,0 +1,98 @@
+package query;
+
+import global.Minibase;
+import heap.HeapFile;
+import parser.AST_Analyze;
+import relop.FileScan;
+import relop.KeyField;
+import relop.Schema;
+import relop.Sort;
+import relop.Tuple;
+
+/**
+ * Execution plan for gathering the column statistics of a table.
+ */
+class Analyze implements Plan {
+
+  private String fileName;
+
+  /**
+   * Optimizes the plan, given the parsed query.
+   * 
+   * @throws QueryException if table doesn't exist
+   */
+  public Analyze(AST_Analyze tree) throws QueryException {
+    fileName = tree.getFileName();
+    QueryCheck.tableExists(fileName);
+  } // public Analyze(AST_Analyze tree) throws QueryException
+
+  /**
+   * Executes the plan and prints applicable output.
+   */
+  public void execute() {
+    Schema schema = Minibase.SystemCatalog.getSchema(fileName);
+    HeapFile file = new HeapFile(fileName);
+    int rowCount = file.getRecCnt();
+
+    ColumnStats[] stats = new ColumnStats[schema.getCount()];
+    for (int i = 0; i < stats.length; i++) {
+      stats[i] = analyzeColumn(schema, file, i, rowCount);
+    }
+    Minibase.SystemCatalog.setStats(fileName, stats);
+
+    System.out.println("Table analyzed.");
+  } // public void execute()
+
+  /**
+   * Gathers the statistics of one column by reading its values in sorted
+   * order, closing a histogram bucket at the first new value after it holds
+   * its share of the rows.
+   */
+  private ColumnStats analyzeColumn(Schema schema, HeapFile file, int fldno,
+      int rowCount) {
+    int perBucket = Math.max(1,
+        (rowCount + ColumnStats.MAX_BUCKETS - 1) / ColumnStats.MAX_BUCKETS);
+    ColumnStats stats = new ColumnStats(schema.fieldType(fldno),
+        ColumnStats.MAX_BUCKETS);
+    KeyField key = new KeyField(schema, fldno);
+
+    Sort sort = new Sort(new FileScan(schema, file), new int[] { fldno },
+        new boolean[] { false }, Optimizer.getWorkMemory());
+    int bucket = -1;
+    Tuple prev = null;
+    while (sort.hasNext()) {
+      Tuple tuple = sort.getNext();
+      Object value = tuple.getField(fldno);
+      if (prev == null || !key.equals(prev.getData(), key, tuple.getData())) {
+        if (bucket < 0 || (stats.rows[bucket] >= perBucket
+            && bucket < ColumnStats.MAX_BUCKETS - 1)) {
+          bucket++;
+          stats.lows[bucket] = value;
+        }
+        stats.distinctCount++;
+        stats.distincts[bucket]++;
+      }
+      stats.highs[bucket] = value;
+      stats.rows[bucket]++;
+      stats.rowCount++;
+      prev = tuple;
+    }
+    sort.close();
+
+    // trim the buckets that weren't needed
+    ColumnStats result = new ColumnStats(stats.type, bucket + 1);
+    System.arraycopy(stats.lows, 0, result.lows, 0, bucket + 1);
+    System.arraycopy(stats.highs, 0, result.highs, 0, bucket + 1);
+    System.arraycopy(stats.rows, 0, result.rows, 0, bucket + 1);
+    System.arraycopy(stats.distincts, 0, result.distincts, 0, bucket + 1);
+    result.rowCount = stats.rowCount;
+    result.distinctCount = stats.distinctCount;
+    if (bucket >= 0) {
+      result.min = result.lows[0];
+      result.max = result.highs[bucket];
+    }
+    return result;
+
+  } // private ColumnStats analyzeColumn(Schema, HeapFile, int, int)
+
+} // class Analyze implements Plan
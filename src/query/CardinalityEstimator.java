@@ -0,0 +1,281 @@
+package query;
+
+import global.AttrOperator;
+import global.AttrType;
+import global.Minibase;
+import relop.Predicate;
+import relop.Schema;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates how many tuples pass the clauses of a query, and so how many
+ * tuples each node of a plan produces. Each disjunct of a CNF clause is
+ * estimated from the column statistics gathered by ANALYZE where available,
+ * and from textbook defaults where not; clauses are assumed to be independent,
+ * except for lower and upper bounds on the same analyzed column.
+ */
+public class CardinalityEstimator {
+
+  /** Default selectivity of an equality with a constant. */
+  public static final double EQ_SELECTIVITY = 0.1;
+
+  /** Default selectivity of a range comparison. */
+  public static final double RANGE_SELECTIVITY = 1.0 / 3.0;
+
+  // --------------------------------------------------------------------------
+
+  /** Tells which table each column belongs to. */
+  protected PredicateManager pm;
+
+  /** Schema of each FROM clause table. */
+  protected Schema[] schemas;
+
+  /** Current number of records in each FROM clause table. */
+  protected int[] recCounts;
+
+  /** Column statistics of each FROM clause table (null if not analyzed). */
+  protected ColumnStats[][] stats;
+
+  /** Lower case names of the columns a clause equates with a constant. */
+  protected Set<String> bound;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Loads the record counts and column statistics of the given tables.
+   */
+  public CardinalityEstimator(PredicateManager pm, String[] tables) {
+    this.pm = pm;
+    this.schemas = new Schema[tables.length];
+    this.recCounts = new int[tables.length];
+    this.stats = new ColumnStats[tables.length][];
+    for (int i = 0; i < tables.length; i++) {
+      schemas[i] = Minibase.SystemCatalog.getSchema(tables[i]);
+      recCounts[i] = Math.max(0, Minibase.SystemCatalog.getRecCount(tables[i]));
+      stats[i] = Minibase.SystemCatalog.getStats(tables[i], schemas[i]);
+    }
+    this.bound = new HashSet<>();
+    for (int i = 0; i < tables.length; i++) {
+      for (Predicate[] clause : pm.getIndexEqualities(i)) {
+        bound.add(PredicateManager.getEqualityColumn(clause[0]).toLowerCase());
+      }
+    }
+  }
+
+  /**
+   * Gets the current number of records in the given table.
+   */
+  public int getRecCount(int table) {
+    return recCounts[table];
+  }
+
+  /**
+   * Gets the statistics of the given column, or null if its table hasn't been
+   * analyzed.
+   */
+  public ColumnStats getStats(String column) {
+    int table = pm.tableOf(column);
+    if (table < 0) {
+      return null;
+    }
+    return stats[table][schemas[table].fieldNumber(column)];
+  }
+
+  /**
+   * Estimates the number of distinct values of a column in its base table;
+   * without statistics, every value is assumed to be distinct.
+   */
+  public double getDistinct(String column) {
+    ColumnStats col = getStats(column);
+    if (col != null) {
+      return Math.max(1, col.getDistinctCount());
+    }
+    int table = pm.tableOf(column);
+    return Math.max(1, table < 0 ? 1 : recCounts[table]);
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Estimates how many of the given tuples pass all of the given clauses.
+   */
+  public double filter(double tuples, List<Predicate[]> clauses) {
+
+    // the tightest bound on each side of an analyzed column's range, since
+    // e.g. x >= a AND x < b only passes the rows above a that are also below b
+    Map<String, double[]> ranges = new HashMap<>();
+    for (Predicate[] clause : clauses) {
+      int side = getRangeSide(clause);
+      if (side < 0) {
+        tuples *= getSelectivity(clause);
+        continue;
+      }
+      String column = PredicateManager.getEqualityColumn(clause[0]).toLowerCase();
+      if (!ranges.containsKey(column)) {
+        ranges.put(column, new double[] { 1, 1 });
+      }
+      double[] range = ranges.get(column);
+      range[side] = Math.min(range[side], getSelectivity(clause));
+    }
+    for (double[] range : ranges.values()) {
+      tuples *= Math.max(0, range[0] + range[1] - 1);
+    }
+    return tuples;
+
+  } // public double filter(double tuples, List<Predicate[]> clauses)
+
+  /**
+   * Tells whether a clause is a lower (0) or upper (1) bound on a column with
+   * statistics, or neither (-1).
+   */
+  protected int getRangeSide(Predicate[] clause) {
+    Predicate p = clause[0];
+    if (clause.length > 1
+        || (p.getLtype() == AttrType.COLNAME) == (p.getRtype() == AttrType.COLNAME)) {
+      return -1;
+    }
+    ColumnStats col = getStats(PredicateManager.getEqualityColumn(p));
+    if (col == null || !col.isComparable(PredicateManager.getEqualityValue(p))) {
+      return -1;
+    }
+    switch (PredicateManager.getComparisonOperator(p)) {
+      case AttrOperator.GT:
+      case AttrOperator.GTE:
+        return 0;
+      case AttrOperator.LT:
+      case AttrOperator.LTE:
+        return 1;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * Estimates how many tuples the join of two subtrees produces on the given
+   * clauses, given the estimates of the subtrees themselves.
+   */
+  public double join(PlanNode left, PlanNode right, List<Predicate[]> clauses) {
+    double tuples = left.getCardinality() * right.getCardinality();
+    for (Predicate[] clause : clauses) {
+      tuples *= getSelectivity(clause, left, right);
+    }
+    return tuples;
+  }
+
+  /**
+   * Estimates the fraction of base table tuples that pass the given clause.
+   */
+  public double getSelectivity(Predicate[] clause) {
+    return getSelectivity(clause, null, null);
+  }
+
+  /**
+   * Estimates the fraction of tuples that pass the given clause, when it joins
+   * the given subtrees (or, if they are null, when it is applied to a base
+   * table).
+   */
+  protected double getSelectivity(Predicate[] clause, PlanNode left,
+      PlanNode right) {
+
+    // a disjunction fails only if every one of its predicates fails
+    double fail = 1.0;
+    for (Predicate p : clause) {
+      fail *= 1.0 - getSelectivity(p, left, right);
+    }
+    return 1.0 - fail;
+  }
+
+  /**
+   * Estimates the fraction of tuples that pass a single predicate.
+   */
+  protected double getSelectivity(Predicate p, PlanNode left, PlanNode right) {
+    boolean lcol = p.getLtype() == AttrType.COLNAME;
+    boolean rcol = p.getRtype() == AttrType.COLNAME;
+
+    // column = column: each value of the column with fewer distinct values
+    // (in its subtree) is assumed to match one of the other's
+    if (lcol && rcol) {
+      if (p.getOper() == AttrOperator.EQ) {
+        double ldistinct = getDistinct((String) p.getLeft(), left, right);
+        double rdistinct = getDistinct((String) p.getRight(), left, right);
+        return 1.0 / Math.max(1, Math.max(ldistinct, rdistinct));
+      }
+      return getDefault(p.getOper());
+    }
+
+    // column op constant, in either order
+    if (lcol || rcol) {
+      ColumnStats col = getStats((String) (lcol ? p.getLeft() : p.getRight()));
+      Object value = lcol ? p.getRight() : p.getLeft();
+      if (col != null && col.isComparable(value)) {
+        return col.selectivity(lcol ? p.getOper() : flip(p.getOper()), value);
+      }
+    }
+    return getDefault(p.getOper());
+  }
+
+  /**
+   * Estimates the number of distinct values of a column in whichever of the
+   * subtrees produces it: just one if a clause equates it with a constant,
+   * and never more than the subtree's cardinality.
+   */
+  protected double getDistinct(String column, PlanNode left, PlanNode right) {
+    if (bound.contains(column.toLowerCase())) {
+      return 1;
+    }
+    return Math.min(getDistinct(column), cap(column, left, right));
+  }
+
+  /**
+   * Gets the largest number of distinct values the column can have in
+   * whichever of the subtrees produces it, i.e. that subtree's cardinality.
+   */
+  protected double cap(String column, PlanNode left, PlanNode right) {
+    int table = 1 << pm.tableOf(column);
+    if (left != null && (left.getTables() & table) != 0) {
+      return Math.max(1, left.getCardinality());
+    }
+    if (right != null && (right.getTables() & table) != 0) {
+      return Math.max(1, right.getCardinality());
+    }
+    return Double.MAX_VALUE;
+  }
+
+  /**
+   * Gets the textbook selectivity of a comparison with no statistics.
+   */
+  protected static double getDefault(int oper) {
+    switch (oper) {
+      case AttrOperator.EQ:
+        return EQ_SELECTIVITY;
+      case AttrOperator.NEQ:
+        return 1.0 - EQ_SELECTIVITY;
+      default:
+        return RANGE_SELECTIVITY;
+    }
+  }
+
+  /**
+   * Gets the operator that compares the same way with its operands swapped.
+   */
+  protected static int flip(int oper) {
+    switch (oper) {
+      case AttrOperator.LT:
+        return AttrOperator.GT;
+      case AttrOperator.LTE:
+        return AttrOperator.GTE;
+      case AttrOperator.GT:
+        return AttrOperator.LT;
+      case AttrOperator.GTE:
+        return AttrOperator.LTE;
+      default:
+        return oper;
+    }
+  }
+
+} // public class CardinalityEstimator
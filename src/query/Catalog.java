@@ -2,10 +2,14 @@ package query;
 
 import global.AttrType;
 import global.GlobalConst;
+import global.Minibase;
 import global.RID;
 import heap.HeapFile;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 
 import relop.FileScan;
 import relop.Schema;
@@ -14,7 +18,12 @@ import relop.Tuple;
 /**
  * <h3>Minibase System Catalog</h3>
  * Maintains metadata about every table, column, and index in the database; this
- * information itself is stored in tables (i.e. heap files).
+ * information itself is stored in tables (i.e. heap files). The tables, columns,
+ * indexes and record counts are also kept in memory, loaded when the database
+ * is opened, so that looking them up reads no pages; changes are written
+ * through to both. Changed record counts are only written back by
+ * flushCounts, at the end of each statement, and are recounted from the heap
+ * files when the database is opened, in case some were lost.
  */
 public class Catalog implements GlobalConst {
 
@@ -27,6 +36,15 @@ public class Catalog implements GlobalConst {
   /** Name of the index catalog. */
   protected static final String IND_CAT = "mb_ind";
 
+  /** Name of the column statistics catalog. */
+  protected static final String STAT_CAT = "mb_stats";
+
+  /** Longest histogram bound stored for a string column. */
+  protected static final int STAT_VALUE_LEN = 50;
+
+  /** Bucket number of the row that summarizes a whole column. */
+  protected static final int STAT_SUMMARY = -1;
+
   // --------------------------------------------------------------------------
 
   /** Schema of the relation catalog. */
@@ -38,6 +56,9 @@ public class Catalog implements GlobalConst {
   /** Schema of the index catalog. */
   protected Schema s_ind;
 
+  /** Schema of the column statistics catalog. */
+  protected Schema s_stat;
+
   /** Heap file for the relation catalog. */
   protected HeapFile f_rel;
 
@@ -47,6 +68,33 @@ public class Catalog implements GlobalConst {
   /** Heap file for the index catalog. */
   protected HeapFile f_ind;
 
+  /** Heap file for the column statistics catalog. */
+  protected HeapFile f_stat;
+
+  /** Version of each table changed since the database was opened. */
+  protected HashMap<String, Integer> versions;
+
+  /** Schema of each table, by lower-case name. */
+  protected HashMap<String, Schema> schemas;
+
+  /** Relation catalog row of each table, by lower-case name. */
+  protected HashMap<String, RID> relRids;
+
+  /** Record count of each table, by lower-case name. */
+  protected HashMap<String, Integer> counts;
+
+  /** Tables whose record counts have changed since they were last written. */
+  protected HashSet<String> dirtyCounts;
+
+  /** Each index, by lower-case name, in catalog order. */
+  protected LinkedHashMap<String, IndexDesc> indexes;
+
+  /** Index catalog rows of each index, by lower-case name. */
+  protected HashMap<String, ArrayList<RID>> indexRids;
+
+  /** Indexes of each table, by lower-case table name. */
+  protected HashMap<String, ArrayList<IndexDesc>> tableIndexes;
+
   // --------------------------------------------------------------------------
 
   /**
@@ -63,11 +111,20 @@ public class Catalog implements GlobalConst {
     f_rel = new HeapFile(REL_CAT);
     f_att = new HeapFile(ATT_CAT);
     f_ind = new HeapFile(IND_CAT);
+    f_stat = new HeapFile(STAT_CAT);
 
     // add default records, if needed
     if (!exists) {
       initCatFiles();
     }
+    loadCatFiles();
+    if (exists) {
+      reconcileCounts();
+    }
+
+    // results cached for another database don't apply
+    versions = new HashMap<String, Integer>();
+    Optimizer.getResultCache().clear();
 
   } // public Catalog()
 
@@ -87,10 +144,25 @@ public class Catalog implements GlobalConst {
     s_att.initField(3, AttrType.INTEGER, 4, "length");
     s_att.initField(4, AttrType.STRING, NAME_MAXLEN, "attName");
 
-    s_ind = new Schema(3);
+    // one row per key column, numbered in key order, then per included column
+    s_ind = new Schema(6);
     s_ind.initField(0, AttrType.STRING, NAME_MAXLEN, "indName");
     s_ind.initField(1, AttrType.STRING, NAME_MAXLEN, "relName");
     s_ind.initField(2, AttrType.STRING, NAME_MAXLEN, "attName");
+    s_ind.initField(3, AttrType.STRING, NAME_MAXLEN, "indType");
+    s_ind.initField(4, AttrType.INTEGER, 4, "keyPos");
+    s_ind.initField(5, AttrType.INTEGER, 4, "included");
+
+    // one summary row per column (bucket -1), then one row per bucket
+    s_stat = new Schema(8);
+    s_stat.initField(0, AttrType.STRING, NAME_MAXLEN, "relName");
+    s_stat.initField(1, AttrType.INTEGER, 4, "fldno");
+    s_stat.initField(2, AttrType.INTEGER, 4, "bucket");
+    s_stat.initField(3, AttrType.STRING, STAT_VALUE_LEN, "low");
+    s_stat.initField(4, AttrType.STRING, STAT_VALUE_LEN, "high");
+    s_stat.initField(5, AttrType.INTEGER, 4, "rows");
+    s_stat.initField(6, AttrType.INTEGER, 4, "distinct");
+    s_stat.initField(7, AttrType.INTEGER, 4, "nulls");
 
   } // protected void initSchema()
 
@@ -103,15 +175,18 @@ public class Catalog implements GlobalConst {
     int relcnt = s_rel.getCount();
     int attcnt = s_att.getCount();
     int indcnt = s_ind.getCount();
+    int statcnt = s_stat.getCount();
 
     // insert a row for each catalog relation
     Tuple tuple = new Tuple(s_rel);
-    tuple.setAllFields(REL_CAT, 3);
+    tuple.setAllFields(REL_CAT, 4);
     tuple.insertIntoFile(f_rel);
-    tuple.setAllFields(ATT_CAT, relcnt + attcnt + indcnt);
+    tuple.setAllFields(ATT_CAT, relcnt + attcnt + indcnt + statcnt);
     tuple.insertIntoFile(f_rel);
     tuple.setAllFields(IND_CAT, 0);
     tuple.insertIntoFile(f_rel);
+    tuple.setAllFields(STAT_CAT, 0);
+    tuple.insertIntoFile(f_rel);
 
     // insert a row for each catalog attribute
     tuple = new Tuple(s_att);
@@ -130,41 +205,116 @@ public class Catalog implements GlobalConst {
           s_ind.fieldName(i));
       tuple.insertIntoFile(f_att);
     }
+    for (int i = 0; i < statcnt; i++) {
+      tuple.setAllFields(STAT_CAT, i, s_stat.fieldType(i),
+          s_stat.fieldLength(i), s_stat.fieldName(i));
+      tuple.insertIntoFile(f_att);
+    }
 
   } // protected void initCatFiles()
 
-  // --------------------------------------------------------------------------
-
   /**
-   * Gets the RID of the file's catalog entry, or null if it doesn't exist.
-   * 
-   * @param fileName name of the table/index file
-   * @param isTable true if a table, false if an index
+   * Loads the in-memory copy of the catalog files.
    */
-  public RID getFileRID(String fileName, boolean isTable) {
+  protected void loadCatFiles() {
 
-    // create the appropriate scan
-    FileScan scan;
-    if (isTable) {
-      scan = new FileScan(s_rel, f_rel);
-    } else {
-      scan = new FileScan(s_ind, f_ind);
+    // each table's relation catalog row and record count
+    relRids = new HashMap<String, RID>();
+    counts = new HashMap<String, Integer>();
+    dirtyCounts = new HashSet<String>();
+    FileScan scan = new FileScan(s_rel, f_rel);
+    while (scan.hasNext()) {
+      Tuple tuple = scan.getNext();
+      String relName = tuple.getStringFld(0).toLowerCase();
+      relRids.put(relName, scan.getLastRID());
+      counts.put(relName, tuple.getIntFld(1));
     }
+    scan.close();
 
-    // find the relation catalog row
+    // each table's attribute catalog rows, in field order
+    LinkedHashMap<String, ArrayList<Tuple>> rows =
+        new LinkedHashMap<String, ArrayList<Tuple>>();
+    scan = new FileScan(s_att, f_att);
     while (scan.hasNext()) {
       Tuple tuple = scan.getNext();
-      if (tuple.getStringFld(0).equalsIgnoreCase(fileName)) {
-        RID rid = scan.getLastRID();
-        scan.close();
-        return rid;
+      rows.computeIfAbsent(tuple.getStringFld(0).toLowerCase(),
+          name -> new ArrayList<Tuple>()).add(tuple);
+    }
+    scan.close();
+    schemas = new HashMap<String, Schema>();
+    for (String relName : rows.keySet()) {
+      ArrayList<Tuple> tuples = rows.get(relName);
+      Schema schema = new Schema(tuples.size());
+      for (int i = 0; i < tuples.size(); i++) {
+        Tuple tuple = tuples.get(i);
+        schema.initField(i, tuple.getIntFld(2), tuple.getIntFld(3), tuple
+            .getStringFld(4));
       }
+      schemas.put(relName, schema);
+    }
+
+    // and each index's catalog rows, one per column
+    rows.clear();
+    indexRids = new HashMap<String, ArrayList<RID>>();
+    scan = new FileScan(s_ind, f_ind);
+    while (scan.hasNext()) {
+      Tuple tuple = scan.getNext();
+      String indName = tuple.getStringFld(0).toLowerCase();
+      rows.computeIfAbsent(indName, name -> new ArrayList<Tuple>()).add(tuple);
+      indexRids.computeIfAbsent(indName, name -> new ArrayList<RID>())
+          .add(scan.getLastRID());
     }
+    scan.close();
+    indexes = new LinkedHashMap<String, IndexDesc>();
+    tableIndexes = new HashMap<String, ArrayList<IndexDesc>>();
+    for (ArrayList<Tuple> tuples : rows.values()) {
+      addIndex(new IndexDesc(tuples));
+    }
+
+  } // protected void loadCatFiles()
 
-    // otherwise, record not found
+  /**
+   * Replaces any record counts that differ from the number of records in the
+   * table's heap file, i.e. changes that weren't flushed before a crash.
+   */
+  protected void reconcileCounts() {
+    FileScan scan = new FileScan(s_rel, f_rel);
+    while (scan.hasNext()) {
+      String fileName = scan.getNext().getStringFld(0);
+      if (Minibase.DiskManager.get_file_entry(fileName) != null) {
+        int count = new HeapFile(fileName).getRecCnt();
+        if (count != getRecCount(fileName)) {
+          setRecCount(fileName, count);
+        }
+      }
+    }
     scan.close();
-    return null;
+    flushCounts();
+  }
+
+  /**
+   * Adds an index to the in-memory copy of the catalog.
+   */
+  protected void addIndex(IndexDesc ind) {
+    indexes.put(ind.indexName.toLowerCase(), ind);
+    tableIndexes.computeIfAbsent(ind.tableName.toLowerCase(),
+        name -> new ArrayList<IndexDesc>()).add(ind);
+  }
 
+  // --------------------------------------------------------------------------
+
+  /**
+   * Gets the RID of the file's catalog entry, or null if it doesn't exist.
+   * 
+   * @param fileName name of the table/index file
+   * @param isTable true if a table, false if an index
+   */
+  public RID getFileRID(String fileName, boolean isTable) {
+    if (isTable) {
+      return relRids.get(fileName.toLowerCase());
+    }
+    ArrayList<RID> rids = indexRids.get(fileName.toLowerCase());
+    return rids == null ? null : rids.get(0);
   } // public RID getFileEntry(String fileName, boolean isTable)
 
   /**
@@ -175,7 +325,8 @@ public class Catalog implements GlobalConst {
     // add the relation catalog row
     Tuple tuple = new Tuple(s_rel);
     tuple.setAllFields(fileName, 0);
-    tuple.insertIntoFile(f_rel);
+    relRids.put(fileName.toLowerCase(), tuple.insertIntoFile(f_rel));
+    counts.put(fileName.toLowerCase(), 0);
 
     // add the attribute catalog rows
     tuple = new Tuple(s_att);
@@ -184,6 +335,7 @@ public class Catalog implements GlobalConst {
           .fieldLength(i), schema.fieldName(i));
       tuple.insertIntoFile(f_att);
     }
+    schemas.put(fileName.toLowerCase(), schema);
 
   } // public void createTable(String fileName, Schema schema)
 
@@ -191,27 +343,8 @@ public class Catalog implements GlobalConst {
    * Gets the Schema for the given table.
    */
   public Schema getSchema(String fileName) {
-
-    // scan the applicable catalog tuples
-    ArrayList<Tuple> tuples = new ArrayList<Tuple>();
-    FileScan scan = new FileScan(s_att, f_att);
-    while (scan.hasNext()) {
-      Tuple tuple = scan.getNext();
-      if (tuple.getStringFld(0).equalsIgnoreCase(fileName)) {
-        tuples.add(tuple);
-      }
-    }
-    scan.close();
-
-    // build the schema from the resulting tuples
-    Schema schema = new Schema(tuples.size());
-    for (int i = 0; i < tuples.size(); i++) {
-      Tuple tuple = tuples.get(i);
-      schema.initField(i, tuple.getIntFld(2), tuple.getIntFld(3), tuple
-          .getStringFld(4));
-    }
-    return schema;
-
+    Schema schema = schemas.get(fileName.toLowerCase());
+    return schema == null ? new Schema(0) : schema;
   } // public Schema getSchema(String fileName)
 
   /**
@@ -222,6 +355,11 @@ public class Catalog implements GlobalConst {
     // find and remove the relation catalog row
     RID rid = getFileRID(fileName, true);
     f_rel.deleteRecord(rid);
+    relRids.remove(fileName.toLowerCase());
+    counts.remove(fileName.toLowerCase());
+    dirtyCounts.remove(fileName.toLowerCase());
+    schemas.remove(fileName.toLowerCase());
+    tableIndexes.remove(fileName.toLowerCase());
 
     // find and remove all attribute catalog rows
     ArrayList<RID> rids = new ArrayList<RID>();
@@ -239,19 +377,46 @@ public class Catalog implements GlobalConst {
       f_att.deleteRecord(rids.get(i));
     }
 
+    // and any statistics about its columns
+    dropStats(fileName);
+
   } // public void dropTable(String fileName)
 
   /**
    * Adds a newly created index to the catalog.
+   * 
+   * @param ixColumns the key columns, in order
+   * @param ixIncludes the columns stored after the key, in order
+   * @param ixType type of the index, i.e. IndexDesc.HASH or IndexDesc.BTREE
    */
-  public void createIndex(String fileName, String ixTable, String ixColumn) {
+  public void createIndex(String fileName, String ixTable, String[] ixColumns,
+      String[] ixIncludes, String ixType) {
+
+    // add the index catalog rows
+    ArrayList<Tuple> tuples = new ArrayList<Tuple>();
+    for (int i = 0; i < ixColumns.length; i++) {
+      tuples.add(new Tuple(s_ind, fileName, ixTable, ixColumns[i], ixType, i,
+          0));
+    }
+    for (int i = 0; i < ixIncludes.length; i++) {
+      tuples.add(new Tuple(s_ind, fileName, ixTable, ixIncludes[i], ixType,
+          ixColumns.length + i, 1));
+    }
+    ArrayList<RID> rids = new ArrayList<RID>();
+    for (Tuple tuple : tuples) {
+      rids.add(tuple.insertIntoFile(f_ind));
+    }
+    indexRids.put(fileName.toLowerCase(), rids);
+    addIndex(new IndexDesc(tuples));
 
-    // add the index catalog row
-    Tuple tuple = new Tuple(s_ind);
-    tuple.setAllFields(fileName, ixTable, ixColumn);
-    tuple.insertIntoFile(f_ind);
+  } // public void createIndex(String fileName, String ixTable, ...)
 
-  } // public void createIndex(String fileName, String ixTable, String ixColumn)
+  /**
+   * Gets the index with the given name, or null if it doesn't exist.
+   */
+  public IndexDesc getIndex(String fileName) {
+    return indexes.get(fileName.toLowerCase());
+  }
 
   /**
    * Gets any indexes on a given table.
@@ -265,35 +430,32 @@ public class Catalog implements GlobalConst {
    */
   public IndexDesc[] getIndexes(String fileName, Schema schema, int[] fldnos) {
 
-    // scan the index catalog for the table
-    FileScan scan = new FileScan(s_ind, f_ind);
-    ArrayList<IndexDesc> inds = new ArrayList<IndexDesc>();
-
     // for each index on the given table
-    while (scan.hasNext()) {
-      Tuple tuple = scan.getNext();
-      if (tuple.getStringFld(1).equalsIgnoreCase(fileName)) {
-
-        // add the index, if applicable
-        if (schema == null) {
-          inds.add(new IndexDesc(tuple));
-        } else {
-
-          // only add indexes on columns in the set
-          int keyfld = schema.fieldNumber(tuple.getStringFld(2));
+    ArrayList<IndexDesc> inds = new ArrayList<IndexDesc>();
+    ArrayList<IndexDesc> all = tableIndexes.get(fileName.toLowerCase());
+    for (IndexDesc ind : all == null ? inds : all) {
+
+      // add the index, if applicable
+      if (schema == null) {
+        inds.add(ind);
+      } else {
+
+        // only add indexes that store a column in the set
+        boolean found = false;
+        for (String column : ind.getStoredColumns()) {
+          int keyfld = schema.fieldNumber(column);
           for (int i = 0; i < fldnos.length; i++) {
-            if (fldnos[i] == keyfld) {
-              inds.add(new IndexDesc(tuple));
-              break;
-            }
+            found |= fldnos[i] == keyfld;
           }
-        } // else
+        }
+        if (found) {
+          inds.add(ind);
+        }
+      } // else
 
-      }
-    } // while
+    } // for
 
-    // close the scan and return the indexes
-    scan.close();
+    // return the indexes
     return inds.toArray(new IndexDesc[inds.size()]);
 
   } // public IndexDesc[] getIndexes(String fileName, Schema, int[] fldnos)
@@ -303,12 +465,162 @@ public class Catalog implements GlobalConst {
    */
   public void dropIndex(String fileName) {
 
-    // find and remove the index catalog row
-    RID rid = getFileRID(fileName, false);
-    f_ind.deleteRecord(rid);
+    // remove the index catalog rows, one per column
+    ArrayList<RID> rids = indexRids.remove(fileName.toLowerCase());
+    for (int i = 0; i < rids.size(); i++) {
+      f_ind.deleteRecord(rids.get(i));
+    }
+    IndexDesc ind = indexes.remove(fileName.toLowerCase());
+    ArrayList<IndexDesc> inds = tableIndexes.get(ind.tableName.toLowerCase());
+    if (inds != null) {
+      inds.remove(ind);
+    }
 
   } // public void dropIndex(String fileName)
 
+  /**
+   * Replaces the column statistics of a table.
+   * 
+   * @param stats statistics of each column, indexed by field number
+   */
+  public void setStats(String fileName, ColumnStats[] stats) {
+
+    dropStats(fileName);
+    Tuple tuple = new Tuple(s_stat);
+    for (int i = 0; i < stats.length; i++) {
+      ColumnStats col = stats[i];
+      tuple.setAllFields(fileName, i, STAT_SUMMARY, encodeValue(col.min),
+          encodeValue(col.max), col.rowCount, col.distinctCount,
+          col.nullCount);
+      tuple.insertIntoFile(f_stat);
+      for (int j = 0; j < col.getBucketCount(); j++) {
+        tuple.setAllFields(fileName, i, j, encodeValue(col.lows[j]),
+            encodeValue(col.highs[j]), col.rows[j], col.distincts[j], 0);
+        tuple.insertIntoFile(f_stat);
+      }
+    }
+
+  } // public void setStats(String fileName, ColumnStats[] stats)
+
+  /**
+   * Gets the column statistics of a table, indexed by field number; columns
+   * that haven't been analyzed are null.
+   */
+  public ColumnStats[] getStats(String fileName, Schema schema) {
+
+    // gather the rows of each column in bucket order
+    ArrayList<ArrayList<Tuple>> rows = new ArrayList<ArrayList<Tuple>>();
+    for (int i = 0; i < schema.getCount(); i++) {
+      rows.add(new ArrayList<Tuple>());
+    }
+    FileScan scan = new FileScan(s_stat, f_stat);
+    while (scan.hasNext()) {
+      Tuple tuple = scan.getNext();
+      int fldno = tuple.getIntFld(1);
+      if (tuple.getStringFld(0).equalsIgnoreCase(fileName)
+          && fldno < schema.getCount()) {
+        rows.get(fldno).add(tuple);
+      }
+    }
+    scan.close();
+
+    // and rebuild the statistics from them
+    ColumnStats[] stats = new ColumnStats[schema.getCount()];
+    for (int i = 0; i < stats.length; i++) {
+      ArrayList<Tuple> col = rows.get(i);
+      if (col.isEmpty()) {
+        continue;
+      }
+      int type = schema.fieldType(i);
+      stats[i] = new ColumnStats(type, col.size() - 1);
+      for (Tuple tuple : col) {
+        int bucket = tuple.getIntFld(2);
+        Object low = decodeValue(type, tuple.getStringFld(3));
+        Object high = decodeValue(type, tuple.getStringFld(4));
+        if (bucket == STAT_SUMMARY) {
+          stats[i].min = low;
+          stats[i].max = high;
+          stats[i].rowCount = tuple.getIntFld(5);
+          stats[i].distinctCount = tuple.getIntFld(6);
+          stats[i].nullCount = tuple.getIntFld(7);
+        } else {
+          stats[i].lows[bucket] = low;
+          stats[i].highs[bucket] = high;
+          stats[i].rows[bucket] = tuple.getIntFld(5);
+          stats[i].distincts[bucket] = tuple.getIntFld(6);
+        }
+      }
+    }
+    return stats;
+
+  } // public ColumnStats[] getStats(String fileName, Schema schema)
+
+  /**
+   * Removes the column statistics of a table, if any.
+   */
+  protected void dropStats(String fileName) {
+
+    ArrayList<RID> rids = new ArrayList<RID>();
+    FileScan scan = new FileScan(s_stat, f_stat);
+    while (scan.hasNext()) {
+      Tuple tuple = scan.getNext();
+      if (tuple.getStringFld(0).equalsIgnoreCase(fileName)) {
+        rids.add(scan.getLastRID());
+      }
+    }
+    scan.close();
+    for (int i = 0; i < rids.size(); i++) {
+      f_stat.deleteRecord(rids.get(i));
+    }
+
+  } // protected void dropStats(String fileName)
+
+  /**
+   * Converts a column value to its string form in the statistics catalog.
+   */
+  protected static String encodeValue(Object value) {
+    if (value == null) {
+      return "";
+    }
+    String str = value.toString();
+    return (str.length() < STAT_VALUE_LEN) ? str
+        : str.substring(0, STAT_VALUE_LEN - 1);
+  }
+
+  /**
+   * Converts a value from its string form in the statistics catalog.
+   */
+  protected static Object decodeValue(int type, String str) {
+    if (type == AttrType.STRING) {
+      return str;
+    }
+    if (str.isEmpty()) {
+      return null;
+    }
+    if (type == AttrType.INTEGER) {
+      return Integer.valueOf(str);
+    }
+    return Float.valueOf(str);
+  }
+
+  /**
+   * Gets the version of a table, which changes whenever its records or
+   * indexes do; 0 if it hasn't changed since the database was opened.
+   */
+  public int getVersion(String fileName) {
+    Integer version = versions.get(fileName.toLowerCase());
+    return version == null ? 0 : version;
+  }
+
+  /**
+   * Records that a table's records or indexes have changed, dropping any
+   * cached query results that read it.
+   */
+  public void touchTable(String fileName) {
+    versions.merge(fileName.toLowerCase(), 1, Integer::sum);
+    Optimizer.getResultCache().invalidate(fileName);
+  }
+
   /**
    * Gets the number of records in a specified relation
    * @param fileName the name of the relation to fetch
@@ -316,17 +628,8 @@ public class Catalog implements GlobalConst {
    * @return number of records in file or -1 if relation dne
    **/
   public int getRecCount(String fileName) {
-    FileScan scan = new FileScan(s_rel, f_rel);
-    while (scan.hasNext()) {
-      Tuple t = scan.getNext();
-      if (t.getField("relName").equals(fileName)) {
-        scan.close();
-        return (int)t.getField("recCount");
-      }
-    }
-    
-    scan.close();
-    return -1;
+    Integer count = counts.get(fileName.toLowerCase());
+    return count == null ? -1 : count;
   }
 
   /**
@@ -337,20 +640,11 @@ public class Catalog implements GlobalConst {
    * @return number of records in relation or -1 if no relation exists
    **/
   public int incrementCount(String fileName, int amt) {
-    FileScan scan = new FileScan(s_rel, f_rel);
-    // naive method to update statistics
-    while (scan.hasNext()) {
-      Tuple t = scan.getNext();
-      if (t.getField("relName").equals(fileName)) {
-        t.setField("recCount", (int)t.getField("recCount") + amt);
-        f_rel.updateRecord(scan.getLastRID(), t.getData());
-        scan.close();
-        return (int)t.getField("recCount");
-      }
+    int count = getRecCount(fileName);
+    if (count < 0) {
+      return -1;
     }
-
-    scan.close();
-    return -1;
+    return setRecCount(fileName, count + amt);
   }
 
   /**
@@ -361,20 +655,38 @@ public class Catalog implements GlobalConst {
    * @return number of records in relation or -1 if no relation exists
    **/
   public int decrementCount(String fileName, int amt) {
-    FileScan scan = new FileScan(s_rel, f_rel);
-    // naive method to update statistics
-    while (scan.hasNext()) {
-      Tuple t = scan.getNext();
-      if (t.getField("relName").equals(fileName) && (int)t.getField("recCount") - amt >= 0) {
-        t.setField("recCount", (int)t.getField("recCount") - amt);
-        f_rel.updateRecord(scan.getLastRID(), t.getData());
-        scan.close();
-        return (int)t.getField("recCount");
-      }
+    int count = getRecCount(fileName);
+    if (count - amt < 0) {
+      return -1;
     }
+    return setRecCount(fileName, count - amt);
+  }
 
-    scan.close();
-    return -1;
+  /**
+   * Changes the record count of an existing relation, which is written to its
+   * relation catalog row by the next flushCounts.
+   *
+   * @return the new count
+   */
+  protected int setRecCount(String fileName, int count) {
+    counts.put(fileName.toLowerCase(), count);
+    dirtyCounts.add(fileName.toLowerCase());
+    return count;
+  }
+
+  /**
+   * Writes the changed record counts to their relation catalog rows, in
+   * place; called at the end of each statement and before the database is
+   * flushed or closed.
+   */
+  public void flushCounts() {
+    for (String relName : dirtyCounts) {
+      RID rid = relRids.get(relName);
+      Tuple tuple = new Tuple(s_rel, f_rel.selectRecord(rid));
+      tuple.setIntFld(1, counts.get(relName));
+      f_rel.updateRecord(rid, tuple.getData());
+    }
+    dirtyCounts.clear();
   }
 
 } // public class Catalog implements GlobalConst
@@ -0,0 +1,81 @@
+package query;
+
+import global.SortKey;
+import relop.Schema;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Works out which columns each subtree of a plan must produce: those in the
+ * select list or the ORDER BY clause, and those of the clauses still to be
+ * evaluated above the subtree. Everything else can be projected away as soon
+ * as the subtree's own clauses have been applied, so that joins, sorts and
+ * hash tables above it handle narrower tuples.
+ */
+class ColumnManager {
+
+  /** Classifies the query's clauses by the tables they reference. */
+  protected PredicateManager pm;
+
+  /**
+   * Lower case names of the columns the query outputs or sorts on, or null if
+   * it outputs every column.
+   */
+  protected Set<String> output;
+
+  /**
+   * Constructs a column manager for the given select list (empty for every
+   * column) and ORDER BY clause.
+   */
+  public ColumnManager(PredicateManager pm, String[] cols, SortKey[] orders) {
+    this.pm = pm;
+    if (cols.length > 0) {
+      output = new HashSet<>();
+      for (String col : cols) {
+        output.add(col.toLowerCase());
+      }
+      for (SortKey order : orders) {
+        output.add(((String) order.field).toLowerCase());
+      }
+    }
+  }
+
+  /**
+   * Gets the fields of a subtree's schema that are still needed above it, or
+   * null if they all are.
+   *
+   * @param tables bit set of the FROM clause tables covered by the subtree
+   */
+  public Integer[] getProjection(int tables, Schema schema) {
+    if (output == null) {
+      return null;
+    }
+    Set<String> needed = pm.getPendingColumns(tables);
+    needed.addAll(output);
+
+    List<Integer> fields = new ArrayList<>();
+    for (int i = 0; i < schema.getCount(); i++) {
+      if (needed.contains(schema.fieldName(i).toLowerCase())) {
+        fields.add(i);
+      }
+    }
+    if (fields.size() == schema.getCount()) {
+      return null;
+    }
+    if (fields.isEmpty()) {
+      // a cross product still needs a tuple per row, so keep the narrowest
+      int narrowest = 0;
+      for (int i = 1; i < schema.getCount(); i++) {
+        if (schema.fieldLength(i) < schema.fieldLength(narrowest)) {
+          narrowest = i;
+        }
+      }
+      fields.add(narrowest);
+    }
+    return fields.toArray(new Integer[fields.size()]);
+  }
+
+} // class ColumnManager
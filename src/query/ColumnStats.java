@@ -0,0 +1,250 @@
+package query;
+
+import global.AttrOperator;
+import global.AttrType;
+
+/**
+ * Statistics about the values of one column, as gathered by ANALYZE: the
+ * extreme values, null and distinct counts, and an equi-depth histogram, i.e.
+ * consecutive value ranges that each hold about the same number of rows. A
+ * value never spans two buckets.
+ */
+public class ColumnStats {
+
+  /** Most buckets in a histogram. */
+  public static final int MAX_BUCKETS = 10;
+
+  // --------------------------------------------------------------------------
+
+  /** Type of the column. */
+  protected int type;
+
+  /** Number of rows in the table when it was analyzed. */
+  protected int rowCount;
+
+  /** Number of null values (MiniSQL has none, so always 0 for now). */
+  protected int nullCount;
+
+  /** Number of distinct values. */
+  protected int distinctCount;
+
+  /** Smallest value, or null if the table was empty. */
+  protected Object min;
+
+  /** Largest value, or null if the table was empty. */
+  protected Object max;
+
+  /** Smallest value of each bucket. */
+  protected Object[] lows;
+
+  /** Largest value of each bucket. */
+  protected Object[] highs;
+
+  /** Number of rows in each bucket. */
+  protected int[] rows;
+
+  /** Number of distinct values in each bucket. */
+  protected int[] distincts;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs statistics with the given number of histogram buckets, to be
+   * filled in by the caller.
+   */
+  public ColumnStats(int type, int buckets) {
+    this.type = type;
+    this.lows = new Object[buckets];
+    this.highs = new Object[buckets];
+    this.rows = new int[buckets];
+    this.distincts = new int[buckets];
+  }
+
+  /**
+   * Gets the type of the column.
+   */
+  public int getType() {
+    return type;
+  }
+
+  /**
+   * Gets the number of rows in the table when it was analyzed.
+   */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Gets the number of null values.
+   */
+  public int getNullCount() {
+    return nullCount;
+  }
+
+  /**
+   * Gets the number of distinct values.
+   */
+  public int getDistinctCount() {
+    return distinctCount;
+  }
+
+  /**
+   * Gets the smallest value, or null if the table was empty.
+   */
+  public Object getMin() {
+    return min;
+  }
+
+  /**
+   * Gets the largest value, or null if the table was empty.
+   */
+  public Object getMax() {
+    return max;
+  }
+
+  /**
+   * Gets the number of histogram buckets.
+   */
+  public int getBucketCount() {
+    return rows.length;
+  }
+
+  /**
+   * Gets the smallest value of the given bucket.
+   */
+  public Object getBucketLow(int bucket) {
+    return lows[bucket];
+  }
+
+  /**
+   * Gets the largest value of the given bucket.
+   */
+  public Object getBucketHigh(int bucket) {
+    return highs[bucket];
+  }
+
+  /**
+   * Gets the number of rows in the given bucket.
+   */
+  public int getBucketRows(int bucket) {
+    return rows[bucket];
+  }
+
+  /**
+   * Gets the number of distinct values in the given bucket.
+   */
+  public int getBucketDistinct(int bucket) {
+    return distincts[bucket];
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Estimates the fraction of rows whose value equals the given constant.
+   */
+  public double equalSelectivity(Object value) {
+    if (rowCount == 0) {
+      return 0;
+    }
+    for (int i = 0; i < rows.length; i++) {
+      if (compare(value, lows[i]) >= 0 && compare(value, highs[i]) <= 0) {
+        // assume the values of a bucket are equally frequent
+        return (double) rows[i] / Math.max(1, distincts[i]) / rowCount;
+      }
+    }
+    // not a value the table had when it was analyzed
+    return 0;
+  }
+
+  /**
+   * Estimates the fraction of rows whose value compares to the given constant
+   * as the given AttrOperator says, i.e. "column op value".
+   */
+  public double selectivity(int op, Object value) {
+    double sel;
+    switch (op) {
+      case AttrOperator.EQ:
+        sel = equalSelectivity(value);
+        break;
+      case AttrOperator.NEQ:
+        sel = 1 - equalSelectivity(value);
+        break;
+      case AttrOperator.LT:
+        sel = fractionBelow(value);
+        break;
+      case AttrOperator.LTE:
+        sel = fractionBelow(value) + equalSelectivity(value);
+        break;
+      case AttrOperator.GT:
+        sel = 1 - fractionBelow(value) - equalSelectivity(value);
+        break;
+      case AttrOperator.GTE:
+        sel = 1 - fractionBelow(value);
+        break;
+      default:
+        throw new IllegalArgumentException("unknown operator " + op);
+    }
+    return Math.max(0, Math.min(1, sel));
+  }
+
+  /**
+   * Estimates the fraction of rows whose value is less than the given constant,
+   * interpolating linearly within a numeric bucket.
+   */
+  public double fractionBelow(Object value) {
+    if (rowCount == 0) {
+      return 0;
+    }
+    double below = 0;
+    for (int i = 0; i < rows.length; i++) {
+      if (compare(highs[i], value) < 0) {
+        below += rows[i];
+      } else if (compare(lows[i], value) < 0) {
+        below += rows[i] * interpolate(lows[i], highs[i], value);
+        break;
+      } else {
+        break;
+      }
+    }
+    return Math.min(1, below / rowCount);
+  }
+
+  /**
+   * Estimates how far into the range [low, high] the value lies, in [0, 1].
+   */
+  protected double interpolate(Object low, Object high, Object value) {
+    if (type == AttrType.STRING) {
+      return 0.5;
+    }
+    double lo = ((Number) low).doubleValue();
+    double hi = ((Number) high).doubleValue();
+    if (hi <= lo) {
+      return 0.5;
+    }
+    return (((Number) value).doubleValue() - lo) / (hi - lo);
+  }
+
+  /**
+   * Compares two values of the column's type (numbers of either type compare
+   * by value).
+   */
+  protected static int compare(Object v1, Object v2) {
+    if (v1 instanceof Number && v2 instanceof Number) {
+      return Double.compare(((Number) v1).doubleValue(),
+          ((Number) v2).doubleValue());
+    }
+    return v1.toString().compareTo(v2.toString());
+  }
+
+  /**
+   * True if a constant of the given value can be compared with the column's
+   * statistics.
+   */
+  public boolean isComparable(Object value) {
+    if (type == AttrType.STRING) {
+      return value instanceof String;
+    }
+    return value instanceof Number;
+  }
+
+} // public class ColumnStats
@@ -0,0 +1,222 @@
+package query;
+
+import global.AttrType;
+import global.Minibase;
+import global.RID;
+import global.SearchKey;
+import heap.HeapFile;
+import index.BTreeIndex;
+import parser.AST_Copy;
+import relop.Schema;
+import relop.Tuple;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Execution plan for loading a table from a CSV file, one row per line. The
+ * rows go straight into the table; its indexes and record count are only
+ * brought up to date once the whole file has been read. Badly formed lines are
+ * skipped, but if the file can't be read to the end or an index can't take
+ * the rows, they're all taken back out.
+ */
+class Copy implements Plan {
+
+  /** Number of rows between progress reports. */
+  protected static final int PROGRESS_ROWS = 10000;
+
+  /** Size of the buffer the file is read through, in characters. */
+  protected static final int BUFFER_SIZE = 1 << 16;
+
+  private String fileName;
+  private String path;
+  private Schema schema;
+
+  /**
+   * Optimizes the plan, given the parsed query.
+   *
+   * @throws QueryException if the table or the file doesn't exist
+   */
+  public Copy(AST_Copy tree) throws QueryException {
+    fileName = tree.getFileName();
+    path = tree.getPath();
+
+    QueryCheck.tableExists(fileName);
+    schema = Minibase.SystemCatalog.getSchema(fileName);
+    if (!new File(path).isFile()) {
+      throw new QueryException("file '" + path + "' doesn't exist");
+    }
+  } // public Copy(AST_Copy tree) throws QueryException
+
+  /**
+   * Executes the plan and prints applicable output.
+   */
+  public void execute() {
+    long start = System.currentTimeMillis();
+    HeapFile file = new HeapFile(fileName);
+    IndexDesc[] indexes = Minibase.SystemCatalog.getIndexes(fileName);
+    ArrayList<ArrayList<SearchKey>> keys = new ArrayList<>();
+    for (int i = 0; i < indexes.length; i++) {
+      keys.add(new ArrayList<SearchKey>());
+    }
+    ArrayList<RID> rids = new ArrayList<RID>();
+    SearchKey[][] keyArrays = new SearchKey[indexes.length][];
+
+    // insert each well-formed row, reporting the others; if the file can't be
+    // read to the end, take back the rows inserted so far
+    int rowCount = 0;
+    int skipped = 0;
+    try (BufferedReader in = new BufferedReader(new FileReader(path),
+        BUFFER_SIZE)) {
+      int lineno = 0;
+      String line;
+      while ((line = in.readLine()) != null) {
+        lineno++;
+        if (line.trim().isEmpty()) {
+          continue;
+        }
+        Tuple tuple;
+        try {
+          tuple = new Tuple(schema, parseRow(line));
+        } catch (IllegalArgumentException exc) {
+          System.out.println("ERROR: line " + lineno + " skipped: "
+              + exc.getMessage());
+          skipped++;
+          continue;
+        }
+        rids.add(file.insertRecord(tuple.getData()));
+        for (int i = 0; i < indexes.length; i++) {
+          keys.get(i).add(indexes[i].getKey(tuple));
+        }
+        if (++rowCount % PROGRESS_ROWS == 0) {
+          System.out.println(rowCount + " rows copied, "
+              + getRate(rowCount, start) + " rows/sec");
+        }
+      }
+    } catch (IOException | RuntimeException exc) {
+      rollback(file, indexes, keyArrays, rids.toArray(new RID[rids.size()]));
+      System.out.println("ERROR: " + exc.getMessage() + "; no rows copied.");
+      return;
+    }
+
+    // then build each index from the rows copied, taking them all back out
+    // if that fails
+    RID[] ridArray = rids.toArray(new RID[rids.size()]);
+    try {
+      for (int i = 0; i < indexes.length; i++) {
+        keyArrays[i] = keys.get(i).toArray(new SearchKey[rowCount]);
+        BTreeIndex btree = indexes[i].isBTree()
+            ? new BTreeIndex(indexes[i].indexName) : null;
+        if (btree != null && btree.isEmpty()) {
+          btree.bulkLoad(keyArrays[i], ridArray);
+        } else {
+          indexes[i].insertEntries(keyArrays[i], ridArray);
+        }
+      }
+    } catch (RuntimeException exc) {
+      rollback(file, indexes, keyArrays, ridArray);
+      System.out.println("ERROR: " + exc.getMessage() + "; no rows copied.");
+      return;
+    }
+    Minibase.SystemCatalog.incrementCount(fileName, rowCount);
+    Minibase.SystemCatalog.touchTable(fileName);
+
+    System.out.println(rowCount + " rows copied"
+        + (skipped > 0 ? " (" + skipped + " skipped)" : "") + " in "
+        + (System.currentTimeMillis() - start) / 1000.0 + " sec, "
+        + getRate(rowCount, start) + " rows/sec.");
+  } // public void execute()
+
+  /**
+   * Removes the copied rows from the table, and whatever entries for them
+   * made it into its indexes.
+   *
+   * @param keys each index's keys for the rows, or null if it wasn't reached
+   */
+  private static void rollback(HeapFile file, IndexDesc[] indexes,
+      SearchKey[][] keys, RID[] rids) {
+    for (int i = 0; i < indexes.length && keys[i] != null; i++) {
+      for (int j = 0; j < rids.length; j++) {
+        try {
+          indexes[i].deleteEntry(keys[i][j], rids[j]);
+        } catch (IllegalArgumentException exc) {
+          // the entry was never added
+        }
+      }
+    }
+    for (RID rid : rids) {
+      file.deleteRecord(rid);
+    }
+  }
+
+  /**
+   * Gets the number of rows copied per second since the given time.
+   */
+  private static long getRate(int rowCount, long start) {
+    long millis = Math.max(1, System.currentTimeMillis() - start);
+    return rowCount * 1000L / millis;
+  }
+
+  /**
+   * Parses one line of the file into the values of a row. Fields are
+   * separated by commas, and may be quoted with double quotes; a quoted field
+   * may contain commas, and doubled quotes for quotes.
+   *
+   * @throws IllegalArgumentException if the line doesn't fit the schema
+   */
+  private Object[] parseRow(String line) {
+    ArrayList<String> fields = new ArrayList<String>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c != '"') {
+          field.append(c);
+        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append(c);
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    if (quoted) {
+      throw new IllegalArgumentException("unterminated quote");
+    }
+    fields.add(field.toString());
+    if (fields.size() != schema.getCount()) {
+      throw new IllegalArgumentException("expected " + schema.getCount()
+          + " values but found " + fields.size());
+    }
+
+    // convert each field to its column's type
+    Object[] values = new Object[fields.size()];
+    for (int i = 0; i < values.length; i++) {
+      String value = fields.get(i);
+      switch (schema.fieldType(i)) {
+        case AttrType.INTEGER:
+          values[i] = Integer.valueOf(value.trim());
+          break;
+        case AttrType.FLOAT:
+          values[i] = Float.valueOf(value.trim());
+          break;
+        default:
+          values[i] = value;
+          break;
+      }
+    }
+    return values;
+  } // private Object[] parseRow(String line)
+
+} // class Copy implements Plan
@@ -0,0 +1,81 @@
+package query;
+
+/**
+ * Pluggable cost model used by the optimizer to compare alternative plans.
+ * Costs are expressed in abstract units; only their relative order matters.
+ *
+ * @see DefaultCostModel
+ */
+public interface CostModel {
+
+  /**
+   * Estimated cost of a sequential scan over the given number of pages that
+   * produces the given number of tuples.
+   */
+  public double scanCost(double pages, double tuples);
+
+  /**
+   * Estimated cost of the given number of hash index probes that together
+   * return the given number of matching records.
+   */
+  public double probeCost(double probes, double matches);
+
+  /**
+   * Estimated cost of the given number of hash index probes whose matching
+   * records are collected first, then fetched in page order from a table of
+   * the given number of pages.
+   */
+  public double sortedProbeCost(double probes, double matches, double pages);
+
+  /**
+   * Estimated cost of a B+ tree range scan over an index of the given number
+   * of entries with keys of the given length, which finds the given number of
+   * matching records and fetches each of them.
+   */
+  public double rangeScanCost(double entries, double keyLength, double matches);
+
+  /**
+   * Estimated cost of the same range scan when it reads the matching entries
+   * alone, without fetching their records.
+   */
+  public double indexOnlyScanCost(double entries, double keyLength,
+      double matches);
+
+  /**
+   * Estimated cost of evaluating selection predicates over the given number of
+   * tuples.
+   */
+  public double selectionCost(double tuples);
+
+  /**
+   * Estimated cost of a tuple-at-a-time nested loops join, where the inner
+   * input is restarted for every outer tuple.
+   */
+  public double nestedLoopCost(PlanNode outer, PlanNode inner);
+
+  /**
+   * Estimated cost of an in-memory hash join that builds a table over the inner
+   * input and probes it once per outer tuple.
+   */
+  public double hashJoinCost(PlanNode outer, PlanNode inner);
+
+  /**
+   * Estimated cost of a hash join that holds at most the given number of pages
+   * of the inner input in memory, spilling the rest of both inputs to disk.
+   */
+  public double partitionedHashJoinCost(PlanNode outer, PlanNode inner,
+      int memPages);
+
+  /**
+   * Estimated cost of sorting the output of a subtree, holding at most the
+   * given number of pages of it in memory.
+   */
+  public double sortCost(PlanNode input, int memPages);
+
+  /**
+   * Estimated cost of a merge join of two inputs that are already sorted on
+   * their join columns.
+   */
+  public double mergeJoinCost(PlanNode outer, PlanNode inner);
+
+} // public interface CostModel
@@ -2,19 +2,26 @@ package query;
 
 import parser.AST_CreateIndex;
 import global.Minibase;
+import global.RID;
 import global.SearchKey;
 import heap.HeapFile;
+import index.BTreeIndex;
 import index.HashIndex;
 import relop.Tuple;
 import relop.Schema;
 import relop.FileScan;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+
 /**
  * Execution plan for creating indexes.
  */
 class CreateIndex implements Plan {
 
-  private String fileName, indexName, colName;
+  private String fileName, indexName, indexType;
+
+  private String[] colNames, includeNames, storedNames;
 
   private Schema schema;
 
@@ -27,43 +34,104 @@ class CreateIndex implements Plan {
 
     fileName = tree.getFileName();
     indexName = tree.getIxTable();
-    colName = tree.getIxColumn();
+    colNames = tree.getIxColumns();
+    includeNames = tree.getIxIncludes();
+    storedNames = Arrays.copyOf(colNames, colNames.length + includeNames.length);
+    System.arraycopy(includeNames, 0, storedNames, colNames.length,
+        includeNames.length);
+    indexType = tree.getIxType() == null ? IndexDesc.HASH
+        : tree.getIxType().toUpperCase();
     schema = Minibase.SystemCatalog.getSchema(tree.getIxTable());
 
     // simple parameter check for each of the file names
     QueryCheck.fileNotExists(fileName);
     QueryCheck.tableExists(indexName);
-    QueryCheck.columnExists(schema, colName);
+    for (int i = 0; i < storedNames.length; i++) {
+      QueryCheck.columnExists(schema, storedNames[i]);
+      for (int j = 0; j < i; j++) {
+        if (storedNames[i].equalsIgnoreCase(storedNames[j])) {
+          throw new QueryException("Column '" + storedNames[i] + "' is indexed twice.");
+        }
+      }
+    }
+
+    // check the index type, and that a B+ tree page can hold the keys
+    if (!indexType.equals(IndexDesc.HASH) && !indexType.equals(IndexDesc.BTREE)) {
+      throw new QueryException("Unknown index type '" + tree.getIxType() + "'.");
+    }
+    if (indexType.equals(IndexDesc.BTREE)
+        && IndexDesc.getKeyLength(schema, storedNames) > BTreeIndex.MAX_KEY_SIZE) {
+      throw new QueryException("Columns are too long for a B+ tree index.");
+    }
+
+    // a hash index only finds whole keys, so it can't carry other columns
+    if (indexType.equals(IndexDesc.HASH) && includeNames.length > 0) {
+      throw new QueryException("Only a B+ tree index can include columns.");
+    }
 
     // check that the index doesn't already exist
     IndexDesc[] indecies = Minibase.SystemCatalog.getIndexes(tree.getIxTable());
 
     for (IndexDesc index : indecies) {
-      if (index.columnName.equals(colName)) {
+      if (index.indexType.equalsIgnoreCase(indexType)
+          && sameColumns(index.columnNames, colNames)
+          && sameColumns(index.includeNames, includeNames)) {
         throw new QueryException("Index already exists.");
       }
     }
 
   } // public CreateIndex(AST_CreateIndex tree) throws QueryException
 
+  /**
+   * True if the two lists name the same columns in the same order, however
+   * they're capitalized.
+   */
+  private static boolean sameColumns(String[] names1, String[] names2) {
+    if (names1.length != names2.length) {
+      return false;
+    }
+    for (int i = 0; i < names1.length; i++) {
+      if (!names1[i].equalsIgnoreCase(names2[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Executes the plan and prints applicable output.
    */
   public void execute() {
-    HashIndex index = new HashIndex(fileName);
     FileScan scan = new FileScan(schema, new HeapFile(indexName));
 
-    int colNum = schema.fieldNumber(colName);
-    while (scan.hasNext()) {
-      Tuple t = scan.getNext();
-      index.insertEntry(new SearchKey(t.getField(colNum)), scan.getLastRID());
+    if (indexType.equals(IndexDesc.BTREE)) {
+
+      // gather every entry, then build the tree bottom up
+      ArrayList<SearchKey> keys = new ArrayList<SearchKey>();
+      ArrayList<RID> rids = new ArrayList<RID>();
+      while (scan.hasNext()) {
+        Tuple t = scan.getNext();
+        keys.add(IndexDesc.getKey(t, storedNames));
+        rids.add(scan.getLastRID());
+      }
+      new BTreeIndex(fileName).bulkLoad(keys.toArray(new SearchKey[keys.size()]),
+          rids.toArray(new RID[rids.size()]));
+
+    } else {
+
+      HashIndex index = new HashIndex(fileName);
+      while (scan.hasNext()) {
+        Tuple t = scan.getNext();
+        index.insertEntry(IndexDesc.getKey(t, storedNames), scan.getLastRID());
+      }
     }
     
     scan.close();
 
-    Minibase.SystemCatalog.createIndex(fileName, indexName, colName);
+    Minibase.SystemCatalog.createIndex(fileName, indexName, colNames,
+        includeNames, indexType);
+    Minibase.SystemCatalog.touchTable(indexName);
 
     System.out.println("Index created.");
   } // public void execute()
-
 } // class CreateIndex implements Plan
@@ -0,0 +1,134 @@
+package query;
+
+import global.GlobalConst;
+
+/**
+ * Default cost model: page I/O plus a small CPU charge per tuple processed.
+ */
+public class DefaultCostModel implements CostModel {
+
+  /** Cost of reading or writing one page. */
+  public static final double PAGE_IO = 1.0;
+
+  /** Cost of processing one tuple in memory, relative to a page I/O. */
+  public static final double TUPLE_CPU = 0.01;
+
+  /** Pages touched to locate a hash bucket (directory plus bucket page). */
+  public static final double PROBE_IO = 2.0;
+
+  /** Bytes reserved on each B+ tree page for the page header. */
+  public static final int BTREE_HEADER = 16;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Every page is read once and every tuple is examined once.
+   */
+  public double scanCost(double pages, double tuples) {
+    return pages * PAGE_IO + tuples * TUPLE_CPU;
+  }
+
+  /**
+   * Every probe walks to its bucket, and every match is a random heap fetch.
+   */
+  public double probeCost(double probes, double matches) {
+    return probes * PROBE_IO + matches * (PAGE_IO + TUPLE_CPU);
+  }
+
+  /**
+   * Every probe walks to its bucket, and each page holding a match is read
+   * once; the number of distinct pages follows Cardenas' formula.
+   */
+  public double sortedProbeCost(double probes, double matches, double pages) {
+    pages = Math.max(1, pages);
+    double touched = pages * (1 - Math.pow(1 - 1 / pages, matches));
+    return probes * PROBE_IO + touched * PAGE_IO
+        + matches * 2 * TUPLE_CPU;
+  }
+
+  /**
+   * The scan walks down the tree and along the leaves holding the matches, and
+   * every match is a random heap fetch. Each entry holds the key, a record id
+   * and a slot, and inner pages fan out about as widely as the leaves.
+   */
+  public double rangeScanCost(double entries, double keyLength, double matches) {
+    return indexOnlyScanCost(entries, keyLength, matches) + matches * PAGE_IO;
+  }
+
+  /**
+   * Only the tree's own pages are read.
+   */
+  public double indexOnlyScanCost(double entries, double keyLength,
+      double matches) {
+    double perPage = Math.max(2,
+        Math.floor((GlobalConst.PAGE_SIZE - BTREE_HEADER) / (keyLength + 15)));
+    double leaves = Math.max(1, Math.ceil(entries / perPage));
+    double height = 1 + Math.ceil(Math.log(leaves) / Math.log(perPage));
+    return (height + Math.ceil(matches / perPage)) * PAGE_IO
+        + matches * TUPLE_CPU;
+  }
+
+  /**
+   * Predicates are evaluated once per input tuple.
+   */
+  public double selectionCost(double tuples) {
+    return tuples * TUPLE_CPU;
+  }
+
+  /**
+   * The inner input is fully re-evaluated once per outer tuple, and every pair
+   * of tuples is joined and tested.
+   */
+  public double nestedLoopCost(PlanNode outer, PlanNode inner) {
+    double outerCard = Math.max(1, outer.getCardinality());
+    return outer.getCost() + outerCard * inner.getCost()
+        + outerCard * inner.getCardinality() * TUPLE_CPU;
+  }
+
+  /**
+   * Each input is evaluated once; inserting a build tuple costs about twice as
+   * much as probing with an outer tuple.
+   */
+  public double hashJoinCost(PlanNode outer, PlanNode inner) {
+    return outer.getCost() + inner.getCost()
+        + (2 * inner.getCardinality() + outer.getCardinality()) * TUPLE_CPU;
+  }
+
+  /**
+   * The share of both inputs that doesn't fit in memory is written out once
+   * and read back once.
+   */
+  public double partitionedHashJoinCost(PlanNode outer, PlanNode inner,
+      int memPages) {
+    double spilled = Math.max(0, 1 - memPages / inner.getPages());
+    return hashJoinCost(outer, inner)
+        + 2 * spilled * (outer.getPages() + inner.getPages()) * PAGE_IO;
+  }
+
+  /**
+   * Tuples are compared n log n times; if they don't fit in memory, every
+   * merge pass also writes and reads all of them once.
+   */
+  public double sortCost(PlanNode input, int memPages) {
+    double tuples = input.getCardinality();
+    double cost = input.getCost()
+        + tuples * Math.log(Math.max(2, tuples)) / Math.log(2) * TUPLE_CPU;
+    double pages = input.getPages();
+    if (pages > memPages) {
+      double runs = Math.ceil(pages / Math.max(1, memPages));
+      int fanin = Math.max(2, memPages - 1);
+      double passes = Math.max(1, Math.ceil(Math.log(runs) / Math.log(fanin)));
+      cost += 2 * passes * pages * PAGE_IO;
+    }
+    return cost;
+  }
+
+  /**
+   * Each input is evaluated once and every tuple is compared about once.
+   */
+  public double mergeJoinCost(PlanNode outer, PlanNode inner) {
+    return outer.getCost() + inner.getCost()
+        + (outer.getCardinality() + inner.getCardinality()) * TUPLE_CPU;
+  }
+
+} // public class DefaultCostModel implements CostModel
@@ -3,22 +3,29 @@ package query;
 import parser.AST_Delete;
 
 import global.Minibase;
-import global.SearchKey;
+import global.RID;
 import heap.HeapFile;
-import index.HashIndex;
 import relop.Tuple;
 import relop.FileScan;
 import relop.Predicate;
+import relop.PredicateCompiler;
+import relop.RidSetScan;
 import relop.Schema;
+import relop.TupleFilter;
+
+import java.util.Arrays;
 
 /**
- * Execution plan for deleting tuples.
+ * Execution plan for deleting tuples. The records are found the same way a
+ * query would read them: by index lookups or a range scan when the predicates
+ * allow, otherwise with a full file scan.
  */
 class Delete implements Plan {
 
   private String fileName;
   private Predicate[][] predicates;
   private Schema schema;
+  private ScanNode access;
 
   /**
    * Optimizes the plan, given the parsed query.
@@ -32,6 +39,7 @@ class Delete implements Plan {
     QueryCheck.tableExists(fileName);
     schema = Minibase.SystemCatalog.getSchema(fileName);
     QueryCheck.predicates(schema, predicates);
+    access = TableManager.getAccessPath(fileName, predicates);
   } // public Delete(AST_Delete tree) throws QueryException
 
   /**
@@ -39,36 +47,60 @@ class Delete implements Plan {
    */
   public void execute() {
     HeapFile file = new HeapFile(fileName);
-    FileScan scan = new FileScan(schema, file);
+    TupleFilter filter = PredicateCompiler.compile(schema, predicates);
+    IndexDesc[] indexes = Minibase.SystemCatalog.getIndexes(fileName);
 
-    int rowCount = 0;
-    while (scan.hasNext()) {
-      Tuple t = scan.getNext();
-      
-      boolean andPasses = true;
-      boolean orPasses = false;
-      for (Predicate[] andClause : predicates) {
-        for (Predicate pred : andClause) {
-          orPasses = orPasses || pred.evaluate(t);
-        }
+    // find every candidate before deleting any, since a page left empty is
+    // freed and a file scan would still have it pinned
+    long[] rids = access.method == ScanNode.FILE_SCAN ? scanRids(file, filter)
+        : access.getRids();
 
-        andPasses = andPasses && orPasses;
-        orPasses = false;
-      }
+    // then check the predicates on each, for those an index found
+    int rowCount = 0;
+    for (long rid : rids) {
+      RID lastRID = RidSetScan.toRID(rid);
+      Tuple t = new Tuple(schema, file.selectRecord(lastRID));
 
-      if (andPasses) {
-        file.deleteRecord(scan.getLastRID());
-        for (IndexDesc desc : Minibase.SystemCatalog.getIndexes(fileName)) {
-          HashIndex index = new HashIndex(desc.indexName);
-          index.deleteEntry(new SearchKey(t.getField(desc.columnName)), scan.getLastRID());
-        }
+      if (filter.matches(t.getData())) {
+        deleteRecord(file, indexes, lastRID, t);
         rowCount++;
       }
     }
 
     Minibase.SystemCatalog.decrementCount(fileName, rowCount);
-    
-    scan.close();
+    Minibase.SystemCatalog.touchTable(fileName);
+
     System.out.println(rowCount + " rows deleted.");
   } // public void execute()
+
+  /**
+   * Scans the whole table for the ids of the records that pass the filter.
+   */
+  private long[] scanRids(HeapFile file, TupleFilter filter) {
+    long[] rids = new long[16];
+    int count = 0;
+    FileScan scan = new FileScan(schema, file);
+    while (scan.hasNext()) {
+      if (filter.matches(scan.getNext().getData())) {
+        if (count == rids.length) {
+          rids = Arrays.copyOf(rids, count * 2);
+        }
+        rids[count++] = RidSetScan.toLong(scan.getLastRID());
+      }
+    }
+    scan.close();
+    return Arrays.copyOf(rids, count);
+  }
+
+  /**
+   * Deletes the given record, and its entries in the table's indexes.
+   */
+  private void deleteRecord(HeapFile file, IndexDesc[] indexes, RID rid,
+      Tuple t) {
+    file.deleteRecord(rid);
+    for (IndexDesc desc : indexes) {
+      desc.deleteEntry(desc.getKey(t), rid);
+    }
+  }
+
 } // class Delete implements Plan
@@ -2,7 +2,6 @@ package query;
 
 import parser.AST_DropIndex;
 import global.Minibase;
-import index.HashIndex;
 
 /**
  * Execution plan for dropping indexes.
@@ -24,8 +23,10 @@ class DropIndex implements Plan {
    * Executes the plan and prints applicable output.
    */
   public void execute() {
-    new HashIndex(fileName).deleteFile();
+    IndexDesc desc = Minibase.SystemCatalog.getIndex(fileName);
+    desc.deleteFile();
     Minibase.SystemCatalog.dropIndex(fileName);
+    Minibase.SystemCatalog.touchTable(desc.tableName);
 
     System.out.println("Index dropped.");
   } // public void execute()
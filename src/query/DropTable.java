@@ -2,7 +2,6 @@ package query;
 
 import global.Minibase;
 import heap.HeapFile;
-import index.HashIndex;
 import parser.AST_DropTable;
 
 /**
@@ -34,13 +33,14 @@ class DropTable implements Plan {
     // drop all indexes on the table
     IndexDesc[] inds = Minibase.SystemCatalog.getIndexes(fileName);
     for (IndexDesc ind : inds) {
-      new HashIndex(ind.indexName).deleteFile();
+      ind.deleteFile();
       Minibase.SystemCatalog.dropIndex(ind.indexName);
     }
 
     // delete the heap file and catalog entry
     new HeapFile(fileName).deleteFile();
     Minibase.SystemCatalog.dropTable(fileName);
+    Minibase.SystemCatalog.touchTable(fileName);
 
     // print the output message
     System.out.println("Table dropped.");
@@ -1,28 +1,216 @@
 package query;
 
+import global.AttrType;
+import global.RID;
+import global.SearchKey;
+import index.BTreeIndex;
+import index.HashIndex;
+import relop.Schema;
 import relop.Tuple;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
 /**
- * Index descriptor, i.e. a strongly-typed version of an index catalog tuple.
+ * Index descriptor, i.e. a strongly-typed version of an index's catalog
+ * tuples. An index on several columns has one tuple per column, and its keys
+ * are composite keys of the columns' values in order. A B+ tree may also store
+ * included columns, appended to its keys, so that a scan reading only stored
+ * columns needn't visit the table.
  */
 public class IndexDesc {
 
+  /** Type of a hash index, which only finds single keys. */
+  public static final String HASH = "HASH";
+
+  /** Type of a B+ tree index, which also finds ranges of keys in order. */
+  public static final String BTREE = "BTREE";
+
   /** Name of the index file. */
   public String indexName;
 
   /** Name of the referenced table. */
   public String tableName;
 
-  /** Name of the indexed column. */
+  /** Name of the first (or only) indexed column. */
   public String columnName;
 
+  /** Names of the indexed columns, in key order. */
+  public String[] columnNames;
+
+  /** Names of the included columns, stored after the key columns. */
+  public String[] includeNames;
+
+  /** Type of the index, i.e. HASH or BTREE. */
+  public String indexType;
+
   /**
-   * Constructs an IndexDesc from the given index catalog tuple.
+   * Constructs an IndexDesc from the given index catalog tuples, one for each
+   * key column.
    */
-  public IndexDesc(Tuple tuple) {
+  public IndexDesc(List<Tuple> tuples) {
+    Tuple tuple = tuples.get(0);
     indexName = tuple.getStringFld(0);
     tableName = tuple.getStringFld(1);
-    columnName = tuple.getStringFld(2);
+    indexType = tuple.getStringFld(3);
+    int included = 0;
+    for (Tuple column : tuples) {
+      included += column.getIntFld(5);
+    }
+    columnNames = new String[tuples.size() - included];
+    includeNames = new String[included];
+    for (Tuple column : tuples) {
+      int keyPos = column.getIntFld(4);
+      if (keyPos < columnNames.length) {
+        columnNames[keyPos] = column.getStringFld(2);
+      } else {
+        includeNames[keyPos - columnNames.length] = column.getStringFld(2);
+      }
+    }
+    columnName = columnNames[0];
+  }
+
+  /**
+   * Gets the names of every column the index stores: the key columns, then
+   * the included ones.
+   */
+  public String[] getStoredColumns() {
+    String[] columns = Arrays.copyOf(columnNames,
+        columnNames.length + includeNames.length);
+    System.arraycopy(includeNames, 0, columns, columnNames.length,
+        includeNames.length);
+    return columns;
+  }
+
+  /**
+   * True if the index stores composite keys, i.e. it has several columns.
+   */
+  public boolean isComposite() {
+    return columnNames.length + includeNames.length > 1;
+  }
+
+  /**
+   * True if the index stores every one of the given columns.
+   */
+  public boolean covers(Collection<String> columns) {
+    for (String column : columns) {
+      boolean found = false;
+      for (String stored : getStoredColumns()) {
+        found |= stored.equalsIgnoreCase(column);
+      }
+      if (!found) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the index key of the given table record; a composite key of all its
+   * stored columns, if it has several.
+   */
+  public SearchKey getKey(Tuple tuple) {
+    return getKey(tuple, getStoredColumns());
+  }
+
+  /**
+   * Gets the key of the given record in an index on the given columns.
+   */
+  public static SearchKey getKey(Tuple tuple, String[] columns) {
+    if (columns.length == 1) {
+      return new SearchKey(tuple.getField(columns[0]));
+    }
+    Object[] values = new Object[columns.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = tuple.getField(columns[i]);
+    }
+    return new SearchKey(values);
+  }
+
+  /**
+   * Gets the longest key value of an index on the given columns, in bytes; a
+   * composite key also stores each value's type, and each string's length.
+   */
+  public static int getKeyLength(Schema schema, String[] columns) {
+    if (columns.length == 1) {
+      return schema.fieldLength(schema.fieldNumber(columns[0]));
+    }
+    int length = 0;
+    for (String column : columns) {
+      int fldno = schema.fieldNumber(column);
+      length += 1 + schema.fieldLength(fldno)
+          + (schema.fieldType(fldno) == AttrType.STRING ? 2 : 0);
+    }
+    return length;
+  }
+
+  /**
+   * True if the index is a B+ tree, false if it's a hash index.
+   */
+  public boolean isBTree() {
+    return BTREE.equalsIgnoreCase(indexType);
+  }
+
+  /**
+   * Inserts a new data entry into the index.
+   */
+  public void insertEntry(SearchKey key, RID rid) {
+    if (isBTree()) {
+      new BTreeIndex(indexName).insertEntry(key, rid);
+    } else {
+      new HashIndex(indexName).insertEntry(key, rid);
+    }
+  }
+
+  /**
+   * Inserts a batch of data entries into the index, opening it once. A hash
+   * index gets them grouped by bucket, and a B+ tree in key order, so that
+   * each page they go to is visited while it's still in the buffer pool.
+   */
+  public void insertEntries(SearchKey[] keys, RID[] rids) {
+    Integer[] order = new Integer[keys.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    if (isBTree()) {
+      Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+      BTreeIndex index = new BTreeIndex(indexName);
+      for (int i : order) {
+        index.insertEntry(keys[i], rids[i]);
+      }
+    } else {
+      // buckets are chosen by the low bits of the hash, however many
+      Arrays.sort(order, (a, b) -> Integer.compareUnsigned(
+          Integer.reverse(keys[a].getHash(31)),
+          Integer.reverse(keys[b].getHash(31))));
+      HashIndex index = new HashIndex(indexName);
+      for (int i : order) {
+        index.insertEntry(keys[i], rids[i]);
+      }
+    }
+  }
+
+  /**
+   * Deletes the specified data entry from the index.
+   */
+  public void deleteEntry(SearchKey key, RID rid) {
+    if (isBTree()) {
+      new BTreeIndex(indexName).deleteEntry(key, rid);
+    } else {
+      new HashIndex(indexName).deleteEntry(key, rid);
+    }
+  }
+
+  /**
+   * Deletes the index file from the database.
+   */
+  public void deleteFile() {
+    if (isBTree()) {
+      new BTreeIndex(indexName).deleteFile();
+    } else {
+      new HashIndex(indexName).deleteFile();
+    }
   }
 
 } // class IndexDesc
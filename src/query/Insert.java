@@ -5,7 +5,6 @@ import global.RID;
 import global.SearchKey;
 import parser.AST_Insert;
 import heap.HeapFile;
-import index.HashIndex;
 import relop.Tuple;
 import relop.Schema;
 import relop.FileScan;
@@ -16,7 +15,7 @@ import relop.FileScan;
 class Insert implements Plan {
 
   private String fileName;
-  private Object[] fields;
+  private Object[][] rows;
   private Schema schema;
 
   /**
@@ -26,30 +25,44 @@ class Insert implements Plan {
    */
   public Insert(AST_Insert tree) throws QueryException {
     this.fileName = tree.getFileName();
-    this.fields = tree.getValues();
+    this.rows = tree.getRows();
 
     QueryCheck.tableExists(fileName);
 
     this.schema = Minibase.SystemCatalog.getSchema(fileName);
 
-    QueryCheck.insertValues(schema, fields);
+    for (Object[] fields : rows) {
+      QueryCheck.insertValues(schema, fields);
+    }
   } // public Insert(AST_Insert tree) throws QueryException
 
   /**
    * Executes the plan and prints applicable output.
    */
   public void execute() {
-    Tuple tup = new Tuple(schema, fields);
+
+    // insert every row through one handle on the table
     HeapFile file = new HeapFile(fileName);
-    RID rid = file.insertRecord(tup.getData());
-    Minibase.SystemCatalog.incrementCount(fileName, 1);
+    IndexDesc[] indexes = Minibase.SystemCatalog.getIndexes(fileName);
+    SearchKey[][] keys = new SearchKey[indexes.length][rows.length];
+    RID[] rids = new RID[rows.length];
+    for (int i = 0; i < rows.length; i++) {
+      Tuple tup = new Tuple(schema, rows[i]);
+      rids[i] = file.insertRecord(tup.getData());
+      for (int j = 0; j < indexes.length; j++) {
+        keys[j][i] = indexes[j].getKey(tup);
+      }
+    }
+    Minibase.SystemCatalog.incrementCount(fileName, rows.length);
+    Minibase.SystemCatalog.touchTable(fileName);
 
-    for (IndexDesc desc : Minibase.SystemCatalog.getIndexes(fileName)) {
-      HashIndex index = new HashIndex(desc.indexName);
-      index.insertEntry(new SearchKey(tup.getField(desc.columnName)), rid);
+    // then maintain each index in one batch
+    for (int j = 0; j < indexes.length; j++) {
+      indexes[j].insertEntries(keys[j], rids);
     }
 
-    System.out.println("1 row inserted.");
+    System.out.println(rows.length == 1 ? "1 row inserted."
+        : rows.length + " rows inserted.");
   } // public void execute()
 
 } // class Insert implements Plan
@@ -0,0 +1,259 @@
+package query;
+
+import global.GlobalConst;
+import global.SortKey;
+import relop.Predicate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Selinger-style dynamic programming join enumerator. For every connected
+ * subset of the FROM clause tables it keeps the cheapest plan found so far,
+ * plus any more expensive plan whose output order could make a later merge
+ * join cheaper, building larger subsets out of pairs of smaller ones. Subsets
+ * that aren't connected in the join graph are never planned, so cross products
+ * only join whole connected components of a truly disconnected query.
+ */
+class JoinEnumerator {
+
+  /** Chooses the access path of each table. */
+  protected TableManager tm;
+
+  /** Classifies the query's clauses by the tables they reference. */
+  protected PredicateManager pm;
+
+  /** Estimates the cardinality of each join. */
+  protected CardinalityEstimator ce;
+
+  /** Decides which columns each subtree must produce. */
+  protected ColumnManager cols;
+
+  /** Tells which subsets of tables are connected by the query's clauses. */
+  protected JoinGraph graph;
+
+  /** Used to compare alternative plans. */
+  protected CostModel cm;
+
+  /**
+   * Constructs an enumerator over the tables known to the table manager.
+   */
+  public JoinEnumerator(TableManager tm, PredicateManager pm,
+      CardinalityEstimator ce, ColumnManager cols, CostModel cm) {
+    this.tm = tm;
+    this.pm = pm;
+    this.ce = ce;
+    this.cols = cols;
+    this.cm = cm;
+    this.graph = new JoinGraph(tm.getCount(), pm);
+  }
+
+  /**
+   * Finds the cheapest plan that joins all of the tables and produces them in
+   * the given order, sorting them last only if no plan is cheaper.
+   *
+   * @param order column names to sort on; empty for any order
+   */
+  public PlanNode enumerate(SortKey[] order) {
+
+    // plans[set] holds the plans worth keeping for the given set of tables
+    int count = tm.getCount();
+    int all = (1 << count) - 1;
+    List<List<PlanNode>> plans = new ArrayList<List<PlanNode>>(all + 1);
+    for (int set = 0; set <= all; set++) {
+      plans.add(new ArrayList<PlanNode>());
+    }
+    for (int i = 0; i < count; i++) {
+      Integer[] fields = cols.getProjection(1 << i, tm.getSchema(i));
+      for (ScanNode scan : tm.getAccessPaths(i, fields)) {
+        scan.setProjection(fields);
+        addPlan(plans.get(1 << i), scan);
+      }
+    }
+
+    // visiting sets in numeric order guarantees that subsets come first
+    for (int set = 1; set <= all; set++) {
+      if (Integer.bitCount(set) < 2 || !graph.isPlannable(set)) {
+        continue;
+      }
+      if (!addJoins(plans, set, true)) {
+        // separate components (or a clause over more tables than either
+        // half has) can't be joined on a predicate, so a cross product is
+        // unavoidable
+        addJoins(plans, set, false);
+      }
+    }
+
+    PlanNode best = null;
+    int memPages = Optimizer.getWorkMemory();
+    for (PlanNode plan : plans.get(all)) {
+      PlanNode candidate = sorted(plan, order, memPages);
+      if (best == null || candidate.getCost() < best.getCost()) {
+        best = candidate;
+      }
+    }
+    return best;
+
+  } // public PlanNode enumerate(SortKey[] order)
+
+  /**
+   * Adds the plans worth keeping that build the given set of tables out of two
+   * disjoint halves that already have plans.
+   *
+   * @param connected true to only consider halves connected by a predicate
+   * @return true if the set has any plans
+   */
+  protected boolean addJoins(List<List<PlanNode>> plans, int set,
+      boolean connected) {
+    List<PlanNode> result = plans.get(set);
+    for (int left = (set - 1) & set; left > 0; left = (left - 1) & set) {
+      int right = set & ~left;
+      if (plans.get(left).isEmpty() || plans.get(right).isEmpty()) {
+        continue;
+      }
+      List<Predicate[]> preds = pm.getJoinPredicates(left, right);
+      if (connected && preds.isEmpty()) {
+        continue;
+      }
+      for (PlanNode outer : plans.get(left)) {
+        for (PlanNode inner : plans.get(right)) {
+          for (PlanNode candidate : join(outer, inner, preds)) {
+            addPlan(result, candidate);
+          }
+        }
+      }
+    }
+    return !result.isEmpty();
+  }
+
+  /**
+   * Adds a plan to a set's plans, unless one of them is at least as cheap and
+   * at least as well ordered; any plans the new one beats that way are dropped.
+   */
+  protected static void addPlan(List<PlanNode> plans, PlanNode candidate) {
+    for (PlanNode plan : plans) {
+      if (plan.getCost() <= candidate.getCost()
+          && plan.isOrderedOn(candidate.getOrder())) {
+        return;
+      }
+    }
+    for (int i = plans.size() - 1; i >= 0; i--) {
+      PlanNode plan = plans.get(i);
+      if (candidate.getCost() <= plan.getCost()
+          && candidate.isOrderedOn(plan.getOrder())) {
+        plans.remove(i);
+      }
+    }
+    plans.add(candidate);
+  }
+
+  /**
+   * Builds and costs the alternative joins of two subtrees.
+   */
+  protected List<PlanNode> join(PlanNode left, PlanNode right,
+      List<Predicate[]> preds) {
+    List<PlanNode> result = new ArrayList<PlanNode>();
+    double card = ce.join(left, right, preds);
+    double filterCost = cm.selectionCost(card) * Math.max(0, preds.size() - 1);
+
+    // equi-joins use a hash join; anything else is a nested loop
+    JoinNode node = new JoinNode(left, right, preds);
+    node.cardinality = card;
+    Predicate[] key = pm.getEquiJoinPredicate(left.getTables(), right.getTables());
+    int memPages = Optimizer.getWorkMemory();
+    if (key != null && right.getPages() > memPages && canSpill(left)
+        && canSpill(right)) {
+      // the build side won't fit in memory
+      node.setKey(JoinNode.GRACE_HASH, key);
+      node.memPages = memPages;
+      node.cost = cm.partitionedHashJoinCost(left, right, memPages);
+    } else if (key != null) {
+      node.setKey(JoinNode.HASH, key);
+      node.cost = cm.hashJoinCost(left, right);
+    } else {
+      node.cost = cm.nestedLoopCost(left, right);
+    }
+    node.cost += filterCost;
+    result.add(node);
+
+    // a right table with an index on its join column can be probed instead
+    if (key != null && Integer.bitCount(right.getTables()) == 1) {
+      JoinNode probe = indexJoin(left, right, preds, key);
+      if (probe != null) {
+        probe.cardinality = card;
+        probe.cost += filterCost;
+        result.add(probe);
+      }
+    }
+
+    // equi-joins can also merge both inputs, sorting them first if need be
+    if (key != null) {
+      JoinNode merge = new JoinNode(left, right, preds);
+      merge.setKey(JoinNode.MERGE, key);
+      merge.left = sorted(left, merge.getLeftKey(), memPages);
+      merge.right = sorted(right, merge.getRightKey(), memPages);
+      merge.order = merge.left.getOrder();
+      merge.cardinality = card;
+      merge.cost = cm.mergeJoinCost(merge.left, merge.right) + filterCost;
+      result.add(merge);
+    }
+
+    // only pass up the columns still needed above the join
+    Integer[] projection = cols.getProjection(node.getTables(), node.getSchema());
+    for (PlanNode plan : result) {
+      plan.setProjection(projection);
+    }
+    return result;
+
+  } // protected List<PlanNode> join(PlanNode left, PlanNode right, ...)
+
+  /**
+   * Builds and costs an index join into the given single table, or returns
+   * null if it has no usable index on its join column.
+   */
+  protected JoinNode indexJoin(PlanNode left, PlanNode right,
+      List<Predicate[]> preds, Predicate[] key) {
+    JoinNode node = new JoinNode(left, right, preds);
+    node.setKey(JoinNode.INDEX, key);
+    if (left.getSchema().fieldType(node.lcol)
+        != right.getSchema().fieldType(node.rcol)) {
+      // the index only finds keys of its own type
+      return null;
+    }
+    int table = Integer.numberOfTrailingZeros(right.getTables());
+    node.index = tm.getIndex(table, right.getSchema().fieldName(node.rcol));
+    if (node.index == null) {
+      return null;
+    }
+
+    // every probe fetches the matching records, then applies the local clauses
+    node.innerFilters = pm.getLocalPredicates(table);
+    double fetched = left.getCardinality() * tm.getRecCount(table)
+        * ce.getSelectivity(key);
+    node.cost = left.getCost() + cm.probeCost(left.getCardinality(), fetched)
+        + cm.selectionCost(fetched) * node.innerFilters.size();
+    return node;
+  }
+
+  /**
+   * Gets a subtree whose output is sorted on the given keys, adding a sort to
+   * the given one unless it already is.
+   */
+  protected PlanNode sorted(PlanNode node, SortKey[] keys, int memPages) {
+    if (node.isOrderedOn(keys)) {
+      return node;
+    }
+    SortNode sort = new SortNode(node, keys, memPages);
+    sort.cost = cm.sortCost(node, memPages);
+    return sort;
+  }
+
+  /**
+   * True if the subtree's tuples are small enough to be written to scratch
+   * heap files.
+   */
+  protected static boolean canSpill(PlanNode node) {
+    return node.getSchema().getLength() <= GlobalConst.MAX_TUPSIZE;
+  }
+
+} // class JoinEnumerator
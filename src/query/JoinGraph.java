@@ -0,0 +1,93 @@
+package query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The query's join graph: the FROM clause tables are its vertices, and each
+ * clause that references more than one table connects all of them. The join
+ * enumerator only plans subsets of tables that are connected in this graph,
+ * so a cross product is only ever built between its connected components.
+ */
+class JoinGraph {
+
+  /** Bit set of every table in the graph. */
+  protected int all;
+
+  /** Bit set of the tables of each clause that joins tables. */
+  protected List<Integer> edges;
+
+  /** Bit sets of the connected components, in order of their first table. */
+  protected List<Integer> components;
+
+  /**
+   * Builds the join graph of the given number of tables from their clauses.
+   */
+  public JoinGraph(int count, PredicateManager pm) {
+    this.all = (1 << count) - 1;
+    this.edges = pm.getJoinEdges();
+    this.components = new ArrayList<>();
+    int remaining = all;
+    while (remaining != 0) {
+      int component = reach(Integer.lowestOneBit(remaining), all);
+      components.add(component);
+      remaining &= ~component;
+    }
+  }
+
+  /**
+   * Gets the bit sets of the connected components.
+   */
+  public List<Integer> getComponents() {
+    return components;
+  }
+
+  /**
+   * True if the given tables are connected by clauses among themselves
+   * (a clause over more tables connects those of them in the set).
+   */
+  public boolean isConnected(int set) {
+    return set != 0 && reach(Integer.lowestOneBit(set), set) == set;
+  }
+
+  /**
+   * True if the given tables are a union of whole connected components, so
+   * that no clause connects them to the rest of the tables.
+   */
+  public boolean isComponentUnion(int set) {
+    for (int component : components) {
+      int part = set & component;
+      if (part != 0 && part != component) {
+        return false;
+      }
+    }
+    return set != 0;
+  }
+
+  /**
+   * True if the given set of tables is worth planning at all, i.e. it can be
+   * joined without any cross product or only needs the unavoidable ones.
+   */
+  public boolean isPlannable(int set) {
+    return isConnected(set) || isComponentUnion(set);
+  }
+
+  /**
+   * Gets the tables of the given set reachable from the start tables.
+   */
+  protected int reach(int start, int set) {
+    int reached = start;
+    boolean grown = true;
+    while (grown) {
+      grown = false;
+      for (int edge : edges) {
+        if ((edge & reached) != 0 && (edge & set & ~reached) != 0) {
+          reached |= edge & set;
+          grown = true;
+        }
+      }
+    }
+    return reached;
+  }
+
+} // class JoinGraph
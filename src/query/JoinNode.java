@@ -0,0 +1,227 @@
+package query;
+
+import global.SortKey;
+import heap.HeapFile;
+import index.HashIndex;
+import relop.Filter;
+import relop.GraceHashJoin;
+import relop.HashJoin;
+import relop.IndexJoin;
+import relop.Iterator;
+import relop.MergeJoin;
+import relop.NestedLoopJoin;
+import relop.Predicate;
+import relop.Projection;
+import relop.RuntimeFilter;
+import relop.Schema;
+import relop.SimpleJoin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plan node for joining two subtrees on the clauses that connect them.
+ */
+class JoinNode extends PlanNode {
+
+  /** Tuple-at-a-time nested loops, restarting the inner input. */
+  public static final int NESTED_LOOP = 1;
+
+  /** In-memory hash join on a column = column equality. */
+  public static final int HASH = 2;
+
+  /** Hybrid hash join that spills partitions beyond a memory budget. */
+  public static final int GRACE_HASH = 3;
+
+  /** Merge join of two inputs sorted on a column = column equality. */
+  public static final int MERGE = 4;
+
+  /** Hash index probe into the right table per left tuple. */
+  public static final int INDEX = 5;
+
+  // --------------------------------------------------------------------------
+
+  /** Outer (left) input of the join. */
+  protected PlanNode left;
+
+  /** Inner (right) input of the join. */
+  protected PlanNode right;
+
+  /** Clauses evaluated by the join; empty for a cross product. */
+  protected List<Predicate[]> preds;
+
+  /** Join algorithm to use. */
+  protected int method;
+
+  /** Equality clause used as the join key, for key-based methods. */
+  protected Predicate[] keyClause;
+
+  /** Join column of the left input, for key-based methods. */
+  protected int lcol;
+
+  /** Join column of the right input, for key-based methods. */
+  protected int rcol;
+
+  /** Memory budget in pages, for methods that spill. */
+  protected int memPages;
+
+  /** Index on the right table's join column, for index joins. */
+  protected IndexDesc index;
+
+  /** Local clauses of the right table, for index joins. */
+  protected List<Predicate[]> innerFilters;
+
+  /**
+   * Constructs a nested loops join node, which keeps the order of its left
+   * input; the caller fills in the estimates.
+   */
+  public JoinNode(PlanNode left, PlanNode right, List<Predicate[]> preds) {
+    this.tables = left.getTables() | right.getTables();
+    this.schema = Schema.join(left.getSchema(), right.getSchema());
+    this.width = left.getWidth() + right.getWidth();
+    this.left = left;
+    this.right = right;
+    this.preds = preds;
+    this.method = NESTED_LOOP;
+    this.order = left.getOrder();
+  }
+
+  /**
+   * Switches the join to a key-based method on the given column = column
+   * equality, which must be one of the join's clauses.
+   */
+  public void setKey(int method, Predicate[] keyClause) {
+    Predicate p = keyClause[0];
+    int lfld = left.getSchema().fieldNumber((String) p.getLeft());
+    if (lfld >= 0) {
+      this.lcol = lfld;
+      this.rcol = right.getSchema().fieldNumber((String) p.getRight());
+    } else {
+      this.lcol = left.getSchema().fieldNumber((String) p.getRight());
+      this.rcol = right.getSchema().fieldNumber((String) p.getLeft());
+    }
+    this.method = method;
+    this.keyClause = keyClause;
+    if (method == GRACE_HASH) {
+      // spilled partitions come back in no particular order
+      this.order = UNORDERED;
+    }
+  }
+
+  /**
+   * Gets the join key of the left input as a sort order.
+   */
+  public SortKey[] getLeftKey() {
+    return new SortKey[] {
+        new SortKey(left.getSchema().fieldName(lcol), false) };
+  }
+
+  /**
+   * Gets the join key of the right input as a sort order.
+   */
+  public SortKey[] getRightKey() {
+    return new SortKey[] {
+        new SortKey(right.getSchema().fieldName(rcol), false) };
+  }
+
+  /**
+   * Pushes the runtime filter into whichever input has the column; not into
+   * the right table of an index join, which is never scanned.
+   */
+  public boolean pushRuntimeFilter(RuntimeFilter filter, String column) {
+    if (left.getSchema().fieldNumber(column) >= 0) {
+      return left.pushRuntimeFilter(filter, column);
+    }
+    if (method != INDEX && right.getSchema().fieldNumber(column) >= 0) {
+      return right.pushRuntimeFilter(filter, column);
+    }
+    return false;
+  }
+
+  /**
+   * Builds the join on its key clause (or, for nested loops, as a cross
+   * product), with any other clauses applied as a filter on top of it. A hash
+   * join also summarizes its build keys in a runtime filter, which the scan
+   * of the probe column checks before its rows reach the join.
+   */
+  public Iterator toIterator() {
+    RuntimeFilter runtime = null;
+    if ((method == HASH || method == GRACE_HASH) && !preds.isEmpty()) {
+      runtime = new RuntimeFilter(right.getSchema().fieldName(rcol),
+          right.getCardinality());
+      if (!left.pushRuntimeFilter(runtime, left.getSchema().fieldName(lcol))) {
+        runtime = null;
+      }
+    }
+
+    Iterator outer = left.toIterator();
+    if (method == INDEX) {
+      // the right table is never scanned, so its filters go on top
+      ScanNode scan = (ScanNode) right;
+      Iterator iter = new IndexJoin(outer, lcol, scan.tableSchema,
+          scan.getTableField(rcol), new HashIndex(index.indexName),
+          new HeapFile(scan.tableName));
+      List<Predicate[]> rest = new ArrayList<>(innerFilters);
+      rest.addAll(preds);
+      rest.remove(keyClause);
+      return indexProjection(filter(iter, rest), scan);
+    }
+
+    Iterator inner = right.toIterator();
+    if (preds.isEmpty()) {
+      return applyProjection(new SimpleJoin(outer, inner));
+    }
+
+    Iterator iter;
+    if (method == HASH) {
+      HashJoin join = new HashJoin(outer, inner, lcol, rcol);
+      join.setRuntimeFilter(runtime);
+      iter = join;
+    } else if (method == GRACE_HASH) {
+      GraceHashJoin join = new GraceHashJoin(outer, inner, lcol, rcol,
+          memPages);
+      join.setRuntimeFilter(runtime);
+      iter = join;
+    } else if (method == MERGE) {
+      iter = new MergeJoin(outer, inner, lcol, rcol);
+    } else {
+      return applyProjection(new NestedLoopJoin(outer, inner,
+          preds.toArray(new Predicate[preds.size()][])));
+    }
+    List<Predicate[]> rest = new ArrayList<>(preds);
+    rest.remove(keyClause);
+    return applyProjection(filter(iter, rest));
+  }
+
+  /**
+   * Projects the output of an index join, whose right fields are all of the
+   * table's rather than those of the right node, onto this node's schema.
+   */
+  protected Iterator indexProjection(Iterator iter, ScanNode scan) {
+    int lcount = left.getSchema().getCount();
+    int count = projection != null ? projection.length
+        : lcount + scan.getSchema().getCount();
+    Integer[] fields = new Integer[count];
+    for (int i = 0; i < count; i++) {
+      int fldno = projection != null ? projection[i] : i;
+      fields[i] = fldno < lcount ? fldno
+          : lcount + scan.getTableField(fldno - lcount);
+    }
+    if (count == iter.getSchema().getCount()) {
+      // nothing was projected away on either level
+      return iter;
+    }
+    return new Projection(iter, fields);
+  }
+
+  /**
+   * Applies the given clauses on top of an iterator, if there are any.
+   */
+  protected static Iterator filter(Iterator iter, List<Predicate[]> clauses) {
+    if (clauses.isEmpty()) {
+      return iter;
+    }
+    return new Filter(iter, clauses.toArray(new Predicate[clauses.size()][]));
+  }
+
+} // class JoinNode extends PlanNode
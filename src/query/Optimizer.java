@@ -1,5 +1,7 @@
 package query;
 
+import parser.AST_Analyze;
+import parser.AST_Copy;
 import parser.AST_CreateIndex;
 import parser.AST_CreateTable;
 import parser.AST_Delete;
@@ -19,6 +21,51 @@ import parser.MiniSqlTreeConstants;
  */
 public class Optimizer implements MiniSqlTreeConstants {
 
+  /** Cost model used to compare alternative plans. */
+  protected static CostModel costModel = new DefaultCostModel();
+
+  /**
+   * Gets the cost model used to compare alternative plans.
+   */
+  public static CostModel getCostModel() {
+    return costModel;
+  }
+
+  /**
+   * Replaces the cost model used to compare alternative plans.
+   */
+  public static void setCostModel(CostModel model) {
+    costModel = model;
+  }
+
+  /** Memory budget of each hash or sort operator, in pages. */
+  protected static int workMemory = 32;
+
+  /**
+   * Gets the memory budget of each hash or sort operator, in pages.
+   */
+  public static int getWorkMemory() {
+    return workMemory;
+  }
+
+  /**
+   * Sets the memory budget of each hash or sort operator, in pages; operators
+   * whose input doesn't fit spill to scratch heap files.
+   */
+  public static void setWorkMemory(int pages) {
+    workMemory = pages;
+  }
+
+  /** Results of recent queries, 4MB by default. */
+  protected static ResultCache resultCache = new ResultCache(1 << 22);
+
+  /**
+   * Gets the cache of recent query results.
+   */
+  public static ResultCache getResultCache() {
+    return resultCache;
+  }
+
   /**
    * Evaluates the given AST and returns an optimized execution plan.
    * 
@@ -49,10 +96,18 @@ public class Optimizer implements MiniSqlTreeConstants {
         // System.out.println("Describing...");
         return new Describe((AST_Describe) tree.getStmt());
 
+      case JJT_ANALYZE:
+        // System.out.println("Analyzing...");
+        return new Analyze((AST_Analyze) tree.getStmt());
+
       case JJT_INSERT:
         // System.out.println("Inserting...");
         return new Insert((AST_Insert) tree.getStmt());
 
+      case JJT_COPY:
+        // System.out.println("Copying...");
+        return new Copy((AST_Copy) tree.getStmt());
+
       case JJT_SELECT:
         // System.out.println("Selecting...");
         return new Select((AST_Select) tree.getStmt());
@@ -0,0 +1,187 @@
+package query;
+
+import global.GlobalConst;
+import global.SortKey;
+import relop.Iterator;
+import relop.Projection;
+import relop.RuntimeFilter;
+import relop.Schema;
+
+import java.util.Arrays;
+
+/**
+ * A node in a physical query plan, annotated with the optimizer's estimates.
+ * The optimizer compares alternative trees of plan nodes and only turns the
+ * cheapest one into a tree of relational operators.
+ */
+public abstract class PlanNode implements GlobalConst {
+
+  /** Bytes reserved on each heap page for the page header. */
+  protected static final int PAGE_HEADER = 20;
+
+  /** Bytes used by each record's slot entry on a heap page. */
+  protected static final int SLOT_SIZE = 4;
+
+  /** Order of a subtree whose output isn't sorted. */
+  protected static final SortKey[] UNORDERED = new SortKey[0];
+
+  /** Bit set of the FROM clause tables covered by this subtree. */
+  protected int tables;
+
+  /** Schema of the tuples produced by this subtree. */
+  protected Schema schema;
+
+  /** Estimated number of tuples produced by this subtree. */
+  protected double cardinality;
+
+  /** Estimated size of each tuple produced by this subtree, in bytes. */
+  protected double width;
+
+  /** Estimated total cost of producing every tuple of this subtree. */
+  protected double cost;
+
+  /** Column names the output of this subtree is sorted on, if any. */
+  protected SortKey[] order = UNORDERED;
+
+  /** Fields of the subtree's unprojected output to keep, or null for all. */
+  protected Integer[] projection;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Gets the bit set of the FROM clause tables covered by this subtree.
+   */
+  public int getTables() {
+    return tables;
+  }
+
+  /**
+   * Gets the schema of the tuples produced by this subtree.
+   */
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Gets the estimated number of tuples produced by this subtree.
+   */
+  public double getCardinality() {
+    return cardinality;
+  }
+
+  /**
+   * Gets the estimated size of each tuple produced by this subtree, in bytes.
+   */
+  public double getWidth() {
+    return width;
+  }
+
+  /**
+   * Gets the estimated total cost of this subtree.
+   */
+  public double getCost() {
+    return cost;
+  }
+
+  /**
+   * Gets the column names the output of this subtree is sorted on, most
+   * significant first; empty if the output isn't sorted.
+   */
+  public SortKey[] getOrder() {
+    return order;
+  }
+
+  /**
+   * True if the output of this subtree is sorted on the given keys, i.e. they
+   * are a prefix of its order.
+   */
+  public boolean isOrderedOn(SortKey[] keys) {
+    if (keys.length > order.length) {
+      return false;
+    }
+    for (int i = 0; i < keys.length; i++) {
+      int fldno = schema.fieldNumber((String) keys[i].field);
+      if (fldno < 0 || keys[i].isDesc != order[i].isDesc
+          || fldno != schema.fieldNumber((String) order[i].field)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the estimated number of pages the output of this subtree would take
+   * if it was written to a heap file.
+   */
+  public double getPages() {
+    return pagesFor(cardinality, width);
+  }
+
+  /**
+   * Estimates the number of heap pages needed for the given number of tuples
+   * of the given length.
+   */
+  public static double pagesFor(double tuples, double length) {
+    double perPage = Math.max(1,
+        Math.floor((PAGE_SIZE - PAGE_HEADER) / (length + SLOT_SIZE)));
+    return Math.max(1, Math.ceil(tuples / perPage));
+  }
+
+  /**
+   * Narrows the output of this subtree to the given fields of its schema; does
+   * nothing if they are null. A subtree that's already narrowed combines the
+   * two, so that its tuples are still only projected once. The output stays
+   * sorted on the leading columns of its order that are kept.
+   */
+  public void setProjection(Integer[] fields) {
+    if (fields == null) {
+      return;
+    }
+    Schema narrow = new Schema(fields.length);
+    Integer[] combined = new Integer[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      narrow.initField(i, schema, fields[i]);
+      combined[i] = projection == null ? fields[i] : projection[fields[i]];
+    }
+    this.projection = combined;
+    this.schema = narrow;
+    this.width = narrow.getLength();
+
+    int kept = 0;
+    while (kept < order.length
+        && narrow.fieldNumber((String) order[kept].field) >= 0) {
+      kept++;
+    }
+    if (kept < order.length) {
+      order = kept == 0 ? UNORDERED : Arrays.copyOf(order, kept);
+    }
+  }
+
+  /**
+   * Adds the projection of this subtree, if any, on top of its unprojected
+   * output.
+   */
+  protected Iterator applyProjection(Iterator iter) {
+    if (projection == null) {
+      return iter;
+    }
+    return new Projection(iter, projection);
+  }
+
+  /**
+   * Pushes a hash join's runtime filter on the given column down to the scan
+   * in this subtree that reads the column, before the subtree is built. Since
+   * every join is an inner join, a row whose key can't match is dropped.
+   *
+   * @return false if no scan could take it
+   */
+  public boolean pushRuntimeFilter(RuntimeFilter filter, String column) {
+    return false;
+  }
+
+  /**
+   * Builds the relational operators that execute this subtree.
+   */
+  public abstract Iterator toIterator();
+
+} // public abstract class PlanNode implements GlobalConst
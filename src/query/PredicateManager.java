@@ -3,104 +3,264 @@ package query;
 import global.AttrOperator;
 import global.AttrType;
 import global.Minibase;
-import relop.Iterator;
 import relop.Predicate;
 import relop.Schema;
-import relop.Selection;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Created by david on 4/14/16.
+ *
+ * Classifies the CNF clauses of a query by the FROM clause tables they
+ * reference, so that the planner can place each clause at the lowest node of
+ * the plan where all of its columns are available.
  */
 public class PredicateManager {
+
   private final Predicate[][] mPredicates;
-  private final List<Predicate[]> mPredicatesList;
+  private final String[] mTableNames;
+  private final Schema[] mSchemas;
 
-  public PredicateManager(Predicate[][] preds) {
-    this.mPredicatesList = new ArrayList<>();
-    this.mPredicatesList.addAll(Arrays.asList(preds));
+  /** Bit set of the tables referenced by each clause. */
+  private final int[] mTableSets;
 
+  public PredicateManager(Predicate[][] preds, String[] tables) {
     this.mPredicates = preds;
+    this.mTableNames = tables;
+    this.mSchemas = new Schema[tables.length];
+    for (int i = 0; i < tables.length; i++) {
+      mSchemas[i] = Minibase.SystemCatalog.getSchema(tables[i]);
+    }
 
+    this.mTableSets = new int[preds.length];
+    for (int i = 0; i < preds.length; i++) {
+      for (Predicate p : preds[i]) {
+        mTableSets[i] |= tableSetOf(p);
+      }
+    }
   }
 
-  public Predicate[] popApplicableJoinPredicate(Iterator left, Iterator right) {
-    Schema joinshadow = Schema.join(left.getSchema(), right.getSchema());
-    int bestPredScore = Integer.MIN_VALUE;
-    Predicate[] predToJoinOn = null;
-    predToJoinOn = getJoinPredicate(joinshadow, bestPredScore);
+  /**
+   * Gets the index of the first FROM clause table that has the given column,
+   * or -1 if there is no such table.
+   */
+  public int tableOf(String column) {
+    for (int i = 0; i < mSchemas.length; i++) {
+      if (mSchemas[i].fieldNumber(column) >= 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
 
-    if(predToJoinOn != null)
-      mPredicatesList.remove(predToJoinOn);
+  /**
+   * Gets the bit set of the tables referenced by a single predicate.
+   */
+  private int tableSetOf(Predicate p) {
+    int set = 0;
+    if (p.getLtype() == AttrType.COLNAME) {
+      set |= 1 << tableOf((String) p.getLeft());
+    }
+    if (p.getRtype() == AttrType.COLNAME) {
+      set |= 1 << tableOf((String) p.getRight());
+    }
+    return set;
+  }
 
-    return predToJoinOn;
+  /**
+   * Gets the clauses that reference exactly the given table and no other.
+   */
+  public List<Predicate[]> getLocalPredicates(int table) {
+    List<Predicate[]> local = new ArrayList<>();
+    for (int i = 0; i < mPredicates.length; i++) {
+      if (mTableSets[i] == 1 << table) {
+        local.add(mPredicates[i]);
+      }
+    }
+    return local;
+  }
+
+  /**
+   * Gets the clauses that can be evaluated once the two given sets of tables
+   * are joined, but not on either side alone.
+   */
+  public List<Predicate[]> getJoinPredicates(int left, int right) {
+    List<Predicate[]> join = new ArrayList<>();
+    int both = left | right;
+    for (int i = 0; i < mPredicates.length; i++) {
+      int set = mTableSets[i];
+      if ((set & ~both) == 0 && (set & left) != 0 && (set & right) != 0) {
+        join.add(mPredicates[i]);
+      }
+    }
+    return join;
   }
 
-  public Collection<Predicate[]> popApplicablePredicates(Iterator iterator) {
-    // save the schema for this table
-    Schema tableSchema = iterator.getSchema();
-    ArrayList<Predicate[]> applicablePreds = new ArrayList<>();
+  /**
+   * Gets the (lower case) names of the columns referenced by clauses that
+   * can't be evaluated within the given set of tables alone, i.e. the columns
+   * a subtree over those tables must pass up for the joins above it.
+   */
+  public Set<String> getPendingColumns(int tables) {
+    Set<String> columns = new HashSet<>();
+    for (int i = 0; i < mPredicates.length; i++) {
+      if ((mTableSets[i] & ~tables) != 0) {
+        addColumns(mPredicates[i], columns);
+      }
+    }
+    return columns;
+  }
 
-    for (Predicate[] candidate : mPredicatesList) {
-      boolean canPushSelect = true;
+  /**
+   * Adds the lower case names of the columns a clause references to the set.
+   */
+  public static void addColumns(Predicate[] clause, Set<String> columns) {
+    for (Predicate p : clause) {
+      if (p.getLtype() == AttrType.COLNAME) {
+        columns.add(((String) p.getLeft()).toLowerCase());
+      }
+      if (p.getRtype() == AttrType.COLNAME) {
+        columns.add(((String) p.getRight()).toLowerCase());
+      }
+    }
+  }
 
-      for (Predicate p : candidate) {
-        canPushSelect = canPushSelect && p.validate(tableSchema);
+  /**
+   * Gets the bit set of the tables referenced by each clause that references
+   * more than one table, i.e. the edges of the query's join graph.
+   */
+  public List<Integer> getJoinEdges() {
+    List<Integer> edges = new ArrayList<>();
+    for (int set : mTableSets) {
+      if (Integer.bitCount(set) > 1) {
+        edges.add(set);
       }
+    }
+    return edges;
+  }
 
-      if (canPushSelect) {
-        applicablePreds.add(candidate);
+  /**
+   * Gets the clauses that don't reference any column at all.
+   */
+  public List<Predicate[]> getConstantPredicates() {
+    List<Predicate[]> constant = new ArrayList<>();
+    for (int i = 0; i < mPredicates.length; i++) {
+      if (mTableSets[i] == 0) {
+        constant.add(mPredicates[i]);
       }
     }
+    return constant;
+  }
 
-    mPredicatesList.removeAll(applicablePreds);
-    return applicablePreds;
+  /**
+   * Gets the local clauses of the given table that consist of a single column
+   * = constant equality, i.e. the ones that a hash index can answer.
+   */
+  public List<Predicate[]> getIndexEqualities(int table) {
+    List<Predicate[]> equalities = new ArrayList<>();
+    for (Predicate[] clause : getLocalPredicates(table)) {
+      if (clause.length == 1 && isConstantEquality(clause[0])) {
+        equalities.add(clause);
+      }
+    }
+    return equalities;
   }
 
-  private Predicate[] getJoinPredicate(Schema joinshadow, int bestPredScore) {
-    Predicate[] predToJoinOn = null;
-    //find the predicate to join on
-    for (Predicate[] candidate : mPredicatesList) {
-      boolean validCandidate = true;
-      int score = 0;
+  /**
+   * Gets the local clauses of the given table that consist of a single column
+   * op constant comparison other than <>, i.e. the ones that bound a range of
+   * keys in a B+ tree index.
+   */
+  public List<Predicate[]> getIndexComparisons(int table) {
+    List<Predicate[]> comparisons = new ArrayList<>();
+    for (Predicate[] clause : getLocalPredicates(table)) {
+      Predicate p = clause[0];
+      if (clause.length == 1 && p.getOper() != AttrOperator.NEQ
+          && (p.getLtype() == AttrType.COLNAME) != (p.getRtype() == AttrType.COLNAME)) {
+        comparisons.add(clause);
+      }
+    }
+    return comparisons;
+  }
 
-      for (Predicate p : candidate) {
-        validCandidate = validCandidate && p.validate(joinshadow);
-        if (p.getOper() == AttrOperator.EQ && p.getLtype() == AttrType.COLNAME && p.getRtype() == AttrType.COLNAME) {
-          score++;
-        }
+  /**
+   * Gets the local clauses of the given table that are a disjunction of
+   * several column = constant equalities, i.e. the ones that a union of hash
+   * index lookups can answer.
+   */
+  public List<Predicate[]> getIndexDisjunctions(int table) {
+    List<Predicate[]> disjunctions = new ArrayList<>();
+    for (Predicate[] clause : getLocalPredicates(table)) {
+      boolean equalities = clause.length > 1;
+      for (Predicate p : clause) {
+        equalities &= isConstantEquality(p);
       }
-      if (validCandidate && score > bestPredScore) {
-        predToJoinOn = candidate;
-        bestPredScore = score;
+      if (equalities) {
+        disjunctions.add(clause);
       }
     }
-    return predToJoinOn;
+    return disjunctions;
   }
 
-  public Collection<Predicate[]> popIndexEqualitiesFor(TableData tableData) {
-    if(tableData.getNames().length > 1) throw new IllegalArgumentException("There cannot be a tabledata with two tablenames but no iterator");
-    String tableName = tableData.getNames()[0];
-    IndexDesc[] indexes = Minibase.SystemCatalog.getIndexes(tableName);
-    Schema schema = Minibase.SystemCatalog.getSchema(tableName);
+  /**
+   * True if the predicate is a column = constant equality (on either side).
+   */
+  public static boolean isConstantEquality(Predicate p) {
+    return p.getOper() == AttrOperator.EQ
+        && (p.getLtype() == AttrType.COLNAME) != (p.getRtype() == AttrType.COLNAME);
+  }
 
-    Collection<Predicate[]> toReturn = new ArrayList<>();
+  /**
+   * True if the predicate is a column = column equality.
+   */
+  public static boolean isColumnEquality(Predicate p) {
+    return p.getOper() == AttrOperator.EQ && p.getLtype() == AttrType.COLNAME
+        && p.getRtype() == AttrType.COLNAME;
+  }
 
-    for (Predicate[] predicates : mPredicates) {
-      boolean isValid = true;
-      for(Predicate pred : predicates) {
-        isValid = pred.validate(schema) && pred.getOper() == AttrOperator.EQ && pred.getLtype() == AttrType.COLNAME && pred.getRtype() != AttrType.COLNAME;
-        if(!isValid) break;
-      }
-      if(isValid) {
-        mPredicatesList.remove(predicates);
-        toReturn.add(predicates);
+  /**
+   * Gets a single column = column equality that joins the two given sets of
+   * tables, or null if there is none.
+   */
+  public Predicate[] getEquiJoinPredicate(int left, int right) {
+    for (Predicate[] clause : getJoinPredicates(left, right)) {
+      if (clause.length == 1 && isColumnEquality(clause[0])) {
+        int lset = 1 << tableOf((String) clause[0].getLeft());
+        int rset = 1 << tableOf((String) clause[0].getRight());
+        if (((lset & left) != 0 && (rset & right) != 0)
+            || ((lset & right) != 0 && (rset & left) != 0)) {
+          return clause;
+        }
       }
     }
-    return toReturn;
+    return null;
+  }
+
+  /**
+   * Gets the operator of a column op constant comparison, as if the column
+   * was on the left.
+   */
+  public static int getComparisonOperator(Predicate p) {
+    return p.getLtype() == AttrType.COLNAME ? p.getOper()
+        : CardinalityEstimator.flip(p.getOper());
+  }
+
+  /**
+   * Gets the column name of a column = constant equality (or any other column
+   * op constant comparison).
+   */
+  public static String getEqualityColumn(Predicate p) {
+    return (String) (p.getLtype() == AttrType.COLNAME ? p.getLeft() : p.getRight());
+  }
+
+  /**
+   * Gets the constant value of a column = constant equality (or any other
+   * column op constant comparison).
+   */
+  public static Object getEqualityValue(Predicate p) {
+    return p.getLtype() == AttrType.COLNAME ? p.getRight() : p.getLeft();
   }
 }
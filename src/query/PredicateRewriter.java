@@ -0,0 +1,126 @@
+package query;
+
+import global.AttrOperator;
+import global.AttrType;
+import relop.Predicate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites the CNF clauses of a query before planning. Columns that single
+ * column = column clauses make equal form equivalence classes, and a constant
+ * equality on any column of a class holds for all of them; e.g. sid = gsid AND
+ * gsid = 3 implies sid = 3. The implied equalities are added as clauses of
+ * their own, so that access path selection can answer them with an index.
+ */
+class PredicateRewriter {
+
+  /**
+   * Gets the given clauses plus the column = constant equalities they imply,
+   * leaving out any that are already there.
+   */
+  public static Predicate[][] inferEqualities(Predicate[][] preds) {
+
+    // union the columns of every column = column clause
+    Map<String, String> parents = new HashMap<>();
+    for (Predicate[] clause : preds) {
+      if (clause.length == 1 && PredicateManager.isColumnEquality(clause[0])) {
+        String left = find(parents, ((String) clause[0].getLeft()).toLowerCase());
+        String right = find(parents, ((String) clause[0].getRight()).toLowerCase());
+        if (!left.equals(right)) {
+          parents.put(left, right);
+        }
+      }
+    }
+    if (parents.isEmpty()) {
+      return preds;
+    }
+
+    // gather each class's columns (as first written) and constants
+    Map<String, List<String>> columns = new LinkedHashMap<>();
+    Map<String, List<Predicate>> constants = new HashMap<>();
+    List<String> existing = new ArrayList<>();
+    for (Predicate[] clause : preds) {
+      for (Predicate p : clause) {
+        if (p.getLtype() == AttrType.COLNAME) {
+          addColumn(parents, columns, (String) p.getLeft());
+        }
+        if (p.getRtype() == AttrType.COLNAME) {
+          addColumn(parents, columns, (String) p.getRight());
+        }
+      }
+      if (clause.length == 1 && PredicateManager.isConstantEquality(clause[0])) {
+        String column = PredicateManager.getEqualityColumn(clause[0]);
+        existing.add(key(column, PredicateManager.getEqualityValue(clause[0])));
+        String root = find(parents, column.toLowerCase());
+        if (!constants.containsKey(root)) {
+          constants.put(root, new ArrayList<Predicate>());
+        }
+        constants.get(root).add(clause[0]);
+      }
+    }
+
+    // every column of a class equals each of the class's constants
+    List<Predicate[]> result = new ArrayList<>();
+    for (Predicate[] clause : preds) {
+      result.add(clause);
+    }
+    for (Map.Entry<String, List<Predicate>> entry : constants.entrySet()) {
+      for (Predicate constant : entry.getValue()) {
+        Object value = PredicateManager.getEqualityValue(constant);
+        int type = constant.getLtype() == AttrType.COLNAME
+            ? constant.getRtype() : constant.getLtype();
+        for (String column : columns.get(entry.getKey())) {
+          String key = key(column, value);
+          if (!existing.contains(key)) {
+            existing.add(key);
+            result.add(new Predicate[] { new Predicate(AttrOperator.EQ,
+                AttrType.COLNAME, column, type, value) });
+          }
+        }
+      }
+    }
+    return result.toArray(new Predicate[result.size()][]);
+
+  } // public static Predicate[][] inferEqualities(Predicate[][] preds)
+
+  /**
+   * Adds a column to the list of its equivalence class, once.
+   */
+  protected static void addColumn(Map<String, String> parents,
+      Map<String, List<String>> columns, String column) {
+    String root = find(parents, column.toLowerCase());
+    if (!columns.containsKey(root)) {
+      columns.put(root, new ArrayList<String>());
+    }
+    for (String known : columns.get(root)) {
+      if (known.equalsIgnoreCase(column)) {
+        return;
+      }
+    }
+    columns.get(root).add(column);
+  }
+
+  /**
+   * Gets the representative of the class of the given (lower case) column.
+   */
+  protected static String find(Map<String, String> parents, String column) {
+    String root = column;
+    while (parents.containsKey(root)) {
+      root = parents.get(root);
+    }
+    return root;
+  }
+
+  /**
+   * Identifies a column = constant equality, to find duplicates.
+   */
+  protected static String key(String column, Object value) {
+    return column.toLowerCase() + '=' + value;
+  }
+
+} // class PredicateRewriter
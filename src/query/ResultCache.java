@@ -0,0 +1,445 @@
+package query;
+
+import global.AttrOperator;
+import global.AttrType;
+import global.Minibase;
+import global.SortKey;
+import relop.Iterator;
+import relop.Predicate;
+import relop.Schema;
+import relop.Tuple;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Results of recent queries, so that a query repeated before any of its
+ * tables change is answered without planning or scanning. Results are keyed
+ * on the normalized query, and remember the catalog version of each table
+ * they read; a result whose tables have changed since is never returned. The
+ * cache holds at most a given number of bytes of results, evicting the least
+ * recently used ones first.
+ */
+public class ResultCache {
+
+  /** Bytes charged per cached tuple, on top of its data. */
+  protected static final int TUPLE_OVERHEAD = 16;
+
+  /**
+   * A cached result.
+   */
+  protected static class Entry {
+
+    /** Tables the query read, and their versions when it ran. */
+    String[] tables;
+    int[] versions;
+
+    /** Schema and data of the result tuples, in order. */
+    Schema schema;
+    List<byte[]> rows;
+
+    /** Bytes charged for the entry. */
+    long size;
+
+  } // protected static class Entry
+
+  // --------------------------------------------------------------------------
+
+  /** Cached results by query key, least recently used first. */
+  protected LinkedHashMap<String, Entry> entries;
+
+  /** Most bytes of results to hold; 0 disables the cache. */
+  protected long capacity;
+
+  /** Bytes of results currently held. */
+  protected long size;
+
+  /** Number of lookups answered, and not answered, from the cache. */
+  protected int hits, misses;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs an empty cache of the given size, in bytes.
+   */
+  public ResultCache(long capacity) {
+    this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    this.capacity = capacity;
+  }
+
+  /**
+   * Gets the most bytes of results the cache holds.
+   */
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Sets the most bytes of results the cache holds, evicting results to fit;
+   * 0 disables the cache.
+   */
+  public void setCapacity(long capacity) {
+    this.capacity = capacity;
+    evict(0);
+  }
+
+  /**
+   * Gets the bytes of results currently held.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Gets the number of lookups answered from the cache.
+   */
+  public int getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Gets the number of lookups not answered from the cache.
+   */
+  public int getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Gets the key of a query, which is the same however its clauses are
+   * ordered or its names are capitalized.
+   */
+  public static String getKey(String[] tables, String[] cols,
+      Predicate[][] preds, SortKey[] orders, boolean distinct) {
+
+    // each clause's predicates and the clauses themselves commute
+    String[] clauses = new String[preds.length];
+    for (int i = 0; i < preds.length; i++) {
+      String[] terms = new String[preds[i].length];
+      for (int j = 0; j < terms.length; j++) {
+        Predicate p = preds[i][j];
+        terms[j] = getOperand(p.getLtype(), p.getLeft()) + ' '
+            + AttrOperator.toString(p.getOper()) + ' '
+            + getOperand(p.getRtype(), p.getRight());
+      }
+      Arrays.sort(terms);
+      clauses[i] = String.join(" OR ", terms);
+    }
+    Arrays.sort(clauses);
+
+    StringBuilder key = new StringBuilder(distinct ? "DISTINCT " : "");
+    key.append(String.join(", ", cols).toLowerCase());
+    key.append(" FROM ").append(String.join(", ", tables).toLowerCase());
+    key.append(" WHERE ").append(String.join(" AND ", clauses));
+    key.append(" ORDER BY");
+    for (SortKey order : orders) {
+      key.append(' ').append(order.field.toString().toLowerCase());
+      key.append(order.isDesc ? " DESC" : " ASC");
+    }
+    return key.toString();
+  }
+
+  /**
+   * Gets one side of a predicate as it appears in a query key; column names
+   * are case-insensitive, but strings aren't.
+   */
+  protected static String getOperand(int type, Object operand) {
+    if (type == AttrType.COLNAME) {
+      return operand.toString().toLowerCase();
+    }
+    if (type == AttrType.STRING) {
+      return "'" + operand + "'";
+    }
+    return operand.toString();
+  }
+
+  /**
+   * Gets a scan of the cached result of the given query, or null if there's
+   * none that is still current.
+   */
+  public Iterator lookup(String key) {
+    Entry entry = entries.get(key);
+    if (entry != null && !isCurrent(entry.tables, entry.versions)) {
+      remove(key);
+      entry = null;
+    }
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    return new Scan(key, entry);
+  }
+
+  /**
+   * Wraps the iterator producing the result of the given query, so that the
+   * result is cached once it has been read to the end; the query's tables
+   * must not have changed since it was planned.
+   */
+  public Iterator record(String key, String[] tables, Iterator iter) {
+    if (capacity == 0) {
+      return iter;
+    }
+    int[] versions = new int[tables.length];
+    for (int i = 0; i < tables.length; i++) {
+      versions[i] = Minibase.SystemCatalog.getVersion(tables[i]);
+    }
+    return new Recorder(key, tables, versions, iter);
+  }
+
+  /**
+   * Drops every cached result that read the given table.
+   */
+  public void invalidate(String table) {
+    for (String key : new ArrayList<String>(entries.keySet())) {
+      for (String name : entries.get(key).tables) {
+        if (name.equalsIgnoreCase(table)) {
+          remove(key);
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops every cached result, i.e. when another database is opened.
+   */
+  public void clear() {
+    entries.clear();
+    size = 0;
+  }
+
+  /**
+   * True if none of the given tables have changed since they had the given
+   * versions.
+   */
+  protected static boolean isCurrent(String[] tables, int[] versions) {
+    for (int i = 0; i < tables.length; i++) {
+      if (Minibase.SystemCatalog.getVersion(tables[i]) != versions[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Caches a fully read result, if it fits at all and its tables haven't
+   * changed while it was read.
+   */
+  protected void put(String key, Entry entry) {
+    if (entry.size > capacity || !isCurrent(entry.tables, entry.versions)) {
+      return;
+    }
+    remove(key);
+    evict(entry.size);
+    entries.put(key, entry);
+    size += entry.size;
+  }
+
+  /**
+   * Drops the result of the given query, if cached.
+   */
+  protected void remove(String key) {
+    Entry entry = entries.remove(key);
+    if (entry != null) {
+      size -= entry.size;
+    }
+  }
+
+  /**
+   * Evicts the least recently used results until the given number of bytes
+   * fits as well.
+   */
+  protected void evict(long needed) {
+    java.util.Iterator<Entry> it = entries.values().iterator();
+    while (size + needed > capacity && it.hasNext()) {
+      size -= it.next().size;
+      it.remove();
+    }
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Returns the tuples of a cached result.
+   */
+  protected static class Scan extends Iterator {
+
+    /** Key of the query, for explanations. */
+    protected String key;
+
+    /** The cached result. */
+    protected Entry entry;
+
+    /** Position of the next tuple, or -1 once closed. */
+    protected int next;
+
+    /**
+     * Constructs a scan of the given cached result.
+     */
+    public Scan(String key, Entry entry) {
+      setSchema(entry.schema);
+      this.key = key;
+      this.entry = entry;
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator.
+     */
+    public void explain(int depth) {
+      indent(depth);
+      System.out.println("ResultCache : " + entry.rows.size() + " tuples of "
+          + key);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+      next = 0;
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+      return next >= 0;
+    }
+
+    /**
+     * Closes the iterator.
+     */
+    public void close() {
+      next = -1;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise.
+     */
+    public boolean hasNext() {
+      return next >= 0 && next < entry.rows.size();
+    }
+
+    /**
+     * Gets the next tuple in the iteration; a copy, as the caller may change
+     * it.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+      if (!hasNext()) {
+        throw new IllegalStateException("no more tuples");
+      }
+      return new Tuple(getSchema(), entry.rows.get(next++).clone());
+    }
+
+  } // protected static class Scan extends Iterator
+
+  /**
+   * Passes on the tuples of a query's result, keeping copies to cache once
+   * the last one has been read. Results that grow too large for the cache
+   * stop being kept.
+   */
+  protected class Recorder extends Iterator {
+
+    /** Key of the query. */
+    protected String key;
+
+    /** Iterator producing the result. */
+    protected Iterator input;
+
+    /** The result read so far, or null if it won't be cached. */
+    protected Entry entry;
+
+    /**
+     * Constructs a recorder of the given query's result.
+     */
+    public Recorder(String key, String[] tables, int[] versions,
+        Iterator input) {
+      setSchema(input.getSchema());
+      this.key = key;
+      this.input = input;
+      start(tables, versions);
+    }
+
+    /**
+     * Starts a new, empty result.
+     */
+    protected void start(String[] tables, int[] versions) {
+      entry = new Entry();
+      entry.tables = tables;
+      entry.versions = versions;
+      entry.schema = getSchema();
+      entry.rows = new ArrayList<byte[]>();
+      entry.size = key.length();
+    }
+
+    /**
+     * Gives a one-line explanation of the iterator, then explains its
+     * children; the recorder itself isn't shown.
+     */
+    public void explain(int depth) {
+      input.explain(depth);
+    }
+
+    /**
+     * Restarts the iterator, i.e. as if it were just constructed.
+     */
+    public void restart() {
+      input.restart();
+      if (entry != null) {
+        start(entry.tables, entry.versions);
+      }
+    }
+
+    /**
+     * Returns true if the iterator is open; false otherwise.
+     */
+    public boolean isOpen() {
+      return input.isOpen();
+    }
+
+    /**
+     * Closes the iterator, dropping the result unless it was read to the end.
+     */
+    public void close() {
+      input.close();
+      entry = null;
+    }
+
+    /**
+     * Returns true if there are more tuples, false otherwise; caches the
+     * result after the last one.
+     */
+    public boolean hasNext() {
+      if (input.hasNext()) {
+        return true;
+      }
+      if (entry != null) {
+        put(key, entry);
+        entry = null;
+      }
+      return false;
+    }
+
+    /**
+     * Gets the next tuple in the iteration.
+     *
+     * @throws IllegalStateException if no more tuples
+     */
+    public Tuple getNext() {
+      Tuple tuple = input.getNext();
+      if (entry != null) {
+        entry.rows.add(tuple.getData().clone());
+        entry.size += tuple.getData().length + TUPLE_OVERHEAD;
+        if (entry.size > capacity) {
+          entry = null;
+        }
+      }
+      return tuple;
+    }
+
+  } // protected class Recorder extends Iterator
+
+} // public class ResultCache
@@ -0,0 +1,274 @@
+package query;
+
+import global.SearchKey;
+import global.SortKey;
+import heap.HeapFile;
+import index.BTreeIndex;
+import index.BTreeScan;
+import index.HashIndex;
+import relop.FileScan;
+import relop.Filter;
+import relop.Iterator;
+import relop.IndexOnlyScan;
+import relop.KeyRangeScan;
+import relop.KeyScan;
+import relop.KeyIntersectScan;
+import relop.KeyUnionScan;
+import relop.Predicate;
+import relop.Projection;
+import relop.RidSetScan;
+import relop.RuntimeFilter;
+import relop.Schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plan node for reading a single table, either with a full file scan, with
+ * hash index lookups, or with a B+ tree range scan, followed by the table's
+ * local selection predicates. A range scan of an index that stores every
+ * column the query reads can skip the table altogether.
+ */
+class ScanNode extends PlanNode {
+
+  /** Reads every record of the table. */
+  public static final int FILE_SCAN = 1;
+
+  /** Looks up a single key in a hash index. */
+  public static final int KEY_SCAN = 2;
+
+  /** Looks up several keys, possibly in different indexes, for an OR clause. */
+  public static final int KEY_UNION = 3;
+
+  /** Looks up keys in several indexes and only keeps records found by all. */
+  public static final int KEY_INTERSECT = 4;
+
+  /** Scans a range of keys in a B+ tree, returning records in key order. */
+  public static final int KEY_RANGE = 5;
+
+  /** Scans a range of keys in a B+ tree, reading only the index entries. */
+  public static final int INDEX_ONLY = 6;
+
+  // --------------------------------------------------------------------------
+
+  /** Name of the table to scan. */
+  protected String tableName;
+
+  /** Schema of the table's records, before any projection. */
+  protected Schema tableSchema;
+
+  /** Access method to use. */
+  protected int method;
+
+  /** Index to probe for each key, for index lookups. */
+  protected IndexDesc[] indexes;
+
+  /**
+   * Constants to look up, for index lookups; the bounds, for a range. Keys of
+   * composite indexes are arrays of values.
+   */
+  protected Object[] keys;
+
+  /** Whether records equal to each bound are in the range. */
+  protected boolean lowInclusive, highInclusive;
+
+  /** Local clauses still to be applied after the scan. */
+  protected List<Predicate[]> filters;
+
+  /** Runtime filters from hash joins above, to be applied after the scan. */
+  protected List<RuntimeFilter> runtimeFilters = new ArrayList<>();
+
+  /** The column each runtime filter checks. */
+  protected List<String> runtimeColumns = new ArrayList<>();
+
+  /**
+   * Constructs a file scan node; the caller fills in the estimates.
+   *
+   * @param table position of the table in the FROM clause
+   * @param filters local clauses still to be applied after the scan
+   */
+  public ScanNode(int table, String tableName, Schema schema,
+      List<Predicate[]> filters) {
+    this.tables = 1 << table;
+    this.tableName = tableName;
+    this.tableSchema = schema;
+    this.schema = schema;
+    this.width = schema.getLength();
+    this.method = FILE_SCAN;
+    this.filters = filters;
+  }
+
+  /**
+   * Switches the scan to an index-based method, looking up each constant in
+   * the corresponding index.
+   */
+  public void setKeys(int method, IndexDesc[] indexes, Object[] keys) {
+    this.method = method;
+    this.indexes = indexes;
+    this.keys = keys;
+  }
+
+  /**
+   * Switches the scan to a range scan of the given B+ tree index, returning
+   * the records in key order; either bound may be null. On a composite index,
+   * a bound is an array of leading key values.
+   */
+  public void setRange(IndexDesc index, Object low, boolean lowInclusive,
+      Object high, boolean highInclusive) {
+    this.method = KEY_RANGE;
+    this.indexes = new IndexDesc[] { index };
+    this.keys = new Object[] { low, high };
+    this.lowInclusive = lowInclusive;
+    this.highInclusive = highInclusive;
+    String[] stored = index.getStoredColumns();
+    this.order = new SortKey[stored.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = new SortKey(stored[i], false);
+    }
+  }
+
+  /**
+   * Switches a range scan to reading the columns from the index entries, once
+   * it's known that the index stores all the columns needed.
+   */
+  public void setIndexOnly() {
+    this.method = INDEX_ONLY;
+  }
+
+  /**
+   * Takes a runtime filter on one of the table's columns, to apply along with
+   * the local clauses.
+   */
+  public boolean pushRuntimeFilter(RuntimeFilter filter, String column) {
+    runtimeFilters.add(filter);
+    runtimeColumns.add(column);
+    return true;
+  }
+
+  /**
+   * Gets the field of the table's records that the given field of this node's
+   * output comes from.
+   */
+  public int getTableField(int fldno) {
+    return projection == null ? fldno : projection[fldno];
+  }
+
+  /**
+   * Builds the scan, then the filter and projection on top of it.
+   */
+  public Iterator toIterator() {
+    HeapFile file = new HeapFile(tableName);
+    Iterator iter;
+    if (method == KEY_SCAN) {
+      iter = new KeyScan(tableSchema, new HashIndex(indexes[0].indexName),
+          new SearchKey(keys[0]), file);
+    } else if (method == KEY_UNION || method == KEY_INTERSECT) {
+      HashIndex[] hashIndexes = new HashIndex[indexes.length];
+      SearchKey[] searchKeys = new SearchKey[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        hashIndexes[i] = new HashIndex(indexes[i].indexName);
+        searchKeys[i] = new SearchKey(keys[i]);
+      }
+      if (method == KEY_UNION) {
+        iter = new KeyUnionScan(tableSchema, hashIndexes, searchKeys, file);
+      } else {
+        iter = new KeyIntersectScan(tableSchema, hashIndexes, searchKeys, file);
+      }
+    } else if (method == KEY_RANGE) {
+      iter = new KeyRangeScan(tableSchema, new BTreeIndex(indexes[0].indexName),
+          keys[0] == null ? null : new SearchKey(keys[0]), lowInclusive,
+          keys[1] == null ? null : new SearchKey(keys[1]), highInclusive, file);
+    } else if (method == INDEX_ONLY) {
+      return indexOnlyScan(file);
+    } else {
+      iter = new FileScan(tableSchema, file);
+    }
+    return applyProjection(applyFilters(iter));
+  }
+
+  /**
+   * Gets the ids of the records an index-based scan finds, packed in page
+   * order, without reading the records; the local clauses are left for the
+   * caller to check. Statements that change the records they find use this,
+   * so that their changes can't affect which records the index finds.
+   */
+  public long[] getRids() {
+    if (method == KEY_RANGE || method == INDEX_ONLY) {
+      BTreeScan scan = new BTreeIndex(indexes[0].indexName).openScan(
+          keys[0] == null ? null : new SearchKey(keys[0]), lowInclusive,
+          keys[1] == null ? null : new SearchKey(keys[1]), highInclusive);
+      long[] rids = new long[16];
+      int count = 0;
+      while (scan.hasNext()) {
+        if (count == rids.length) {
+          rids = Arrays.copyOf(rids, count * 2);
+        }
+        rids[count++] = RidSetScan.toLong(scan.getNext());
+      }
+      scan.close();
+      rids = Arrays.copyOf(rids, count);
+      Arrays.sort(rids);
+      return rids;
+    }
+
+    // a single key is a union of one lookup
+    HashIndex[] hashIndexes = new HashIndex[indexes.length];
+    SearchKey[] searchKeys = new SearchKey[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      hashIndexes[i] = new HashIndex(indexes[i].indexName);
+      searchKeys[i] = new SearchKey(keys[i]);
+    }
+    HeapFile file = new HeapFile(tableName);
+    RidSetScan scan = method == KEY_INTERSECT
+        ? new KeyIntersectScan(tableSchema, hashIndexes, searchKeys, file)
+        : new KeyUnionScan(tableSchema, hashIndexes, searchKeys, file);
+    long[] rids = scan.getRids();
+    scan.close();
+    return rids;
+  }
+
+  /**
+   * Adds the filter on top of the scan, if there are any local clauses or
+   * runtime filters.
+   */
+  private Iterator applyFilters(Iterator iter) {
+    if (filters.isEmpty() && runtimeFilters.isEmpty()) {
+      return iter;
+    }
+    Filter filter = new Filter(iter,
+        filters.toArray(new Predicate[filters.size()][]));
+    for (int i = 0; i < runtimeFilters.size(); i++) {
+      filter.addRuntimeFilter(runtimeFilters.get(i),
+          iter.getSchema().fieldNumber(runtimeColumns.get(i)));
+    }
+    return filter;
+  }
+
+  /**
+   * Builds the index-only scan, whose tuples hold the index's stored columns,
+   * then the filter on top of it, and a projection back to the columns this
+   * node outputs.
+   */
+  private Iterator indexOnlyScan(HeapFile file) {
+    String[] stored = indexes[0].getStoredColumns();
+    Schema indexSchema = new Schema(stored.length);
+    for (int i = 0; i < stored.length; i++) {
+      indexSchema.initField(i, tableSchema, tableSchema.fieldNumber(stored[i]));
+    }
+    Iterator iter = new IndexOnlyScan(indexSchema,
+        new BTreeIndex(indexes[0].indexName),
+        keys[0] == null ? null : new SearchKey(keys[0]), lowInclusive,
+        keys[1] == null ? null : new SearchKey(keys[1]), highInclusive, file);
+    iter = applyFilters(iter);
+
+    Integer[] fields = new Integer[schema.getCount()];
+    boolean reordered = fields.length != stored.length;
+    for (int i = 0; i < fields.length; i++) {
+      fields[i] = indexSchema.fieldNumber(schema.fieldName(i));
+      reordered |= fields[i] != i;
+    }
+    return reordered ? new Projection(iter, fields) : iter;
+  }
+
+} // class ScanNode extends PlanNode
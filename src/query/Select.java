@@ -17,10 +17,10 @@ class Select extends TestablePlan {
   private String[] tables;
   private String[] cols;
   private Predicate[][] preds;
+  private SortKey[] orders;
+  private boolean distinct;
   private boolean explain;
 
-  ArrayList<TableData> mTablesList;
-
   private Iterator finalIterator;
 
 
@@ -34,61 +34,103 @@ class Select extends TestablePlan {
     this.tables = tree.getTables();
     this.preds = tree.getPredicates();
     this.cols = tree.getColumns();
+    this.orders = tree.getOrders();
+    this.distinct = tree.isDistinct;
     this.explain = tree.isExplain;
 
-    validate(); //throws QueryException
-
-    //create a table candidate chooser
-    TableManager tm = new TableManager(tables);
-    //create a predicate manager
-    PredicateManager pm = new PredicateManager(preds);
+    //a query repeated since its tables last changed needs no plan at all
+    ResultCache cache = Optimizer.getResultCache();
+    String key = ResultCache.getKey(tables, cols, preds, orders, distinct);
+    if (!explain) {
+      finalIterator = cache.lookup(key);
+      if (finalIterator != null) {
+        setFinalIterator(finalIterator);
+        return;
+      }
+    }
 
-    if(finalIterator == null) {
-      finalIterator = tm.getCandidate(pm).getIterator();
-      pushSelection(pm);
+    validate(); //throws QueryException
 
+    //add the constant equalities implied through column equalities
+    Predicate[][] clauses = PredicateRewriter.inferEqualities(preds);
+    //classify the predicates by the tables they reference
+    PredicateManager pm = new PredicateManager(clauses, tables);
+    //estimate how many tuples pass them
+    CardinalityEstimator ce = new CardinalityEstimator(pm, tables);
+    //choose an access path for each table
+    TableManager tm = new TableManager(tables, pm, ce, Optimizer.getCostModel());
+
+    //find the cheapest join order (sorted for the ORDER BY clause) and build it
+    //passing up only the columns still needed above each subtree
+    ColumnManager columns = new ColumnManager(pm, cols, orders);
+    JoinEnumerator je = new JoinEnumerator(tm, pm, ce, columns, Optimizer.getCostModel());
+    PlanNode plan = je.enumerate(orders);
+    applyProjection(plan);
+    finalIterator = plan.toIterator();
+
+    //predicates without any columns go on top
+    List<Predicate[]> constant = pm.getConstantPredicates();
+    if (!constant.isEmpty()) {
+      finalIterator = new Filter(finalIterator,
+          constant.toArray(new Predicate[constant.size()][]));
     }
-    while(tm.hasNext()) {
-      //join on applicable pred.
-      joinIfPossible(tm, pm);
-      //push selections
-      pushSelection(pm);
+
+    if (distinct) {
+      applyDistinct(plan.getOrder());
     }
 
-    applyProjections();
+    if (!explain) {
+      finalIterator = cache.record(key, tables, finalIterator);
+    }
 
     // explaining for testing purposes
     // finalIterator.explain(0);
     setFinalIterator(finalIterator);
   } // public Select(AST_Select tree) throws QueryException
 
-  private void applyProjections() {
-    Schema finalSchema = finalIterator.getSchema();
+  /**
+   * Narrows the plan's output to the select list, as part of the projection
+   * its root already does.
+   */
+  private void applyProjection(PlanNode plan) {
+    Schema finalSchema = plan.getSchema();
 
     Integer[] fieldNums = new Integer[cols.length];
     for (int i = 0; i < cols.length; i++) {
       fieldNums[i] = finalSchema.fieldNumber(cols[i]);
     }
 
-    if (fieldNums.length > 0) {
-      finalIterator = new Projection(finalIterator, fieldNums);
+    // the plan may already produce exactly the select list
+    boolean identity = fieldNums.length == finalSchema.getCount();
+    for (int i = 0; identity && i < fieldNums.length; i++) {
+      identity = fieldNums[i] == i;
+    }
+    if (fieldNums.length > 0 && !identity) {
+      plan.setProjection(fieldNums);
     }
   }
 
-  private void joinIfPossible(TableManager tm, PredicateManager pm) {
-    Iterator joinCandidate = tm.getCandidate(pm).getIterator();
-    Predicate[] joinPredicate = pm.popApplicableJoinPredicate(finalIterator, joinCandidate);
-    if(joinPredicate != null)
-      finalIterator = new SimpleJoin(finalIterator, joinCandidate, joinPredicate);
-    else
-      finalIterator = new SimpleJoin(finalIterator, joinCandidate);
-  }
+  /**
+   * Removes duplicate output tuples, taking advantage of the plan's order if
+   * the projection kept any of its leading columns.
+   */
+  private void applyDistinct(SortKey[] order) {
+    Schema finalSchema = finalIterator.getSchema();
 
-  private void pushSelection(PredicateManager pm) {
-    //push selections
-    Collection<Predicate[]> selectionPredicates = pm.popApplicablePredicates(finalIterator);
-    for(Predicate[] pred : selectionPredicates) {
-      finalIterator = new Selection(finalIterator, pred);
+    int prefix = 0;
+    while (prefix < order.length
+        && finalSchema.fieldNumber((String) order[prefix].field) >= 0) {
+      prefix++;
+    }
+
+    if (prefix > 0) {
+      int[] fields = new int[prefix];
+      for (int i = 0; i < prefix; i++) {
+        fields[i] = finalSchema.fieldNumber((String) order[i].field);
+      }
+      finalIterator = new SortedDistinct(finalIterator, fields);
+    } else {
+      finalIterator = new HashDistinct(finalIterator, Optimizer.getWorkMemory());
     }
   }
 
@@ -125,6 +167,18 @@ class Select extends TestablePlan {
         // validate the column
         QueryCheck.columnExists(schemaValidation, cols[i]);
       }
+      for (SortKey order : orders) {
+        QueryCheck.columnExists(schemaValidation, (String) order.field);
+        // spilled distinct tuples would come back out of order
+        boolean listed = cols.length == 0;
+        for (String col : cols) {
+          listed |= col.equalsIgnoreCase((String) order.field);
+        }
+        if (distinct && !listed) {
+          throw new QueryException("ORDER BY column '" + order.field
+              + "' must be in the select list of a DISTINCT query");
+        }
+      }
     } catch(QueryException e){
       throw e;
     }
@@ -0,0 +1,62 @@
+package query;
+
+import global.SortKey;
+import relop.Iterator;
+import relop.RuntimeFilter;
+import relop.Sort;
+
+/**
+ * Plan node for sorting the output of a subtree, spilling to disk beyond a
+ * memory budget.
+ */
+class SortNode extends PlanNode {
+
+  /** Subtree to sort. */
+  protected PlanNode input;
+
+  /** Columns to sort on, most significant first. */
+  protected SortKey[] keys;
+
+  /** Memory budget in pages. */
+  protected int memPages;
+
+  /**
+   * Constructs a sort node; the caller fills in the cost.
+   *
+   * @param keys column names to sort on, most significant first
+   */
+  public SortNode(PlanNode input, SortKey[] keys, int memPages) {
+    this.tables = input.getTables();
+    this.schema = input.getSchema();
+    this.cardinality = input.getCardinality();
+    this.width = input.getWidth();
+    this.order = keys;
+    this.keys = keys;
+    this.input = input;
+    this.memPages = memPages;
+  }
+
+  /**
+   * Pushes the runtime filter into the input, where it drops rows before
+   * they're sorted.
+   */
+  public boolean pushRuntimeFilter(RuntimeFilter filter, String column) {
+    return input.pushRuntimeFilter(filter, column);
+  }
+
+  /**
+   * Builds the sort on top of its input, then the projection, if any; the
+   * sort keys needn't be kept in the output.
+   */
+  public Iterator toIterator() {
+    int[] fields = new int[keys.length];
+    boolean[] desc = new boolean[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      fields[i] = input.getSchema().fieldNumber((String) keys[i].field);
+      desc[i] = keys[i].isDesc;
+    }
+    return applyProjection(new Sort(input.toIterator(), fields, desc,
+        memPages));
+  }
+
+} // class SortNode extends PlanNode
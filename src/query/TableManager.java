@@ -1,137 +1,448 @@
 package query;
 
+import global.AttrOperator;
 import global.Minibase;
-import global.Msql;
 import global.SearchKey;
-import heap.HeapFile;
-import index.HashIndex;
-import relop.*;
-import relop.Iterator;
+import relop.Predicate;
+import relop.Schema;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Created by david on 4/14/16.
+ *
+ * Chooses the cheapest access path for each table in the FROM clause: a full
+ * file scan, a hash index lookup on one of the table's constant equalities, an
+ * intersection of index lookups on several of them, a union of index lookups
+ * on an OR of constant equalities, or a B+ tree scan of the range of keys its
+ * comparisons allow. Since a B+ tree scan returns the records in key order,
+ * it's also worth keeping when it isn't the cheapest. An index on several
+ * columns is matched by equalities on a prefix of them: all of them for a
+ * hash index, or any leading ones for a B+ tree, which can also bound the
+ * range of the next column. A B+ tree that stores every column the query
+ * reads from the table is scanned without fetching the records.
  */
 public class TableManager {
-  private final List<TableData> mTables;
-  Stack<TableData> mIteratorStack;
-  private String[] mTableNames;
-
-  public TableManager(String[] tables) {
+  private final String[] mTableNames;
+  private final Schema[] mSchemas;
+  private final PredicateManager mPredicates;
+  private final CardinalityEstimator mEstimator;
+  private final CostModel mCostModel;
+
+  public TableManager(String[] tables, PredicateManager pm,
+      CardinalityEstimator ce, CostModel cm) {
     this.mTableNames = tables;
-    this.mTables = new ArrayList<>();
-    mTables.addAll(getTableDatas());
-    this.mIteratorStack = new Stack<>();
-
-    Collections.sort(this.mTables, new Comparator<TableData>() {
-      @Override
-      public int compare(TableData l, TableData r) {
-        int ltablecost = 1;
-        for (String ltable : l.getNames()) {
-          ltablecost *= Minibase.SystemCatalog.getRecCount(ltable);
-        }
+    this.mPredicates = pm;
+    this.mEstimator = ce;
+    this.mCostModel = cm;
+    this.mSchemas = new Schema[tables.length];
+    for (int i = 0; i < tables.length; i++) {
+      mSchemas[i] = Minibase.SystemCatalog.getSchema(tables[i]);
+    }
+  }
 
-        int rtablecost = 1;
-        for (String rtable : r.getNames()) {
-          rtablecost *= Minibase.SystemCatalog.getRecCount(rtable);
-        }
+  /**
+   * Gets the cheapest way to find the records of a single table that pass the
+   * given clauses, i.e. for the records an UPDATE or DELETE changes.
+   */
+  public static ScanNode getAccessPath(String table, Predicate[][] preds) {
+    String[] tables = { table };
+    PredicateManager pm = new PredicateManager(preds, tables);
+    CardinalityEstimator ce = new CardinalityEstimator(pm, tables);
+    return new TableManager(tables, pm, ce, Optimizer.getCostModel())
+        .getAccessPath(0);
+  }
 
-        return rtablecost - ltablecost ;
-      }
-    });
+  public int getCount() {
+    return mTableNames.length;
+  }
 
-    this.mIteratorStack.addAll(mTables);
+  public String getName(int table) {
+    return mTableNames[table];
+  }
 
+  public Schema getSchema(int table) {
+    return mSchemas[table];
   }
 
-  public Collection<? extends TableData> getTableDatas() {
-    ArrayList<TableData> out = new ArrayList<>();
+  public int getRecCount(int table) {
+    return mEstimator.getRecCount(table);
+  }
 
-    for(String table : this.mTableNames) {
-      Schema tableSchema = Minibase.SystemCatalog.getSchema(table);
-      out.add(new TableData(null, table));
+  /**
+   * Gets a hash index on just the given column of the table, or null if there
+   * is none.
+   */
+  public IndexDesc getIndex(int table, String column) {
+    for (IndexDesc index : Minibase.SystemCatalog.getIndexes(mTableNames[table])) {
+      if (isHashOn(index, column)) {
+        return index;
+      }
     }
-
-    return out;
+    return null;
   }
 
-  public List<TableData> getTables() {
-    return mTables;
+  /**
+   * True if the index is a hash index on just the given column.
+   */
+  private static boolean isHashOn(IndexDesc index, String column) {
+    return !index.isBTree() && index.columnNames.length == 1
+        && index.columnName.equalsIgnoreCase(column);
   }
 
-  public TableData getCandidate(final PredicateManager pm) {
-    for (TableData data : mIteratorStack) {
-
-      //Get tables with index equalities first, as keyscans.
+  /**
+   * Gets the cheapest way to read the given table with all of its local
+   * predicates applied.
+   */
+  public ScanNode getAccessPath(int table) {
+    return getAccessPaths(table, null).get(0);
+  }
 
-      //check the indexes on the table.
-      IndexDesc[] indexes = Minibase.SystemCatalog.getIndexes(data.getNames()[0]);
-      if(indexes == null || indexes.length == 0) { //if no indexes
-        continue; //skip, if there are no indexes, we don't want to use this table yet.
+  /**
+   * Gets the ways worth considering to read the given table with all of its
+   * local predicates applied: the cheapest one first, then any B+ tree scans
+   * that cost more but return the records in key order.
+   *
+   * @param fields the table's fields needed above the scan, or null for all
+   */
+  public List<ScanNode> getAccessPaths(int table, Integer[] fields) {
+    List<Predicate[]> local = mPredicates.getLocalPredicates(table);
+    List<ScanNode> ordered = new ArrayList<>();
+
+    // a full file scan is always possible
+    ScanNode best = fileScan(table, local);
+
+    // try each hash index that can answer one of the constant equalities
+    IndexDesc[] indexes = Minibase.SystemCatalog.getIndexes(mTableNames[table]);
+    List<Predicate[]> indexed = new ArrayList<>();
+    for (Predicate[] clause : mPredicates.getIndexEqualities(table)) {
+      String column = PredicateManager.getEqualityColumn(clause[0]);
+      for (IndexDesc index : indexes) {
+        if (isHashOn(index, column)) {
+          ScanNode candidate = keyScan(table, index, Collections.singletonList(clause), local);
+          if (candidate.getCost() < best.getCost()) {
+            best = candidate;
+          }
+          indexed.add(clause);
+          break;
+        }
       }
+    }
 
-      //get all predicates that qualify for an index.
-      Collection<Predicate[]> predicates = pm.popIndexEqualitiesFor(data);
-      if(predicates == null || predicates.size() == 0) {
-        continue; //we can't use the indexes on the table.
+    // a hash index on several columns needs an equality on each of them
+    for (IndexDesc index : indexes) {
+      if (!index.isBTree() && index.columnNames.length > 1) {
+        List<Predicate[]> equalities = getKeyEqualities(table, index);
+        if (equalities.size() == index.columnNames.length) {
+          ScanNode candidate = keyScan(table, index, equalities, local);
+          if (candidate.getCost() < best.getCost()) {
+            best = candidate;
+          }
+        }
       }
+    }
 
-      //at this point, we have preds and indicies
+    // several of them can be answered together, fetching only the records
+    // that every index finds
+    if (indexed.size() > 1) {
+      ScanNode candidate = keyIntersect(table, indexed, local);
+      if (candidate.getCost() < best.getCost()) {
+        best = candidate;
+      }
+    }
 
-      //check if preds and indicies match
-      IndexDesc validIndex = null;
-      Predicate[] validPredicatePair = null;
+    // an OR of equalities can look up each of them, if all are indexed
+    for (Predicate[] clause : mPredicates.getIndexDisjunctions(table)) {
+      ScanNode candidate = keyUnion(table, clause, local);
+      if (candidate != null && candidate.getCost() < best.getCost()) {
+        best = candidate;
+      }
+    }
 
-      for (Predicate[] predicatePair : predicates) {
-        for (IndexDesc index : indexes) {
-          for (Predicate predicate : predicatePair) {
-            if (index.columnName.equals(predicate.getLeft())) { //if the colname matches
-              validIndex = index;
-              validPredicatePair = predicatePair;
-            }
-          }
+    // each B+ tree can scan the range its column's comparisons allow
+    for (IndexDesc index : indexes) {
+      if (index.isBTree()) {
+        ScanNode candidate = keyRange(table, index, local, fields);
+        if (candidate.getCost() < best.getCost()) {
+          ordered.add(best);
+          best = candidate;
+        } else {
+          ordered.add(candidate);
         }
       }
+    }
 
-      if(validIndex == null || validPredicatePair == null) {
-        continue; //there are no valid pairings of preds to indexes.
+    List<ScanNode> paths = new ArrayList<>();
+    paths.add(best);
+    for (ScanNode path : ordered) {
+      if (path.getOrder().length > 0) {
+        paths.add(path);
       }
+    }
+    return paths;
+
+  } // public List<ScanNode> getAccessPaths(int table, Integer[] fields)
+
+  /**
+   * Builds a file scan of the table, filtered by all of its local clauses.
+   */
+  private ScanNode fileScan(int table, List<Predicate[]> local) {
+    ScanNode node = new ScanNode(table, mTableNames[table], mSchemas[table],
+        local);
+
+    double pages = PlanNode.pagesFor(getRecCount(table), mSchemas[table].getLength());
+    node.cost = mCostModel.scanCost(pages, getRecCount(table))
+        + mCostModel.selectionCost(getRecCount(table)) * local.size();
+    node.cardinality = mEstimator.filter(getRecCount(table), local);
+    return node;
+  }
 
-      //at this point, there is a valid index to use on this table.
+  /**
+   * Gets a constant equality on each of the index's leading key columns, in
+   * key order, up to the first column without one.
+   */
+  private List<Predicate[]> getKeyEqualities(int table, IndexDesc index) {
+    List<Predicate[]> equalities = mPredicates.getIndexEqualities(table);
+    List<Predicate[]> prefix = new ArrayList<>();
+    for (String column : index.columnNames) {
+      Predicate[] found = null;
+      for (Predicate[] clause : equalities) {
+        if (PredicateManager.getEqualityColumn(clause[0]).equalsIgnoreCase(column)) {
+          found = clause;
+          break;
+        }
+      }
+      if (found == null) {
+        break;
+      }
+      prefix.add(found);
+    }
+    return prefix;
+  }
 
-      //create the keyscan.
-      String tableName = data.getNames()[0]; //this only applies to tabledata that hasnt been joined. //TODO: Assert this.
-      Schema tableSchema = Minibase.SystemCatalog.getSchema(tableName);
-      HashIndex hashIndex = new HashIndex(validIndex.indexName);
+  /**
+   * Gets the key to look up for the given equalities, i.e. a single value, or
+   * an array of them for a composite index.
+   */
+  private static Object getKey(IndexDesc index, List<Predicate[]> equalities) {
+    Object[] values = new Object[equalities.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = PredicateManager.getEqualityValue(equalities.get(i)[0]);
+    }
+    return index.isComposite() ? values : values[0];
+  }
 
-      HeapFile heapFile = new HeapFile(tableName);
+  /**
+   * Builds an index lookup on the given equalities, one for each key column,
+   * filtered by the rest of the table's local clauses.
+   */
+  private ScanNode keyScan(int table, IndexDesc index,
+      List<Predicate[]> equalities, List<Predicate[]> local) {
+    List<Predicate[]> filters = new ArrayList<>(local);
+    filters.removeAll(equalities);
+    ScanNode node = new ScanNode(table, mTableNames[table], mSchemas[table],
+        filters);
+    node.setKeys(ScanNode.KEY_SCAN, new IndexDesc[] { index },
+        new Object[] { getKey(index, equalities) });
+
+    double matches = mEstimator.filter(getRecCount(table), equalities);
+    node.cost = mCostModel.probeCost(1, matches)
+        + mCostModel.selectionCost(matches) * filters.size();
+    node.cardinality = mEstimator.filter(matches, filters);
+    return node;
+  }
 
-      KeyScan keyScan = new KeyScan(tableSchema, hashIndex, new SearchKey(validPredicatePair[0].getRight()), heapFile);
+  /**
+   * Builds an intersection of index lookups on the given equalities, filtered
+   * by the rest of the table's local clauses.
+   */
+  private ScanNode keyIntersect(int table, List<Predicate[]> equalities,
+      List<Predicate[]> local) {
+    IndexDesc[] indexes = new IndexDesc[equalities.size()];
+    Object[] keys = new Object[equalities.size()];
+    double scanned = 0;
+    for (int i = 0; i < indexes.length; i++) {
+      Predicate equality = equalities.get(i)[0];
+      indexes[i] = getIndex(table, PredicateManager.getEqualityColumn(equality));
+      keys[i] = PredicateManager.getEqualityValue(equality);
+      scanned += getRecCount(table) * mEstimator.getSelectivity(equalities.get(i));
+    }
+    List<Predicate[]> filters = new ArrayList<>(local);
+    filters.removeAll(equalities);
+    ScanNode node = new ScanNode(table, mTableNames[table], mSchemas[table],
+        filters);
+    node.setKeys(ScanNode.KEY_INTERSECT, indexes, keys);
+
+    // every lookup's record ids are sorted and merged, but only the records
+    // in the intersection are fetched
+    double pages = PlanNode.pagesFor(getRecCount(table), mSchemas[table].getLength());
+    double matches = mEstimator.filter(getRecCount(table), equalities);
+    node.cost = mCostModel.sortedProbeCost(indexes.length, matches, pages)
+        + mCostModel.selectionCost(scanned)
+        + mCostModel.selectionCost(matches) * filters.size();
+    node.cardinality = mEstimator.filter(matches, filters);
+    return node;
+  }
 
-      mIteratorStack.remove(data);
+  /**
+   * Builds a range scan of the given B+ tree index, bounded by the equalities
+   * on its leading columns and the comparisons on the next one, and filtered
+   * by the rest of the table's local clauses.
+   */
+  private ScanNode keyRange(int table, IndexDesc index, List<Predicate[]> local,
+      Integer[] fields) {
+
+    // on a composite index, every bound starts with the equal leading values
+    List<Predicate[]> bounds = !index.isComposite()
+        ? new ArrayList<Predicate[]>() : getKeyEqualities(table, index);
+    List<Predicate[]> prefix = new ArrayList<>(bounds);
+    if (prefix.size() == index.columnNames.length) {
+      Object key = getKey(index, prefix);
+      return rangeScan(table, index, key, true, key, true, bounds, local,
+          fields);
+    }
 
-      return new TableData(keyScan, tableName); //return a new tabledata with the keyscan and name of the table.
+    // keep the tightest bound on each side; the other comparisons follow
+    String column = index.columnNames[prefix.size()];
+    Object low = null;
+    Object high = null;
+    boolean lowInclusive = true;
+    boolean highInclusive = true;
+    for (Predicate[] clause : mPredicates.getIndexComparisons(table)) {
+      if (!PredicateManager.getEqualityColumn(clause[0])
+          .equalsIgnoreCase(column)) {
+        continue;
+      }
+      int oper = PredicateManager.getComparisonOperator(clause[0]);
+      Object value = PredicateManager.getEqualityValue(clause[0]);
+      boolean inclusive = oper == AttrOperator.EQ || oper == AttrOperator.GTE
+          || oper == AttrOperator.LTE;
+      if (oper != AttrOperator.LT && oper != AttrOperator.LTE) {
+        int cmp = low == null ? 1 : compare(value, low);
+        if (cmp > 0 || (cmp == 0 && !inclusive)) {
+          low = value;
+          lowInclusive = inclusive;
+        }
+      }
+      if (oper != AttrOperator.GT && oper != AttrOperator.GTE) {
+        int cmp = high == null ? -1 : compare(value, high);
+        if (cmp < 0 || (cmp == 0 && !inclusive)) {
+          high = value;
+          highInclusive = inclusive;
+        }
+      }
+      bounds.add(clause);
     }
+    if (!index.isComposite()) {
+      return rangeScan(table, index, low, lowInclusive, high, highInclusive,
+          bounds, local, fields);
+    }
+
+    // a missing bound on the column leaves just the prefix, if any
+    return rangeScan(table, index, getBound(prefix, low),
+        low == null || lowInclusive, getBound(prefix, high),
+        high == null || highInclusive, bounds, local, fields);
 
+  } // private ScanNode keyRange(int table, IndexDesc index, ...)
 
-    //if the loop completes without finding a indexable table, simply pop the stack.
-    TableData pop = mIteratorStack.pop();
+  /**
+   * Gets a bound of a composite index's range: the values of the equalities,
+   * then the given value, if any.
+   */
+  private static Object getBound(List<Predicate[]> prefix, Object value) {
+    if (prefix.isEmpty() && value == null) {
+      return null;
+    }
+    List<Object> values = new ArrayList<>();
+    for (Predicate[] equality : prefix) {
+      values.add(PredicateManager.getEqualityValue(equality[0]));
+    }
+    if (value != null) {
+      values.add(value);
+    }
+    return values.toArray();
+  }
 
-    if(pop.getIterator() == null) { //if the tabledata has not been initialized. (ie: first run).
-      //create the filescan.
-      String tableName = pop.getNames()[0]; //this only applies to tabledata that hasnt been joined. //TODO: Assert this.
-      Schema tableSchema = Minibase.SystemCatalog.getSchema(tableName);
-      HeapFile heapFile = new HeapFile(tableName);
+  /**
+   * Builds a scan of the given range of a B+ tree index, given the clauses
+   * that bound it, filtered by the rest of the table's local clauses.
+   */
+  private ScanNode rangeScan(int table, IndexDesc index, Object low,
+      boolean lowInclusive, Object high, boolean highInclusive,
+      List<Predicate[]> bounds, List<Predicate[]> local, Integer[] fields) {
+    List<Predicate[]> filters = new ArrayList<>(local);
+    filters.removeAll(bounds);
+    ScanNode node = new ScanNode(table, mTableNames[table], mSchemas[table],
+        filters);
+    node.setRange(index, low, lowInclusive, high, highInclusive);
+
+    // the columns read from each record: those needed above the scan, and
+    // those the filters check
+    Schema schema = mSchemas[table];
+    Set<String> read = new HashSet<>();
+    for (int i = 0; i < schema.getCount(); i++) {
+      if (fields == null || Arrays.asList(fields).contains(i)) {
+        read.add(schema.fieldName(i).toLowerCase());
+      }
+    }
+    for (Predicate[] clause : filters) {
+      PredicateManager.addColumns(clause, read);
+    }
 
-      //We want to return a filescan of the table.
-      pop = new TableData(new FileScan(tableSchema, heapFile), tableName);
+    double keyLength = IndexDesc.getKeyLength(schema, index.getStoredColumns());
+    double matches = mEstimator.filter(getRecCount(table), bounds);
+    if (index.covers(read)) {
+      node.setIndexOnly();
+      node.cost = mCostModel.indexOnlyScanCost(getRecCount(table), keyLength,
+          matches);
+    } else {
+      node.cost = mCostModel.rangeScanCost(getRecCount(table), keyLength,
+          matches);
     }
-    return pop;
+    node.cost += mCostModel.selectionCost(matches) * filters.size();
+    node.cardinality = mEstimator.filter(matches, filters);
+    return node;
+  }
 
+  /**
+   * Compares two constants of the same type, as an index would.
+   */
+  private static int compare(Object value1, Object value2) {
+    return new SearchKey(value1).compareTo(new SearchKey(value2));
   }
 
-  public boolean hasNext() {
-    return mIteratorStack.size() > 0;
+  /**
+   * Builds a union of index lookups on the given OR of equalities, filtered by
+   * the rest of the table's local clauses, or returns null if any of the
+   * equalities has no index.
+   */
+  private ScanNode keyUnion(int table, Predicate[] disjunction,
+      List<Predicate[]> local) {
+    IndexDesc[] indexes = new IndexDesc[disjunction.length];
+    Object[] keys = new Object[disjunction.length];
+    for (int i = 0; i < disjunction.length; i++) {
+      indexes[i] = getIndex(table, PredicateManager.getEqualityColumn(disjunction[i]));
+      if (indexes[i] == null) {
+        return null;
+      }
+      keys[i] = PredicateManager.getEqualityValue(disjunction[i]);
+    }
+    List<Predicate[]> filters = new ArrayList<>(local);
+    filters.remove(disjunction);
+    ScanNode node = new ScanNode(table, mTableNames[table], mSchemas[table],
+        filters);
+    node.setKeys(ScanNode.KEY_UNION, indexes, keys);
+
+    double pages = PlanNode.pagesFor(getRecCount(table), mSchemas[table].getLength());
+    double matches = getRecCount(table) * mEstimator.getSelectivity(disjunction);
+    node.cost = mCostModel.sortedProbeCost(disjunction.length, matches, pages)
+        + mCostModel.selectionCost(matches) * filters.size();
+    node.cardinality = mEstimator.filter(matches, filters);
+    return node;
   }
 }
@@ -3,16 +3,20 @@ package query;
 import parser.AST_Update;
 
 import global.Minibase;
-import global.SearchKey;
-import index.HashIndex;
+import global.RID;
 import heap.HeapFile;
 import relop.Tuple;
 import relop.FileScan;
 import relop.Predicate;
+import relop.PredicateCompiler;
+import relop.RidSetScan;
 import relop.Schema;
+import relop.TupleFilter;
 
 /**
- * Execution plan for updating tuples.
+ * Execution plan for updating tuples. The records are found the same way a
+ * query would read them: by index lookups or a range scan when the predicates
+ * allow, otherwise with a full file scan.
  */
 class Update implements Plan {
 
@@ -22,6 +26,7 @@ class Update implements Plan {
   private Object[] values;
   private int[] fieldnos;
   private Schema schema;
+  private ScanNode access;
 
   /**
    * Optimizes the plan, given the parsed query.
@@ -46,6 +51,7 @@ class Update implements Plan {
 
     QueryCheck.updateFields(schema, cols);
     QueryCheck.updateValues(schema, fieldnos, values);
+    access = TableManager.getAccessPath(fileName, predicates);
   } // public Update(AST_Update tree) throws QueryException
 
   /**
@@ -53,47 +59,63 @@ class Update implements Plan {
    */
   public void execute() {
     HeapFile file = new HeapFile(fileName);
-    FileScan scan = new FileScan(schema, file);
+    TupleFilter filter = PredicateCompiler.compile(schema, predicates);
+    IndexDesc[] indexes = Minibase.SystemCatalog.getIndexes(fileName, schema,
+        fieldnos);
 
     int rowCount = 0;
-    while (scan.hasNext()) {
-      Tuple t = scan.getNext();
-      Tuple updatedTup = new Tuple(schema, t.getData().clone());
-
-      // first find the tuple to update
-      boolean andPasses = true;
-      boolean orPasses = false;
-      for (Predicate[] andClause : predicates) {
-        for (Predicate pred : andClause) {
-          orPasses = orPasses || pred.evaluate(t);
+    if (access.method == ScanNode.FILE_SCAN) {
+      FileScan scan = new FileScan(schema, file);
+      while (scan.hasNext()) {
+        Tuple t = scan.getNext();
+
+        // if the tuple passes the predicates update it
+        if (filter.matches(t.getData())) {
+          updateRecord(file, indexes, scan.getLastRID(), t);
+          rowCount++;
         }
-
-        andPasses = andPasses && orPasses;
-        orPasses = false;
       }
-
-      // if the tuple passes the predicates update it
-      if (andPasses) {
-        // for each of the columns update the field
-        for (int i = 0; i < cols.length; i++) {
-          updatedTup.setField(cols[i], values[i]);
+      scan.close();
+    } else {
+
+      // find every candidate before updating any, so that a changed key
+      // can't bring a record back into the index range
+      for (long rid : access.getRids()) {
+        RID lastRID = RidSetScan.toRID(rid);
+        Tuple t = new Tuple(schema, file.selectRecord(lastRID));
+
+        if (filter.matches(t.getData())) {
+          updateRecord(file, indexes, lastRID, t);
+          rowCount++;
         }
-
-        file.updateRecord(scan.getLastRID(), updatedTup.getData());
-
-        for (IndexDesc desc : Minibase.SystemCatalog.getIndexes(fileName, schema, fieldnos)) {
-          HashIndex index = new HashIndex(desc.indexName);
-          index.deleteEntry(new SearchKey(t.getField(desc.columnName)), scan.getLastRID());
-          index.insertEntry(new SearchKey(updatedTup.getField(desc.columnName)), scan.getLastRID());
-        }
-        rowCount++;
       }
     }
 
-    scan.close();
+    Minibase.SystemCatalog.touchTable(fileName);
     // print the output message
     System.out.println(rowCount + " rows updated.");
 
   } // public void execute()
 
+  /**
+   * Updates the given record, and its entries in the indexes on the updated
+   * columns.
+   */
+  private void updateRecord(HeapFile file, IndexDesc[] indexes, RID rid,
+      Tuple t) {
+    Tuple updatedTup = new Tuple(schema, t.getData().clone());
+
+    // for each of the columns update the field
+    for (int i = 0; i < cols.length; i++) {
+      updatedTup.setField(cols[i], values[i]);
+    }
+
+    file.updateRecord(rid, updatedTup.getData());
+
+    for (IndexDesc desc : indexes) {
+      desc.deleteEntry(desc.getKey(t), rid);
+      desc.insertEntry(desc.getKey(updatedTup), rid);
+    }
+  }
+
 } // class Update implements Plan
@@ -0,0 +1,170 @@
+package relop;
+
+import java.util.Arrays;
+
+/**
+ * Selection on a conjunction of clauses, each a disjunction of predicates. The
+ * clauses are compiled once for the input's schema (see PredicateCompiler), so
+ * unlike Selection, no field is looked up by name or boxed per tuple. Runtime
+ * filters from hash joins above can be added too; they're checked first.
+ */
+public class Filter extends Iterator {
+
+  /** Tuples to filter. */
+  protected Iterator input;
+
+  /** Clauses that every output tuple passes. */
+  protected Predicate[][] clauses;
+
+  /** Compiled form of the clauses. */
+  protected TupleFilter filter;
+
+  /** Runtime filters on the input's join columns. */
+  protected RuntimeFilter[] runtime = new RuntimeFilter[0];
+
+  /** The join column checked by each runtime filter. */
+  protected int[] runtimeFields = new int[0];
+
+  /** Compiled form of the runtime filters. */
+  protected TupleFilter[] runtimeFilters = new TupleFilter[0];
+
+  /** Next tuple to return, if already found. */
+  protected Tuple next;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a selection of the input tuples that pass all of the clauses.
+   */
+  public Filter(Iterator input, Predicate[]... clauses) {
+    setSchema(input.getSchema());
+    this.input = input;
+    this.clauses = clauses;
+    this.filter = PredicateCompiler.compile(input.getSchema(), clauses);
+  }
+
+  /**
+   * Also drops the tuples whose given field can't match the build input of
+   * the runtime filter's hash join.
+   */
+  public void addRuntimeFilter(RuntimeFilter rf, int fldno) {
+    int count = runtime.length;
+    runtime = Arrays.copyOf(runtime, count + 1);
+    runtimeFields = Arrays.copyOf(runtimeFields, count + 1);
+    runtimeFilters = Arrays.copyOf(runtimeFilters, count + 1);
+    runtime[count] = rf;
+    runtimeFields[count] = fldno;
+    runtimeFilters[count] = rf.forProbe(getSchema(), fldno);
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    indent(depth);
+    StringBuilder str = new StringBuilder("Filter : " + toString(clauses));
+    for (int i = 0; i < runtime.length; i++) {
+      if (i > 0 || clauses.length > 0) {
+        str.append(" AND ");
+      }
+      str.append(getSchema().fieldName(runtimeFields[i])).append(" IN BLOOM(")
+          .append(runtime[i].getName()).append(')');
+    }
+    System.out.println(str);
+    input.explain(depth + 1);
+  }
+
+  /**
+   * Describes a conjunction of clauses, parenthesizing each disjunction.
+   */
+  public static String toString(Predicate[][] clauses) {
+    StringBuilder str = new StringBuilder();
+    for (int i = 0; i < clauses.length; i++) {
+      if (i > 0) {
+        str.append(" AND ");
+      }
+      if (clauses.length > 1 && clauses[i].length > 1) {
+        str.append('(');
+      }
+      for (int j = 0; j < clauses[i].length; j++) {
+        if (j > 0) {
+          str.append(" OR ");
+        }
+        str.append(clauses[i][j]);
+      }
+      if (clauses.length > 1 && clauses[i].length > 1) {
+        str.append(')');
+      }
+    }
+    return str.toString();
+  }
+
+  /**
+   * Restarts the iterator, i.e. as if it were just constructed.
+   */
+  public void restart() {
+    input.restart();
+    next = null;
+  }
+
+  /**
+   * Returns true if the iterator is open; false otherwise.
+   */
+  public boolean isOpen() {
+    return input != null;
+  }
+
+  /**
+   * Closes the iterator, releasing any resources (i.e. pinned pages).
+   */
+  public void close() {
+    if (input != null) {
+      input.close();
+      input = null;
+    }
+  }
+
+  /**
+   * Returns true if there are more tuples, false otherwise.
+   */
+  public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+    while (input.hasNext()) {
+      Tuple tuple = input.getNext();
+      if (passesRuntime(tuple.getData()) && filter.matches(tuple.getData())) {
+        next = tuple;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * True if the tuple with the given data passes every runtime filter.
+   */
+  protected boolean passesRuntime(byte[] data) {
+    for (TupleFilter rf : runtimeFilters) {
+      if (!rf.matches(data)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the next tuple in the iteration.
+   *
+   * @throws IllegalStateException if no more tuples
+   */
+  public Tuple getNext() {
+    if (!hasNext()) {
+      throw new IllegalStateException("no more tuples");
+    }
+    Tuple tuple = next;
+    next = null;
+    return tuple;
+  }
+
+} // public class Filter extends Iterator
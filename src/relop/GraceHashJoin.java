@@ -0,0 +1,507 @@
+package relop;
+
+import global.GlobalConst;
+
+import java.util.LinkedList;
+
+/**
+ * Hybrid hash join that never holds more than a fixed memory budget of build
+ * tuples. The right (build) input is read into memory until the budget is
+ * exceeded; from then on both inputs are hashed into partitions that are
+ * written to scratch heap files, except for the first partition, which stays
+ * in memory for as long as it fits. Partition pairs are then joined one at a
+ * time; a build partition that still doesn't fit is re-partitioned with a
+ * different hash function, and past the maximum depth (i.e. a single heavily
+ * skewed key) it is joined in memory-sized chunks, rescanning its probe
+ * partition once per chunk.
+ */
+public class GraceHashJoin extends Iterator implements GlobalConst {
+
+  /** Deepest level of re-partitioning before falling back to chunks. */
+  public static final int MAX_DEPTH = 3;
+
+  /** Largest number of partitions created from a single input. */
+  public static final int MAX_FANOUT = 32;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * A pair of matching build and probe partitions spilled to disk.
+   */
+  protected static class Partition {
+
+    /** Partitioning level that created this partition. */
+    public int level;
+
+    /** Spilled build tuples, or null if none. */
+    public TempHeapFile build;
+
+    /** Spilled probe tuples, or null if none. */
+    public TempHeapFile probe;
+
+    /** True if this is the first partition of the first level and its build
+     * tuples are still in memory. */
+    public boolean resident;
+
+    public Partition(int level) {
+      this.level = level;
+    }
+
+    public void addBuild(Tuple tuple) {
+      if (build == null) {
+        build = new TempHeapFile();
+      }
+      tuple.insertIntoFile(build);
+    }
+
+    public void addProbe(Tuple tuple) {
+      if (probe == null) {
+        probe = new TempHeapFile();
+      }
+      tuple.insertIntoFile(probe);
+    }
+
+    /** True if joining this partition can produce any tuples. */
+    public boolean isJoinable() {
+      return build != null && probe != null;
+    }
+
+    public void delete() {
+      if (build != null) {
+        build.deleteFile();
+        build = null;
+      }
+      if (probe != null) {
+        probe.deleteFile();
+        probe = null;
+      }
+    }
+
+  } // protected static class Partition
+
+  // --------------------------------------------------------------------------
+
+  /** Probe input. */
+  protected Iterator left;
+
+  /** Build input. */
+  protected Iterator right;
+
+  /** Join column of the probe input. */
+  protected int lcol;
+
+  /** Join column of the build input. */
+  protected int rcol;
+
+  /** Key field of the probe input. */
+  protected KeyField lkey;
+
+  /** Key field of the build input. */
+  protected KeyField rkey;
+
+  /** Memory budget for build tuples, in pages. */
+  protected int memPages;
+
+  /** Memory budget for build tuples, in bytes. */
+  protected long budget;
+
+  /** Number of partitions created from each input. */
+  protected int fanout;
+
+  /** Build tuples currently in memory. */
+  protected TupleHashTable table;
+
+  /** First-level partitions while the probe input is read, or null. */
+  protected Partition[] routing;
+
+  /** Spilled partitions still to be joined. */
+  protected LinkedList<Partition> pending;
+
+  /** Spilled partition being joined, or null during the first pass. */
+  protected Partition current;
+
+  /** Remaining build tuples of the current partition, if chunked. */
+  protected FileScan build;
+
+  /** Source of the tuples probing the hash table. */
+  protected Iterator probe;
+
+  /** True once the build input has been read. */
+  protected boolean started;
+
+  /** Current probe tuple. */
+  protected Tuple outer;
+
+  /** Next candidate entry for the current probe tuple. */
+  protected int entry;
+
+  /** Next tuple to return, if already found. */
+  protected Tuple next;
+
+  /** Filter to fill with the build keys, or null if none. */
+  protected RuntimeFilter runtime;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a hash join of left.lcol = right.rcol that holds at most the
+   * given number of pages of build tuples in memory.
+   */
+  public GraceHashJoin(Iterator left, Iterator right, int lcol, int rcol,
+      int memPages) {
+    setSchema(Schema.join(left.getSchema(), right.getSchema()));
+    this.left = left;
+    this.right = right;
+    this.lcol = lcol;
+    this.rcol = rcol;
+    this.lkey = new KeyField(left.getSchema(), lcol);
+    this.rkey = new KeyField(right.getSchema(), rcol);
+    this.memPages = Math.max(1, memPages);
+    this.budget = (long) this.memPages * PAGE_SIZE;
+    this.fanout = Math.max(2, Math.min(MAX_FANOUT, this.memPages - 1));
+    this.pending = new LinkedList<Partition>();
+    this.entry = TupleHashTable.END;
+  }
+
+  /**
+   * Sets a runtime filter to fill with the build keys, for the probe input to
+   * drop tuples that can't match.
+   */
+  public void setRuntimeFilter(RuntimeFilter runtime) {
+    this.runtime = runtime;
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    indent(depth);
+    System.out.println("GraceHashJoin : " + left.getSchema().fieldName(lcol)
+        + " = " + right.getSchema().fieldName(rcol) + " (" + memPages
+        + " pages)");
+    left.explain(depth + 1);
+    right.explain(depth + 1);
+  }
+
+  /**
+   * Restarts the iterator, i.e. as if it were just constructed.
+   */
+  public void restart() {
+    cleanup();
+    left.restart();
+    right.restart();
+    started = false;
+  }
+
+  /**
+   * Returns true if the iterator is open; false otherwise.
+   */
+  public boolean isOpen() {
+    return left != null;
+  }
+
+  /**
+   * Closes the iterator, releasing any resources (i.e. pinned pages and
+   * scratch files).
+   */
+  public void close() {
+    if (left != null) {
+      cleanup();
+      left.close();
+      right.close();
+      left = null;
+      right = null;
+    }
+  }
+
+  /**
+   * Returns true if there are more tuples, false otherwise.
+   */
+  public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+    if (!started) {
+      start();
+      started = true;
+    }
+
+    while (true) {
+
+      // return the next match of the current probe tuple
+      if (entry != TupleHashTable.END) {
+        next = HashJoin.concat(outer, table.get(entry), getSchema());
+        entry = table.next(entry, lkey, outer.getData());
+        return true;
+      }
+
+      // otherwise find the next probe tuple that has a match
+      if (probe != null && probe.hasNext()) {
+        Tuple tuple = probe.getNext();
+        if (routing != null) {
+          Partition part = routing[partition(lkey.hash(tuple.getData()), 0)];
+          if (!part.resident) {
+            part.addProbe(tuple);
+            continue;
+          }
+        }
+        outer = tuple;
+        entry = table.first(lkey, tuple.getData());
+        continue;
+      }
+
+      // or move on to the next chunk or partition
+      if (!nextPass()) {
+        return false;
+      }
+    }
+
+  } // public boolean hasNext()
+
+  /**
+   * Gets the next tuple in the iteration.
+   *
+   * @throws IllegalStateException if no more tuples
+   */
+  public Tuple getNext() {
+    if (!hasNext()) {
+      throw new IllegalStateException("no more tuples");
+    }
+    Tuple tuple = next;
+    next = null;
+    return tuple;
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Reads the build input, partitioning it once it no longer fits in memory,
+   * and then starts probing with the left input.
+   */
+  protected void start() {
+    table = new TupleHashTable(rkey);
+    if (runtime != null) {
+      runtime.clear(rkey);
+    }
+    while (right.hasNext()) {
+      Tuple tuple = right.getNext();
+      if (runtime != null) {
+        runtime.add(tuple.getData());
+      }
+      if (routing == null) {
+        table.add(tuple);
+        if (table.getBytes() > budget) {
+          startPartitioning();
+        }
+      } else {
+        Partition part = routing[partition(rkey.hash(tuple.getData()), 0)];
+        if (part.resident) {
+          table.add(tuple);
+          if (table.getBytes() > budget) {
+            spillResident();
+          }
+        } else {
+          part.addBuild(tuple);
+        }
+      }
+    }
+    if (runtime != null) {
+      runtime.finish();
+    }
+    probe = left;
+  }
+
+  /**
+   * Splits the in-memory build tuples into first-level partitions, keeping the
+   * first partition in memory.
+   */
+  protected void startPartitioning() {
+    routing = new Partition[fanout];
+    for (int i = 0; i < fanout; i++) {
+      routing[i] = new Partition(0);
+    }
+    routing[0].resident = true;
+
+    TupleHashTable old = table;
+    table = new TupleHashTable(rkey);
+    for (int i = 0; i < old.size(); i++) {
+      Tuple tuple = old.get(i);
+      Partition part = routing[partition(rkey.hash(tuple.getData()), 0)];
+      if (part.resident) {
+        table.add(tuple);
+      } else {
+        part.addBuild(tuple);
+      }
+    }
+    if (table.getBytes() > budget) {
+      spillResident();
+    }
+  }
+
+  /**
+   * Writes the in-memory first partition to disk, like all the others.
+   */
+  protected void spillResident() {
+    Partition part = routing[0];
+    for (int i = 0; i < table.size(); i++) {
+      part.addBuild(table.get(i));
+    }
+    part.resident = false;
+    table.clear();
+  }
+
+  /**
+   * Finishes the current pass and sets up the next one.
+   *
+   * @return false if there is nothing left to join
+   */
+  protected boolean nextPass() {
+
+    // the first pass is over: queue its spilled partitions, and let go of
+    // the probe input, which only the join itself may close
+    if (routing != null) {
+      for (Partition part : routing) {
+        if (part.isJoinable()) {
+          pending.add(part);
+        } else {
+          part.delete();
+        }
+      }
+      routing = null;
+      probe = null;
+    }
+
+    // a chunked partition continues with its next chunk of build tuples
+    if (build != null && build.hasNext()) {
+      loadChunk();
+      probe.restart();
+      return true;
+    }
+    finishPartition();
+
+    while (!pending.isEmpty()) {
+      current = pending.removeFirst();
+      build = new FileScan(right.getSchema(), current.build);
+      loadChunk();
+
+      // a build partition that doesn't fit is split further, unless the keys
+      // can't be told apart any more
+      if (build.hasNext() && current.level < MAX_DEPTH) {
+        repartition();
+        continue;
+      }
+
+      probe = new FileScan(left.getSchema(), current.probe);
+      return true;
+    }
+    probe = null;
+    return false;
+
+  } // protected boolean nextPass()
+
+  /**
+   * Loads build tuples of the current partition until the budget is reached.
+   */
+  protected void loadChunk() {
+    table.clear();
+    while (table.getBytes() < budget && build.hasNext()) {
+      table.add(build.getNext());
+    }
+  }
+
+  /**
+   * Splits the current partition into partitions of the next level, which are
+   * joined before any other pending partition.
+   */
+  protected void repartition() {
+    int level = current.level + 1;
+    Partition[] parts = new Partition[fanout];
+    for (int i = 0; i < fanout; i++) {
+      parts[i] = new Partition(level);
+    }
+
+    // the build tuples already in memory, then the rest of the build file
+    for (int i = 0; i < table.size(); i++) {
+      Tuple tuple = table.get(i);
+      parts[partition(rkey.hash(tuple.getData()), level)].addBuild(tuple);
+    }
+    table.clear();
+    while (build.hasNext()) {
+      Tuple tuple = build.getNext();
+      parts[partition(rkey.hash(tuple.getData()), level)].addBuild(tuple);
+    }
+
+    // then all of the probe tuples
+    FileScan scan = new FileScan(left.getSchema(), current.probe);
+    while (scan.hasNext()) {
+      Tuple tuple = scan.getNext();
+      parts[partition(lkey.hash(tuple.getData()), level)].addProbe(tuple);
+    }
+    scan.close();
+    finishPartition();
+
+    for (int i = fanout - 1; i >= 0; i--) {
+      if (parts[i].isJoinable()) {
+        pending.addFirst(parts[i]);
+      } else {
+        parts[i].delete();
+      }
+    }
+
+  } // protected void repartition()
+
+  /**
+   * Closes the scans of the current partition and deletes its files.
+   */
+  protected void finishPartition() {
+    if (build != null) {
+      build.close();
+      build = null;
+    }
+    if (current != null) {
+      if (probe != null) {
+        probe.close();
+        probe = null;
+      }
+      current.delete();
+      current = null;
+    }
+  }
+
+  /**
+   * Releases all in-memory tuples and scratch files.
+   */
+  protected void cleanup() {
+    if (routing != null) {
+      for (Partition part : routing) {
+        part.delete();
+      }
+      routing = null;
+    }
+    finishPartition();
+    for (Partition part : pending) {
+      part.delete();
+    }
+    pending.clear();
+    table = null;
+    probe = null;
+    outer = null;
+    next = null;
+    entry = TupleHashTable.END;
+  }
+
+  /**
+   * Maps a key's hash code to a partition, using different bits of a
+   * differently mixed hash at each level (and never the low bits the hash
+   * table uses for its buckets).
+   */
+  protected int partition(int hash, int level) {
+    int h = hash ^ (0x9e3779b9 * (level + 1));
+    h *= 0xcc9e2d51;
+    h ^= (h >>> 15);
+    h *= 0x1b873593;
+    h ^= (h >>> 16);
+    return ((h >>> 8) & 0x7fffff) % fanout;
+  }
+
+} // public class GraceHashJoin extends Iterator implements GlobalConst
@@ -0,0 +1,267 @@
+package relop;
+
+import global.GlobalConst;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+
+/**
+ * Streaming duplicate elimination. Each input tuple is returned as soon as it
+ * is first seen, for as long as the set of tuples seen so far fits in a fixed
+ * memory budget. From then on, tuples not already in the set are hashed into
+ * partitions written to scratch heap files; once the input is exhausted, each
+ * partition is deduplicated the same way, with a fresh set. Duplicates always
+ * land in the same partition, so no partition can be larger than its share of
+ * the distinct tuples. Tuples are compared byte for byte.
+ */
+public class HashDistinct extends Iterator implements GlobalConst {
+
+  /** Largest number of partitions created in a single pass. */
+  public static final int MAX_FANOUT = 32;
+
+  /** Estimated bytes of overhead per tuple in the in-memory set. */
+  protected static final int ENTRY_OVERHEAD = 48;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * A spilled partition still to be deduplicated.
+   */
+  protected static class Partition {
+
+    /** Number of partitioning passes that created this partition. */
+    public int level;
+
+    /** Spilled tuples. */
+    public TempHeapFile file;
+
+    public Partition(int level, TempHeapFile file) {
+      this.level = level;
+      this.file = file;
+    }
+
+  } // protected static class Partition
+
+  // --------------------------------------------------------------------------
+
+  /** Tuples to deduplicate. */
+  protected Iterator input;
+
+  /** Memory budget for the set of seen tuples, in pages. */
+  protected int memPages;
+
+  /** Memory budget for the set of seen tuples, in bytes. */
+  protected long budget;
+
+  /** Number of partitions created in each pass. */
+  protected int fanout;
+
+  /** Tuples seen (and returned) in the current pass. */
+  protected HashSet<ByteBuffer> seen;
+
+  /** Estimated size of the set of seen tuples, in bytes. */
+  protected long bytes;
+
+  /** Partitions of the current pass once the set is full, or null. */
+  protected TempHeapFile[] routing;
+
+  /** Spilled partitions still to be read. */
+  protected LinkedList<Partition> pending;
+
+  /** Partition being read, or null while reading the input. */
+  protected Partition current;
+
+  /** Source of the current pass: the input, or a scan of a partition. */
+  protected Iterator source;
+
+  /** Next tuple to return, if already found. */
+  protected Tuple next;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a duplicate elimination holding at most the given number of
+   * pages of distinct tuples in memory.
+   */
+  public HashDistinct(Iterator input, int memPages) {
+    setSchema(input.getSchema());
+    this.input = input;
+    this.memPages = Math.max(1, memPages);
+    this.budget = (long) this.memPages * PAGE_SIZE;
+    this.fanout = Math.max(2, Math.min(MAX_FANOUT, this.memPages - 1));
+    this.seen = new HashSet<ByteBuffer>();
+    this.pending = new LinkedList<Partition>();
+    this.source = input;
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    indent(depth);
+    System.out.println("HashDistinct : (" + memPages + " pages)");
+    input.explain(depth + 1);
+  }
+
+  /**
+   * Restarts the iterator, i.e. as if it were just constructed.
+   */
+  public void restart() {
+    cleanup();
+    input.restart();
+    source = input;
+  }
+
+  /**
+   * Returns true if the iterator is open; false otherwise.
+   */
+  public boolean isOpen() {
+    return input != null;
+  }
+
+  /**
+   * Closes the iterator, releasing any resources (i.e. pinned pages and
+   * scratch files).
+   */
+  public void close() {
+    if (input != null) {
+      cleanup();
+      input.close();
+      input = null;
+      source = null;
+    }
+  }
+
+  /**
+   * Returns true if there are more tuples, false otherwise.
+   */
+  public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+    while (true) {
+      if (source.hasNext()) {
+        Tuple tuple = source.getNext();
+        byte[] data = tuple.getData();
+        ByteBuffer key = ByteBuffer.wrap(data);
+        if (seen.contains(key)) {
+          continue;
+        }
+
+        // once the set is full, unseen tuples wait for a later pass
+        if (routing != null) {
+          int level = (current == null) ? 0 : current.level;
+          int part = partition(Arrays.hashCode(data), level);
+          if (routing[part] == null) {
+            routing[part] = new TempHeapFile();
+          }
+          tuple.insertIntoFile(routing[part]);
+          continue;
+        }
+
+        seen.add(key);
+        bytes += data.length + ENTRY_OVERHEAD;
+        if (bytes > budget && getSchema().getLength() <= MAX_TUPSIZE) {
+          routing = new TempHeapFile[fanout];
+        }
+        next = tuple;
+        return true;
+      }
+      if (!nextPass()) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Gets the next tuple in the iteration.
+   *
+   * @throws IllegalStateException if no more tuples
+   */
+  public Tuple getNext() {
+    if (!hasNext()) {
+      throw new IllegalStateException("no more tuples");
+    }
+    Tuple tuple = next;
+    next = null;
+    return tuple;
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Finishes the current pass and starts reading the next partition.
+   *
+   * @return false if there are no partitions left
+   */
+  protected boolean nextPass() {
+    int level = (current == null) ? 0 : current.level;
+    if (routing != null) {
+      for (int i = fanout - 1; i >= 0; i--) {
+        if (routing[i] != null) {
+          pending.addFirst(new Partition(level + 1, routing[i]));
+        }
+      }
+      routing = null;
+    }
+    finishPartition();
+    seen.clear();
+    bytes = 0;
+
+    if (pending.isEmpty()) {
+      return false;
+    }
+    current = pending.removeFirst();
+    source = new FileScan(getSchema(), current.file);
+    return true;
+  }
+
+  /**
+   * Closes the scan of the current partition and deletes its file.
+   */
+  protected void finishPartition() {
+    if (current != null) {
+      source.close();
+      current.file.deleteFile();
+      current = null;
+    }
+  }
+
+  /**
+   * Releases all in-memory tuples and scratch files.
+   */
+  protected void cleanup() {
+    if (routing != null) {
+      for (TempHeapFile file : routing) {
+        if (file != null) {
+          file.deleteFile();
+        }
+      }
+      routing = null;
+    }
+    finishPartition();
+    for (Partition part : pending) {
+      part.file.deleteFile();
+    }
+    pending.clear();
+    seen.clear();
+    bytes = 0;
+    next = null;
+  }
+
+  /**
+   * Maps a tuple's hash code to a partition, mixing it differently at each
+   * level so that a partition splits up when it is partitioned again.
+   */
+  protected int partition(int hash, int level) {
+    int h = hash ^ (0x9e3779b9 * (level + 1));
+    h *= 0xcc9e2d51;
+    h ^= (h >>> 15);
+    h *= 0x1b873593;
+    h ^= (h >>> 16);
+    return (h & 0x7fffffff) % fanout;
+  }
+
+} // public class HashDistinct extends Iterator implements GlobalConst
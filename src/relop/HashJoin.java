@@ -0,0 +1,182 @@
+package relop;
+
+/**
+ * In-memory hash join on an equality between a column of each input. The
+ * right (build) input is read once into a hash table keyed on its join column;
+ * each left (probe) tuple then looks up its matches directly, so neither input
+ * is ever rescanned. The planner should make the smaller input the right one.
+ */
+public class HashJoin extends Iterator {
+
+  /** Probe input. */
+  protected Iterator left;
+
+  /** Build input. */
+  protected Iterator right;
+
+  /** Join column of the probe input. */
+  protected int lcol;
+
+  /** Join column of the build input. */
+  protected int rcol;
+
+  /** Key field of the probe input. */
+  protected KeyField lkey;
+
+  /** Hash table over the build input, or null if not built yet. */
+  protected TupleHashTable table;
+
+  /** Current probe tuple. */
+  protected Tuple outer;
+
+  /** Next candidate entry for the current probe tuple. */
+  protected int entry;
+
+  /** Next tuple to return, if already found. */
+  protected Tuple next;
+
+  /** Filter to fill with the build keys, or null if none. */
+  protected RuntimeFilter runtime;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a hash join of left.lcol = right.rcol.
+   */
+  public HashJoin(Iterator left, Iterator right, int lcol, int rcol) {
+    setSchema(Schema.join(left.getSchema(), right.getSchema()));
+    this.left = left;
+    this.right = right;
+    this.lcol = lcol;
+    this.rcol = rcol;
+    this.lkey = new KeyField(left.getSchema(), lcol);
+    this.entry = TupleHashTable.END;
+  }
+
+  /**
+   * Sets a runtime filter to fill with the build keys, for the probe input to
+   * drop tuples that can't match.
+   */
+  public void setRuntimeFilter(RuntimeFilter runtime) {
+    this.runtime = runtime;
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    indent(depth);
+    System.out.println("HashJoin : " + left.getSchema().fieldName(lcol) + " = "
+        + right.getSchema().fieldName(rcol));
+    left.explain(depth + 1);
+    right.explain(depth + 1);
+  }
+
+  /**
+   * Restarts the probe input; the hash table is kept.
+   */
+  public void restart() {
+    left.restart();
+    outer = null;
+    next = null;
+    entry = TupleHashTable.END;
+  }
+
+  /**
+   * Returns true if the iterator is open; false otherwise.
+   */
+  public boolean isOpen() {
+    return left != null;
+  }
+
+  /**
+   * Closes the iterator, releasing any resources (i.e. pinned pages).
+   */
+  public void close() {
+    if (left != null) {
+      left.close();
+      right.close();
+      left = null;
+      right = null;
+      table = null;
+    }
+  }
+
+  /**
+   * Returns true if there are more tuples, false otherwise.
+   */
+  public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+    if (table == null) {
+      build();
+    }
+
+    while (true) {
+
+      // return the next match of the current probe tuple
+      if (entry != TupleHashTable.END) {
+        next = concat(outer, table.get(entry), getSchema());
+        entry = table.next(entry, lkey, outer.getData());
+        return true;
+      }
+
+      // otherwise move on to the next probe tuple
+      if (!left.hasNext()) {
+        return false;
+      }
+      outer = left.getNext();
+      entry = table.first(lkey, outer.getData());
+    }
+  }
+
+  /**
+   * Gets the next tuple in the iteration.
+   *
+   * @throws IllegalStateException if no more tuples
+   */
+  public Tuple getNext() {
+    if (!hasNext()) {
+      throw new IllegalStateException("no more tuples");
+    }
+    Tuple tuple = next;
+    next = null;
+    return tuple;
+  }
+
+  /**
+   * Reads the whole build input into the hash table.
+   */
+  protected void build() {
+    KeyField rkey = new KeyField(right.getSchema(), rcol);
+    table = new TupleHashTable(rkey);
+    if (runtime != null) {
+      runtime.clear(rkey);
+    }
+    while (right.hasNext()) {
+      Tuple tuple = right.getNext();
+      table.add(tuple);
+      if (runtime != null) {
+        runtime.add(tuple.getData());
+      }
+    }
+    if (runtime != null) {
+      runtime.finish();
+    }
+  }
+
+  /**
+   * Joins two tuples by concatenating their data, which matches the layout of
+   * Schema.join without converting every field to an Object and back.
+   */
+  static Tuple concat(Tuple outer, Tuple inner, Schema schema) {
+    byte[] l = outer.getData();
+    byte[] r = inner.getData();
+    byte[] data = new byte[l.length + r.length];
+    System.arraycopy(l, 0, data, 0, l.length);
+    System.arraycopy(r, 0, data, l.length, r.length);
+    return new Tuple(schema, data);
+  }
+
+} // public class HashJoin extends Iterator
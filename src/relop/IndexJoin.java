@@ -0,0 +1,152 @@
+package relop;
+
+import global.RID;
+import global.SearchKey;
+import heap.HeapFile;
+import index.HashIndex;
+import index.HashScan;
+
+/**
+ * Index nested loops join on an equality between a column of each input. The
+ * right input is a table with a hash index on its join column; instead of
+ * rescanning the table for every left tuple, the index is probed with the left
+ * tuple's key and only the matching records are fetched.
+ */
+public class IndexJoin extends Iterator {
+
+  /** Outer input. */
+  protected Iterator left;
+
+  /** Join column of the outer input. */
+  protected int lcol;
+
+  /** Schema of the inner table. */
+  protected Schema rschema;
+
+  /** Join column of the inner table. */
+  protected int rcol;
+
+  /** Hash index on the inner table's join column. */
+  protected HashIndex index;
+
+  /** Inner table. */
+  protected HeapFile file;
+
+  /** Index scan for the current outer tuple, or null if none. */
+  protected HashScan scan;
+
+  /** Current outer tuple. */
+  protected Tuple outer;
+
+  /** Next tuple to return, if already found. */
+  protected Tuple next;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs an index join of left.lcol = file.rcol, where the given index
+   * is on the table's rcol column.
+   */
+  public IndexJoin(Iterator left, int lcol, Schema rschema, int rcol,
+      HashIndex index, HeapFile file) {
+    setSchema(Schema.join(left.getSchema(), rschema));
+    this.left = left;
+    this.lcol = lcol;
+    this.rschema = rschema;
+    this.rcol = rcol;
+    this.index = index;
+    this.file = file;
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    indent(depth);
+    System.out.println("IndexJoin : " + left.getSchema().fieldName(lcol)
+        + " = " + rschema.fieldName(rcol) + " USING " + index + " ON " + file);
+    left.explain(depth + 1);
+  }
+
+  /**
+   * Restarts the iterator, i.e. as if it were just constructed.
+   */
+  public void restart() {
+    closeScan();
+    left.restart();
+    outer = null;
+    next = null;
+  }
+
+  /**
+   * Returns true if the iterator is open; false otherwise.
+   */
+  public boolean isOpen() {
+    return left != null;
+  }
+
+  /**
+   * Closes the iterator, releasing any resources (i.e. pinned pages).
+   */
+  public void close() {
+    if (left != null) {
+      closeScan();
+      left.close();
+      left = null;
+    }
+  }
+
+  /**
+   * Returns true if there are more tuples, false otherwise.
+   */
+  public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+    while (true) {
+
+      // return the next match of the current outer tuple
+      if (scan != null && scan.hasNext()) {
+        RID rid = scan.getNext();
+        Tuple inner = new Tuple(rschema, file.selectRecord(rid));
+        next = HashJoin.concat(outer, inner, getSchema());
+        return true;
+      }
+      closeScan();
+
+      // otherwise probe with the next outer tuple
+      if (!left.hasNext()) {
+        return false;
+      }
+      outer = left.getNext();
+      scan = index.openScan(new SearchKey(outer.getField(lcol)));
+    }
+  }
+
+  /**
+   * Gets the next tuple in the iteration.
+   *
+   * @throws IllegalStateException if no more tuples
+   */
+  public Tuple getNext() {
+    if (!hasNext()) {
+      throw new IllegalStateException("no more tuples");
+    }
+    Tuple tuple = next;
+    next = null;
+    return tuple;
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Closes the index scan of the current outer tuple, if any.
+   */
+  protected void closeScan() {
+    if (scan != null) {
+      scan.close();
+      scan = null;
+    }
+  }
+
+} // public class IndexJoin extends Iterator
@@ -0,0 +1,43 @@
+package relop;
+
+import global.SearchKey;
+import heap.HeapFile;
+import index.BTreeIndex;
+
+/**
+ * Reads the columns a B+ tree index stores, for the entries whose keys lie
+ * between two bounds, in key order. Unlike KeyRangeScan, the tuples are built
+ * from the index entries alone, so the table's pages are never read.
+ */
+public class IndexOnlyScan extends KeyRangeScan {
+
+  /**
+   * Constructs a scan of the index entries with keys between the given bounds;
+   * either of them may be null. The schema gives the index's stored columns,
+   * in order, and the file is only named in explanations.
+   */
+  public IndexOnlyScan(Schema schema, BTreeIndex index, SearchKey low,
+      boolean lowInclusive, SearchKey high, boolean highInclusive,
+      HeapFile file) {
+    super(schema, index, low, lowInclusive, high, highInclusive, file);
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    indent(depth);
+    System.out.println("IndexOnlyScan : " + getRange());
+  }
+
+  /**
+   * Gets the next tuple in the iteration.
+   *
+   * @throws IllegalStateException if no more tuples
+   */
+  public Tuple getNext() {
+    scan.getNext();
+    return new Tuple(getSchema(), scan.getLastKey().getValues());
+  }
+
+} // public class IndexOnlyScan extends KeyRangeScan
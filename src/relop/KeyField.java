@@ -0,0 +1,160 @@
+package relop;
+
+import global.AttrType;
+import global.Convert;
+
+/**
+ * Hashes and compares one field of a tuple directly on the tuple's raw bytes,
+ * so that operators keyed on a column never box the value into an Object or a
+ * SearchKey. Comparisons agree with Predicate.evaluate: numbers compare by
+ * value, and strings compare as trimmed character sequences.
+ */
+public class KeyField {
+
+  /** Attribute type of the field. */
+  protected final int type;
+
+  /** Byte offset of the field within the tuple. */
+  protected final int offset;
+
+  /** Maximum length of the field, in bytes. */
+  protected final int length;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a key on the given field of the given schema.
+   */
+  public KeyField(Schema schema, int fldno) {
+    this.type = schema.fieldType(fldno);
+    this.offset = schema.fieldOffset(fldno);
+    this.length = schema.fieldLength(fldno);
+  }
+
+  /**
+   * Gets the attribute type of the field.
+   */
+  public int getType() {
+    return type;
+  }
+
+  /**
+   * Computes the hash code of the field in the given tuple data.
+   */
+  public int hash(byte[] data) {
+    int h;
+    switch (type) {
+
+      case AttrType.INTEGER:
+      case AttrType.FLOAT:
+        h = Convert.getIntValue(offset, data);
+        break;
+
+      default:
+        int start = trimStart(data);
+        int end = trimEnd(data, start);
+        h = 1;
+        for (int i = start; i < end; i++) {
+          h = 31 * h + data[i];
+        }
+        break;
+    }
+
+    // spread the bits, since tables index by the low bits
+    h ^= (h >>> 16);
+    h *= 0x85ebca6b;
+    h ^= (h >>> 13);
+    return h;
+
+  } // public int hash(byte[] data)
+
+  /**
+   * Compares the field in the given tuple data with another key field in
+   * another tuple's data.
+   *
+   * @return a negative integer, zero, or a positive integer as this field is
+   *         less than, equal to, or greater than the other
+   */
+  public int compare(byte[] data, KeyField other, byte[] otherData) {
+    switch (type) {
+
+      case AttrType.INTEGER:
+        return Integer.compare(Convert.getIntValue(offset, data),
+            Convert.getIntValue(other.offset, otherData));
+
+      case AttrType.FLOAT:
+        return Float.compare(Convert.getFloatValue(offset, data),
+            Convert.getFloatValue(other.offset, otherData));
+
+      default:
+        int start1 = trimStart(data);
+        int end1 = trimEnd(data, start1);
+        int start2 = other.trimStart(otherData);
+        int end2 = other.trimEnd(otherData, start2);
+        return compareBytes(data, start1, end1, otherData, start2, end2);
+
+    } // switch
+
+  } // public int compare(byte[] data, KeyField other, byte[] otherData)
+
+  /**
+   * Compares the string field in the given tuple data with the bytes of a
+   * string constant, which are taken as they are (like Predicate.evaluate,
+   * only the field is trimmed).
+   */
+  public int compareString(byte[] data, byte[] value) {
+    int start = trimStart(data);
+    int end = trimEnd(data, start);
+    return compareBytes(data, start, end, value, 0, value.length);
+  }
+
+  /**
+   * Compares two byte ranges as unsigned characters.
+   */
+  protected static int compareBytes(byte[] data1, int start1, int end1,
+      byte[] data2, int start2, int end2) {
+    int len1 = end1 - start1;
+    int len2 = end2 - start2;
+    int min = Math.min(len1, len2);
+    for (int i = 0; i < min; i++) {
+      int c = (data1[start1 + i] & 0xff) - (data2[start2 + i] & 0xff);
+      if (c != 0) {
+        return c;
+      }
+    }
+    return len1 - len2;
+  }
+
+  /**
+   * True if the field in the given tuple data equals another key field in
+   * another tuple's data.
+   */
+  public boolean equals(byte[] data, KeyField other, byte[] otherData) {
+    return compare(data, other, otherData) == 0;
+  }
+
+  /**
+   * Gets the first byte of the string that isn't leading white space.
+   */
+  protected int trimStart(byte[] data) {
+    int end = Math.min(offset + length, data.length);
+    int start = offset;
+    while (start < end && (data[start] & 0xff) <= ' ') {
+      start++;
+    }
+    return start;
+  }
+
+  /**
+   * Gets the byte after the last character of the string that isn't trailing
+   * white space or padding.
+   */
+  protected int trimEnd(byte[] data, int start) {
+    int end = Math.min(offset + length, data.length);
+    while (end > start && (data[end - 1] & 0xff) <= ' ') {
+      end--;
+    }
+    return end;
+  }
+
+} // public class KeyField
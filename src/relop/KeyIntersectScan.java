@@ -0,0 +1,65 @@
+package relop;
+
+import global.SearchKey;
+import heap.HeapFile;
+import index.HashIndex;
+
+import java.util.Arrays;
+
+/**
+ * Reads the records of a table that match every one of several index keys on
+ * different indexes, e.g. for age = 30.0 AND name = 'Bob'. Only the records
+ * in the intersection of the lookups are fetched.
+ */
+public class KeyIntersectScan extends RidSetScan {
+
+  /**
+   * Constructs a scan of the records of the file with all of the given keys,
+   * each looked up in the corresponding index.
+   */
+  public KeyIntersectScan(Schema schema, HashIndex[] indexes, SearchKey[] keys,
+      HeapFile file) {
+    super(schema, indexes, keys, file);
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    explain(depth, "KeyIntersectScan");
+  }
+
+  /**
+   * Intersects the record ids of every key, smallest lookup first, stopping
+   * early once none are left.
+   */
+  protected long[] collect() {
+    long[][] lookups = new long[keys.length][];
+    for (int i = 0; i < keys.length; i++) {
+      lookups[i] = lookup(i);
+    }
+    Arrays.sort(lookups, (l1, l2) -> Integer.compare(l1.length, l2.length));
+
+    long[] result = lookups[0];
+    for (int i = 1; i < lookups.length && result.length > 0; i++) {
+      long[] found = lookups[i];
+      int a = 0;
+      int b = 0;
+      int count = 0;
+      while (a < result.length && b < found.length) {
+        if (result[a] < found[b]) {
+          a++;
+        } else if (result[a] > found[b]) {
+          b++;
+        } else {
+          result[count++] = result[a];
+          a++;
+          b++;
+        }
+      }
+      result = Arrays.copyOf(result, count);
+    }
+    return result;
+  }
+
+} // public class KeyIntersectScan extends RidSetScan
@@ -0,0 +1,118 @@
+package relop;
+
+import global.RID;
+import global.SearchKey;
+import heap.HeapFile;
+import index.BTreeIndex;
+import index.BTreeScan;
+
+/**
+ * Reads the records of a table whose keys lie between two bounds, in key
+ * order, by scanning a B+ tree index on the key column. Either bound may be
+ * missing, so without any this reads the whole table sorted on the key.
+ */
+public class KeyRangeScan extends Iterator {
+
+  /** Index to scan. */
+  protected BTreeIndex index;
+
+  /** Lowest key to return, or null for no lower bound. */
+  protected SearchKey low;
+
+  /** True if records equal to the lower bound are returned. */
+  protected boolean lowInclusive;
+
+  /** Highest key to return, or null for no upper bound. */
+  protected SearchKey high;
+
+  /** True if records equal to the upper bound are returned. */
+  protected boolean highInclusive;
+
+  /** Table the records come from. */
+  protected HeapFile file;
+
+  /** Underlying index scan, or null once closed. */
+  protected BTreeScan scan;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a scan of the records of the file with keys between the given
+   * bounds; either of them may be null.
+   */
+  public KeyRangeScan(Schema schema, BTreeIndex index, SearchKey low,
+      boolean lowInclusive, SearchKey high, boolean highInclusive,
+      HeapFile file) {
+    setSchema(schema);
+    this.index = index;
+    this.low = low;
+    this.lowInclusive = lowInclusive;
+    this.high = high;
+    this.highInclusive = highInclusive;
+    this.file = file;
+    this.scan = index.openScan(low, lowInclusive, high, highInclusive);
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    indent(depth);
+    System.out.println("KeyRangeScan : " + getRange());
+  }
+
+  /**
+   * Describes the index, the table and the range of keys scanned.
+   */
+  protected String getRange() {
+    return index + " ON " + file + " "
+        + (low != null && lowInclusive ? "[" : "(")
+        + (low != null ? low.toString() : "*") + ", "
+        + (high != null ? high.toString() : "*")
+        + (high != null && highInclusive ? "]" : ")");
+  }
+
+  /**
+   * Restarts the iterator, i.e. as if it were just constructed.
+   */
+  public void restart() {
+    scan.close();
+    scan = index.openScan(low, lowInclusive, high, highInclusive);
+  }
+
+  /**
+   * Returns true if the iterator is open; false otherwise.
+   */
+  public boolean isOpen() {
+    return scan != null;
+  }
+
+  /**
+   * Closes the iterator, releasing any resources (i.e. pinned pages).
+   */
+  public void close() {
+    if (scan != null) {
+      scan.close();
+      scan = null;
+    }
+  }
+
+  /**
+   * Returns true if there are more tuples, false otherwise.
+   */
+  public boolean hasNext() {
+    return scan.hasNext();
+  }
+
+  /**
+   * Gets the next tuple in the iteration.
+   *
+   * @throws IllegalStateException if no more tuples
+   */
+  public Tuple getNext() {
+    RID rid = scan.getNext();
+    byte[] record = file.selectRecord(rid);
+    return new Tuple(getSchema(), record);
+  }
+
+} // public class KeyRangeScan extends Iterator
@@ -0,0 +1,59 @@
+package relop;
+
+import global.SearchKey;
+import heap.HeapFile;
+import index.HashIndex;
+
+import java.util.Arrays;
+
+/**
+ * Reads the records of a table that match any of several index keys, possibly
+ * on different indexes, e.g. for a clause like age = 30.0 OR name = 'Bob'.
+ * A record that matches more than one key is only returned once.
+ */
+public class KeyUnionScan extends RidSetScan {
+
+  /**
+   * Constructs a scan of the records of the file with any of the given keys,
+   * each looked up in the corresponding index.
+   */
+  public KeyUnionScan(Schema schema, HashIndex[] indexes, SearchKey[] keys,
+      HeapFile file) {
+    super(schema, indexes, keys, file);
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    explain(depth, "KeyUnionScan");
+  }
+
+  /**
+   * Merges the record ids of every key, dropping duplicates.
+   */
+  protected long[] collect() {
+    long[] result = new long[0];
+    for (int i = 0; i < keys.length; i++) {
+      long[] found = lookup(i);
+      long[] merged = new long[result.length + found.length];
+      int a = 0;
+      int b = 0;
+      int count = 0;
+      while (a < result.length || b < found.length) {
+        long next;
+        if (b == found.length || (a < result.length && result[a] <= found[b])) {
+          next = result[a++];
+        } else {
+          next = found[b++];
+        }
+        if (count == 0 || merged[count - 1] != next) {
+          merged[count++] = next;
+        }
+      }
+      result = Arrays.copyOf(merged, count);
+    }
+    return result;
+  }
+
+} // public class KeyUnionScan extends RidSetScan
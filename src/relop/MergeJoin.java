@@ -0,0 +1,180 @@
+package relop;
+
+import java.util.ArrayList;
+
+/**
+ * Sort-merge join on an equality between a column of each input. Both inputs
+ * must already be sorted in ascending order on their join columns (e.g. by a
+ * Sort); they are then each read exactly once, in step. Every run of right
+ * tuples that share a key is buffered, so that it can be joined with every
+ * left tuple of the same key; the output is in the order of the left input.
+ */
+public class MergeJoin extends Iterator {
+
+  /** Left input, sorted on its join column. */
+  protected Iterator left;
+
+  /** Right input, sorted on its join column. */
+  protected Iterator right;
+
+  /** Join column of the left input. */
+  protected int lcol;
+
+  /** Join column of the right input. */
+  protected int rcol;
+
+  /** Key field of the left input. */
+  protected KeyField lkey;
+
+  /** Key field of the right input. */
+  protected KeyField rkey;
+
+  /** Right tuples whose key equals the current left tuple's. */
+  protected ArrayList<Tuple> group;
+
+  /** Position of the next tuple in the group. */
+  protected int pos;
+
+  /** Current left tuple. */
+  protected Tuple outer;
+
+  /** First right tuple not yet added to a group, or null at the end. */
+  protected Tuple lookahead;
+
+  /** True once the first right tuple has been read. */
+  protected boolean started;
+
+  /** Next tuple to return, if already found. */
+  protected Tuple next;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a merge join of left.lcol = right.rcol.
+   */
+  public MergeJoin(Iterator left, Iterator right, int lcol, int rcol) {
+    setSchema(Schema.join(left.getSchema(), right.getSchema()));
+    this.left = left;
+    this.right = right;
+    this.lcol = lcol;
+    this.rcol = rcol;
+    this.lkey = new KeyField(left.getSchema(), lcol);
+    this.rkey = new KeyField(right.getSchema(), rcol);
+    this.group = new ArrayList<Tuple>();
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    indent(depth);
+    System.out.println("MergeJoin : " + left.getSchema().fieldName(lcol) + " = "
+        + right.getSchema().fieldName(rcol));
+    left.explain(depth + 1);
+    right.explain(depth + 1);
+  }
+
+  /**
+   * Restarts the iterator, i.e. as if it were just constructed.
+   */
+  public void restart() {
+    left.restart();
+    right.restart();
+    group.clear();
+    pos = 0;
+    outer = null;
+    lookahead = null;
+    started = false;
+    next = null;
+  }
+
+  /**
+   * Returns true if the iterator is open; false otherwise.
+   */
+  public boolean isOpen() {
+    return left != null;
+  }
+
+  /**
+   * Closes the iterator, releasing any resources (i.e. pinned pages).
+   */
+  public void close() {
+    if (left != null) {
+      left.close();
+      right.close();
+      left = null;
+      right = null;
+      group.clear();
+    }
+  }
+
+  /**
+   * Returns true if there are more tuples, false otherwise.
+   */
+  public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+    if (!started) {
+      lookahead = right.hasNext() ? right.getNext() : null;
+      started = true;
+    }
+
+    while (true) {
+
+      // return the next match of the current left tuple
+      if (outer != null && pos < group.size()) {
+        next = HashJoin.concat(outer, group.get(pos++), getSchema());
+        return true;
+      }
+
+      // otherwise move on to the next left tuple
+      if (!left.hasNext()) {
+        return false;
+      }
+      outer = left.getNext();
+      byte[] data = outer.getData();
+      pos = 0;
+
+      // a duplicate left key joins with the same group again
+      if (!group.isEmpty()
+          && lkey.compare(data, rkey, group.get(0).getData()) == 0) {
+        continue;
+      }
+      group.clear();
+
+      // skip the right tuples with smaller keys
+      while (lookahead != null
+          && lkey.compare(data, rkey, lookahead.getData()) > 0) {
+        lookahead = right.hasNext() ? right.getNext() : null;
+      }
+      if (lookahead == null) {
+        // no remaining left tuple can have a match
+        return false;
+      }
+
+      // and collect the ones with an equal key
+      while (lookahead != null
+          && lkey.compare(data, rkey, lookahead.getData()) == 0) {
+        group.add(lookahead);
+        lookahead = right.hasNext() ? right.getNext() : null;
+      }
+    }
+
+  } // public boolean hasNext()
+
+  /**
+   * Gets the next tuple in the iteration.
+   *
+   * @throws IllegalStateException if no more tuples
+   */
+  public Tuple getNext() {
+    if (!hasNext()) {
+      throw new IllegalStateException("no more tuples");
+    }
+    Tuple tuple = next;
+    next = null;
+    return tuple;
+  }
+
+} // public class MergeJoin extends Iterator
@@ -0,0 +1,118 @@
+package relop;
+
+/**
+ * Nested loops join on a conjunction of clauses, each a disjunction of
+ * predicates; the whole inner input is read again for every outer tuple. The
+ * clauses are compiled once for the joined schema (see PredicateCompiler), and
+ * checked on each pair of tuples before it's returned.
+ */
+public class NestedLoopJoin extends Iterator {
+
+  /** Outer and inner inputs. */
+  protected Iterator left, right;
+
+  /** Clauses that every joined tuple passes. */
+  protected Predicate[][] clauses;
+
+  /** Compiled form of the clauses. */
+  protected TupleFilter filter;
+
+  /** Current outer tuple, or null if the next one is needed. */
+  protected Tuple outer;
+
+  /** Next tuple to return, if already found. */
+  protected Tuple next;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a join of the two inputs on all of the given clauses.
+   */
+  public NestedLoopJoin(Iterator left, Iterator right, Predicate[]... clauses) {
+    setSchema(Schema.join(left.getSchema(), right.getSchema()));
+    this.left = left;
+    this.right = right;
+    this.clauses = clauses;
+    this.filter = PredicateCompiler.compile(getSchema(), clauses);
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    indent(depth);
+    System.out.println("NestedLoopJoin : " + Filter.toString(clauses));
+    left.explain(depth + 1);
+    right.explain(depth + 1);
+  }
+
+  /**
+   * Restarts the iterator, i.e. as if it were just constructed.
+   */
+  public void restart() {
+    left.restart();
+    right.restart();
+    outer = null;
+    next = null;
+  }
+
+  /**
+   * Returns true if the iterator is open; false otherwise.
+   */
+  public boolean isOpen() {
+    return left != null;
+  }
+
+  /**
+   * Closes the iterator, releasing any resources (i.e. pinned pages).
+   */
+  public void close() {
+    if (left != null) {
+      left.close();
+      right.close();
+      left = null;
+      right = null;
+    }
+  }
+
+  /**
+   * Returns true if there are more tuples, false otherwise.
+   */
+  public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+    while (true) {
+      if (outer == null) {
+        if (!left.hasNext()) {
+          return false;
+        }
+        outer = left.getNext();
+      }
+      while (right.hasNext()) {
+        Tuple tuple = Tuple.join(outer, right.getNext(), getSchema());
+        if (filter.matches(tuple.getData())) {
+          next = tuple;
+          return true;
+        }
+      }
+      outer = null;
+      right.restart();
+    }
+  }
+
+  /**
+   * Gets the next tuple in the iteration.
+   *
+   * @throws IllegalStateException if no more tuples
+   */
+  public Tuple getNext() {
+    if (!hasNext()) {
+      throw new IllegalStateException("no more tuples");
+    }
+    Tuple tuple = next;
+    next = null;
+    return tuple;
+  }
+
+} // public class NestedLoopJoin extends Iterator
@@ -0,0 +1,263 @@
+package relop;
+
+import global.AttrOperator;
+import global.AttrType;
+import global.Convert;
+
+import java.util.Arrays;
+
+/**
+ * Compiles a condition in conjunctive normal form into a TupleFilter for one
+ * schema. Column names are resolved to field offsets, constants are unboxed,
+ * and the operators are chosen once, so that testing a tuple is a chain of
+ * primitive comparisons on its raw bytes. Results agree with evaluating each
+ * Predicate, which is left untouched and so can still be used elsewhere.
+ */
+public class PredicateCompiler {
+
+  /**
+   * Compares one operand of a predicate with the other, for a tuple's data.
+   */
+  protected interface Comparison {
+    int compare(byte[] data);
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Compiles the conjunction of the given clauses, each a disjunction of
+   * predicates, for tuples of the given schema.
+   *
+   * @throws IllegalArgumentException if a predicate compares values of
+   *         different types or names a column the schema doesn't have
+   */
+  public static TupleFilter compile(Schema schema, Predicate[]... clauses) {
+    TupleFilter[] filters = new TupleFilter[clauses.length];
+    int count = 0;
+    for (Predicate[] clause : clauses) {
+      TupleFilter filter = compileClause(schema, clause);
+      if (filter == TupleFilter.FALSE) {
+        return TupleFilter.FALSE;
+      }
+      if (filter != TupleFilter.TRUE) {
+        filters[count++] = filter;
+      }
+    }
+    return all(filters, count);
+  }
+
+  /**
+   * Compiles a disjunction of predicates.
+   */
+  public static TupleFilter compileClause(Schema schema, Predicate[] clause) {
+    TupleFilter[] filters = new TupleFilter[clause.length];
+    int count = 0;
+    for (Predicate pred : clause) {
+      TupleFilter filter = compilePredicate(schema, pred);
+      if (filter == TupleFilter.TRUE) {
+        return TupleFilter.TRUE;
+      }
+      if (filter != TupleFilter.FALSE) {
+        filters[count++] = filter;
+      }
+    }
+    return any(filters, count);
+  }
+
+  /**
+   * Compiles a single predicate.
+   */
+  public static TupleFilter compilePredicate(Schema schema, Predicate pred) {
+    boolean lcol = pred.getLtype() == AttrType.COLNAME;
+    boolean rcol = pred.getRtype() == AttrType.COLNAME;
+
+    // column op column
+    if (lcol && rcol) {
+      int lfld = fieldNumber(schema, pred, pred.getLeft());
+      int rfld = fieldNumber(schema, pred, pred.getRight());
+      checkType(pred, schema.fieldType(lfld), schema.fieldType(rfld));
+      return test(pred.getOper(), columns(schema, lfld, rfld));
+    }
+
+    // column op constant, in either order
+    if (lcol || rcol) {
+      int fldno = fieldNumber(schema, pred, lcol ? pred.getLeft() : pred.getRight());
+      int type = schema.fieldType(fldno);
+      checkType(pred, type, lcol ? pred.getRtype() : pred.getLtype());
+      Comparison comp = constant(schema, fldno, lcol ? pred.getRight() : pred.getLeft());
+      return test(lcol ? pred.getOper() : flip(pred.getOper()), comp);
+    }
+
+    // constant op constant: decide now
+    checkType(pred, pred.getLtype(), pred.getRtype());
+    return pred.evaluate(null) ? TupleFilter.TRUE : TupleFilter.FALSE;
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Builds the comparison of two fields of the same type.
+   */
+  protected static Comparison columns(Schema schema, int lfld, int rfld) {
+    final int loff = schema.fieldOffset(lfld);
+    final int roff = schema.fieldOffset(rfld);
+    switch (schema.fieldType(lfld)) {
+
+      case AttrType.INTEGER:
+        return data -> Integer.compare(Convert.getIntValue(loff, data),
+            Convert.getIntValue(roff, data));
+
+      case AttrType.FLOAT:
+        return data -> Float.compare(Convert.getFloatValue(loff, data),
+            Convert.getFloatValue(roff, data));
+
+      default:
+        final KeyField lkey = new KeyField(schema, lfld);
+        final KeyField rkey = new KeyField(schema, rfld);
+        return data -> lkey.compare(data, rkey, data);
+
+    } // switch
+  }
+
+  /**
+   * Builds the comparison of a field with a constant of the same type.
+   */
+  protected static Comparison constant(Schema schema, int fldno, Object value) {
+    final int offset = schema.fieldOffset(fldno);
+    switch (schema.fieldType(fldno)) {
+
+      case AttrType.INTEGER:
+        final int ival = ((Number) value).intValue();
+        return data -> Integer.compare(Convert.getIntValue(offset, data), ival);
+
+      case AttrType.FLOAT:
+        final float fval = ((Number) value).floatValue();
+        return data -> Float.compare(Convert.getFloatValue(offset, data), fval);
+
+      default:
+        final KeyField key = new KeyField(schema, fldno);
+        final byte[] bytes = value.toString().getBytes();
+        return data -> key.compareString(data, bytes);
+
+    } // switch
+  }
+
+  /**
+   * Builds the test of a comparison's result for the given AttrOperator.
+   */
+  protected static TupleFilter test(int oper, final Comparison comp) {
+    switch (oper) {
+      case AttrOperator.EQ:
+        return data -> comp.compare(data) == 0;
+      case AttrOperator.NEQ:
+        return data -> comp.compare(data) != 0;
+      case AttrOperator.GT:
+        return data -> comp.compare(data) > 0;
+      case AttrOperator.GTE:
+        return data -> comp.compare(data) >= 0;
+      case AttrOperator.LT:
+        return data -> comp.compare(data) < 0;
+      case AttrOperator.LTE:
+        return data -> comp.compare(data) <= 0;
+      default:
+        throw new IllegalArgumentException("unknown operator " + oper);
+    }
+  }
+
+  /**
+   * Combines filters that must all pass.
+   */
+  protected static TupleFilter all(final TupleFilter[] filters, int count) {
+    switch (count) {
+      case 0:
+        return TupleFilter.TRUE;
+      case 1:
+        return filters[0];
+      case 2:
+        final TupleFilter first = filters[0];
+        final TupleFilter second = filters[1];
+        return data -> first.matches(data) && second.matches(data);
+      default:
+        final TupleFilter[] array = Arrays.copyOf(filters, count);
+        return data -> {
+          for (TupleFilter filter : array) {
+            if (!filter.matches(data)) {
+              return false;
+            }
+          }
+          return true;
+        };
+    }
+  }
+
+  /**
+   * Combines filters of which any one must pass.
+   */
+  protected static TupleFilter any(final TupleFilter[] filters, int count) {
+    switch (count) {
+      case 0:
+        return TupleFilter.FALSE;
+      case 1:
+        return filters[0];
+      case 2:
+        final TupleFilter first = filters[0];
+        final TupleFilter second = filters[1];
+        return data -> first.matches(data) || second.matches(data);
+      default:
+        final TupleFilter[] array = Arrays.copyOf(filters, count);
+        return data -> {
+          for (TupleFilter filter : array) {
+            if (filter.matches(data)) {
+              return true;
+            }
+          }
+          return false;
+        };
+    }
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Gets the field number of a column named by a predicate.
+   *
+   * @throws IllegalArgumentException if the schema doesn't have the column
+   */
+  protected static int fieldNumber(Schema schema, Predicate pred, Object column) {
+    int fldno = schema.fieldNumber((String) column);
+    if (fldno < 0) {
+      throw new IllegalArgumentException("unknown column " + column + " in " + pred);
+    }
+    return fldno;
+  }
+
+  /**
+   * Checks that the two operands of a predicate have the same type.
+   *
+   * @throws IllegalArgumentException if they don't
+   */
+  protected static void checkType(Predicate pred, int ltype, int rtype) {
+    if (ltype != rtype) {
+      throw new IllegalArgumentException("mismatched types in " + pred);
+    }
+  }
+
+  /**
+   * Gets the operator that compares the same way with its operands swapped.
+   */
+  protected static int flip(int oper) {
+    switch (oper) {
+      case AttrOperator.LT:
+        return AttrOperator.GT;
+      case AttrOperator.LTE:
+        return AttrOperator.GTE;
+      case AttrOperator.GT:
+        return AttrOperator.LT;
+      case AttrOperator.GTE:
+        return AttrOperator.LTE;
+      default:
+        return oper;
+    }
+  }
+
+} // public class PredicateCompiler
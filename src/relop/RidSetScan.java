@@ -0,0 +1,194 @@
+package relop;
+
+import global.GlobalConst;
+import global.Minibase;
+import global.PageId;
+import global.RID;
+import global.SearchKey;
+import heap.HFPage;
+import heap.HeapFile;
+import index.HashIndex;
+import index.HashScan;
+
+import java.util.Arrays;
+
+/**
+ * Reads the records of a table whose ids are combined from several hash index
+ * lookups, possibly on different indexes. All the lookups are done up front,
+ * then the surviving record ids are fetched in page order, keeping each heap
+ * page pinned while its records are read, so that it's pinned at most once.
+ * Record ids are packed into longs that order by page, then slot.
+ */
+public abstract class RidSetScan extends Iterator implements GlobalConst {
+
+  /** Index to probe for each key. */
+  protected HashIndex[] indexes;
+
+  /** Keys to look up. */
+  protected SearchKey[] keys;
+
+  /** Table the records come from. */
+  protected HeapFile file;
+
+  /** Record ids to fetch in page order, or null before the lookups. */
+  protected long[] rids;
+
+  /** Position of the next record id to fetch, or -1 once closed. */
+  protected int pos;
+
+  /** Heap page holding the last record fetched, while it's pinned. */
+  protected HFPage page = new HFPage();
+
+  /** Id of the pinned heap page, or null if none is. */
+  protected PageId pageno;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a scan of the records of the file found by looking up each of
+   * the given keys in the corresponding index.
+   */
+  protected RidSetScan(Schema schema, HashIndex[] indexes, SearchKey[] keys,
+      HeapFile file) {
+    setSchema(schema);
+    this.indexes = indexes;
+    this.keys = keys;
+    this.file = file;
+  }
+
+  /**
+   * Combines the record ids of the lookups, in page order.
+   */
+  protected abstract long[] collect();
+
+  /**
+   * Gets the ids of the records found, packed by toLong in page order, without
+   * reading the records.
+   */
+  public long[] getRids() {
+    if (rids == null) {
+      rids = collect();
+    }
+    return rids;
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, naming it as given.
+   */
+  protected void explain(int depth, String name) {
+    indent(depth);
+    StringBuilder str = new StringBuilder(name + " : ");
+    for (int i = 0; i < indexes.length; i++) {
+      if (i > 0) {
+        str.append(", ");
+      }
+      str.append(indexes[i]);
+    }
+    System.out.println(str + " ON " + file);
+  }
+
+  /**
+   * Restarts the iterator, i.e. as if it were just constructed.
+   */
+  public void restart() {
+    unpinPage();
+    pos = 0;
+  }
+
+  /**
+   * Returns true if the iterator is open; false otherwise.
+   */
+  public boolean isOpen() {
+    return pos >= 0;
+  }
+
+  /**
+   * Closes the iterator, releasing any resources (i.e. pinned pages).
+   */
+  public void close() {
+    unpinPage();
+    pos = -1;
+    rids = null;
+  }
+
+  /**
+   * Returns true if there are more tuples, false otherwise.
+   */
+  public boolean hasNext() {
+    if (rids == null) {
+      if (pos < 0) {
+        return false;
+      }
+      getRids();
+    }
+    return pos < rids.length;
+  }
+
+  /**
+   * Gets the next tuple in the iteration.
+   *
+   * @throws IllegalStateException if no more tuples
+   */
+  public Tuple getNext() {
+    if (!hasNext()) {
+      throw new IllegalStateException("no more tuples");
+    }
+    RID rid = toRID(rids[pos++]);
+    if (pageno == null || pageno.pid != rid.pageno.pid) {
+      unpinPage();
+      Minibase.BufferManager.pinPage(rid.pageno, page, PIN_DISKIO);
+      pageno = rid.pageno;
+    }
+    byte[] record = page.selectRecord(rid);
+    if (pos == rids.length) {
+      unpinPage();
+    }
+    return new Tuple(getSchema(), record);
+  }
+
+  /**
+   * Unpins the heap page of the last record fetched, if it's still pinned.
+   */
+  protected void unpinPage() {
+    if (pageno != null) {
+      Minibase.BufferManager.unpinPage(pageno, UNPIN_CLEAN);
+      pageno = null;
+    }
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Looks up the given key, and gets the record ids it finds in page order.
+   */
+  protected long[] lookup(int key) {
+    long[] found = new long[16];
+    int count = 0;
+    HashScan scan = indexes[key].openScan(keys[key]);
+    while (scan.hasNext()) {
+      if (count == found.length) {
+        found = Arrays.copyOf(found, count * 2);
+      }
+      found[count++] = toLong(scan.getNext());
+    }
+    scan.close();
+    found = Arrays.copyOf(found, count);
+    Arrays.sort(found);
+    return found;
+  }
+
+  /**
+   * Packs a record id into a long that orders by page, then slot.
+   */
+  public static long toLong(RID rid) {
+    return ((long) rid.pageno.pid << 32) | (rid.slotno & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Unpacks a record id packed by toLong.
+   */
+  public static RID toRID(long rid) {
+    return new RID(new PageId((int) (rid >>> 32)), (int) rid);
+  }
+
+} // public abstract class RidSetScan extends Iterator
@@ -0,0 +1,135 @@
+package relop;
+
+import java.util.Arrays;
+
+/**
+ * Summary of the join keys a hash join's build input holds, for dropping probe
+ * tuples that can't match before they reach the join. The join adds every
+ * build key as it reads its build input: a Bloom filter records their hash
+ * codes, and the smallest and largest keys bound their range. Until the build
+ * input has been read, every probe tuple passes.
+ */
+public class RuntimeFilter {
+
+  /** Number of bits set (and tested) per key. */
+  protected static final int HASHES = 3;
+
+  /** Bits per expected key, for about a 3% false positive rate. */
+  protected static final int BITS_PER_KEY = 8;
+
+  /** Largest filter, in bits. */
+  protected static final int MAX_BITS = 1 << 23;
+
+  // --------------------------------------------------------------------------
+
+  /** Name of the build input's join column, for explanations. */
+  protected String name;
+
+  /** The Bloom filter's bits; their count is a power of two. */
+  protected long[] bits;
+
+  /** Key field of the build tuples. */
+  protected KeyField key;
+
+  /** Data of the build tuples with the smallest and largest keys. */
+  protected byte[] minData, maxData;
+
+  /** True once every build key has been added. */
+  protected boolean ready;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs an empty filter sized for about the given number of keys.
+   *
+   * @param name name of the build input's join column
+   */
+  public RuntimeFilter(String name, double expectedKeys) {
+    this.name = name;
+    long wanted = (long) Math.min(MAX_BITS, Math.max(64, expectedKeys
+        * BITS_PER_KEY));
+    this.bits = new long[(int) (Long.highestOneBit(wanted - 1) * 2 / 64)];
+  }
+
+  /**
+   * Gets the name of the build input's join column.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Empties the filter, before the build input is read (again).
+   *
+   * @param key key field of the build tuples
+   */
+  public void clear(KeyField key) {
+    this.key = key;
+    Arrays.fill(bits, 0);
+    minData = null;
+    maxData = null;
+    ready = false;
+  }
+
+  /**
+   * Adds the key of a build tuple.
+   */
+  public void add(byte[] data) {
+    int hash = key.hash(data);
+    int step = (hash >>> 17) | (hash << 15) | 1;
+    int mask = bits.length * 64 - 1;
+    for (int i = 0; i < HASHES; i++) {
+      int bit = (hash + i * step) & mask;
+      bits[bit >>> 6] |= 1L << bit;
+    }
+    if (minData == null || key.compare(data, key, minData) < 0) {
+      minData = data;
+    }
+    if (maxData == null || key.compare(data, key, maxData) > 0) {
+      maxData = data;
+    }
+  }
+
+  /**
+   * Marks the filter complete, once every build key has been added.
+   */
+  public void finish() {
+    ready = true;
+  }
+
+  /**
+   * True if the probe tuple with the given data may have a matching build
+   * tuple, i.e. false only if it certainly has none.
+   *
+   * @param probeKey key field of the probe tuples
+   */
+  public boolean mightMatch(KeyField probeKey, byte[] data) {
+    if (!ready) {
+      return true;
+    }
+    if (minData == null || probeKey.compare(data, key, minData) < 0
+        || probeKey.compare(data, key, maxData) > 0) {
+      return false;
+    }
+    int hash = probeKey.hash(data);
+    int step = (hash >>> 17) | (hash << 15) | 1;
+    int mask = bits.length * 64 - 1;
+    for (int i = 0; i < HASHES; i++) {
+      int bit = (hash + i * step) & mask;
+      if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets a condition that probe tuples of the given schema pass if they may
+   * have a match, given their join column.
+   */
+  public TupleFilter forProbe(Schema schema, int fldno) {
+    final KeyField probeKey = new KeyField(schema, fldno);
+    return data -> mightMatch(probeKey, data);
+  }
+
+} // public class RuntimeFilter
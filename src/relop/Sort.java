@@ -0,0 +1,307 @@
+package relop;
+
+import global.GlobalConst;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * External merge sort on one or more fields, each ascending or descending. The
+ * input is read into memory until a fixed budget is exceeded, at which point
+ * the buffered tuples are sorted and written to a scratch heap file as a run.
+ * Runs are then merged a fan-in at a time until only one merge is left, which
+ * is streamed to the caller. If the whole input fits in memory, nothing is
+ * written to disk at all. Tuples too large for a heap file record are always
+ * kept in memory.
+ */
+public class Sort extends Iterator implements GlobalConst {
+
+  /**
+   * Read position in one sorted run during a merge.
+   */
+  protected static class Cursor {
+
+    /** Scan over the run. */
+    public FileScan scan;
+
+    /** Smallest tuple of the run not yet merged. */
+    public Tuple head;
+
+    public Cursor(FileScan scan) {
+      this.scan = scan;
+      this.head = scan.getNext();
+    }
+
+    /** Moves to the next tuple of the run, returning false at its end. */
+    public boolean advance() {
+      if (scan.hasNext()) {
+        head = scan.getNext();
+        return true;
+      }
+      scan.close();
+      head = null;
+      return false;
+    }
+
+  } // protected static class Cursor
+
+  // --------------------------------------------------------------------------
+
+  /** Tuples to sort. */
+  protected Iterator input;
+
+  /** Sort order. */
+  protected TupleComparator comp;
+
+  /** Memory budget for buffered tuples, in pages. */
+  protected int memPages;
+
+  /** Memory budget for buffered tuples, in bytes. */
+  protected long budget;
+
+  /** Number of runs merged at a time. */
+  protected int fanin;
+
+  /** Sorted tuples, if the input fit in memory. */
+  protected ArrayList<Tuple> buffer;
+
+  /** Position of the next tuple in the buffer. */
+  protected int pos;
+
+  /** Sorted runs on disk, if the input didn't fit in memory. */
+  protected LinkedList<TempHeapFile> runs;
+
+  /** Run cursors of the final merge, ordered by their heads. */
+  protected PriorityQueue<Cursor> merge;
+
+  /** True once the input has been read. */
+  protected boolean started;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a sort of the input on the given fields, holding at most the
+   * given number of pages of tuples in memory.
+   *
+   * @param desc true for each field to sort in descending order
+   */
+  public Sort(Iterator input, int[] fields, boolean[] desc, int memPages) {
+    setSchema(input.getSchema());
+    this.input = input;
+    this.comp = new TupleComparator(input.getSchema(), fields, desc);
+    this.memPages = Math.max(1, memPages);
+    this.budget = (long) this.memPages * PAGE_SIZE;
+    this.fanin = Math.max(2, this.memPages - 1);
+    this.runs = new LinkedList<TempHeapFile>();
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    indent(depth);
+    System.out.println("Sort : " + comp.toString(getSchema()) + " ("
+        + memPages + " pages)");
+    input.explain(depth + 1);
+  }
+
+  /**
+   * Restarts the iterator from the first sorted tuple; the input is not read
+   * again.
+   */
+  public void restart() {
+    if (!started) {
+      return;
+    }
+    if (runs.isEmpty()) {
+      pos = 0;
+    } else {
+      closeMerge();
+      openMerge();
+    }
+  }
+
+  /**
+   * Returns true if the iterator is open; false otherwise.
+   */
+  public boolean isOpen() {
+    return input != null;
+  }
+
+  /**
+   * Closes the iterator, releasing any resources (i.e. pinned pages and
+   * scratch files).
+   */
+  public void close() {
+    if (input != null) {
+      closeMerge();
+      for (TempHeapFile run : runs) {
+        run.deleteFile();
+      }
+      runs.clear();
+      buffer = null;
+      input.close();
+      input = null;
+    }
+  }
+
+  /**
+   * Returns true if there are more tuples, false otherwise.
+   */
+  public boolean hasNext() {
+    if (!started) {
+      start();
+      started = true;
+    }
+    if (runs.isEmpty()) {
+      return pos < buffer.size();
+    }
+    return !merge.isEmpty();
+  }
+
+  /**
+   * Gets the next tuple in the iteration.
+   *
+   * @throws IllegalStateException if no more tuples
+   */
+  public Tuple getNext() {
+    if (!hasNext()) {
+      throw new IllegalStateException("no more tuples");
+    }
+    if (runs.isEmpty()) {
+      return buffer.get(pos++);
+    }
+    Cursor cursor = merge.poll();
+    Tuple tuple = cursor.head;
+    if (cursor.advance()) {
+      merge.add(cursor);
+    }
+    return tuple;
+  }
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Reads and sorts the whole input, reducing it to at most one fan-in of
+   * runs if it doesn't fit in memory.
+   */
+  protected void start() {
+    boolean spillable = getSchema().getLength() <= MAX_TUPSIZE;
+    buffer = new ArrayList<Tuple>();
+    long bytes = 0;
+    while (input.hasNext()) {
+      Tuple tuple = input.getNext();
+      buffer.add(tuple);
+      bytes += tuple.getData().length;
+      if (bytes > budget && spillable) {
+        spillRun();
+        bytes = 0;
+      }
+    }
+    Collections.sort(buffer, comp);
+    if (runs.isEmpty()) {
+      return;
+    }
+
+    // the remaining tuples become the last run
+    if (!buffer.isEmpty()) {
+      spillRun();
+    }
+    buffer = null;
+    while (runs.size() > fanin) {
+      List<TempHeapFile> inputs = new ArrayList<TempHeapFile>();
+      for (int i = 0; i < fanin; i++) {
+        inputs.add(runs.removeFirst());
+      }
+      runs.addLast(mergeRuns(inputs));
+    }
+    openMerge();
+
+  } // protected void start()
+
+  /**
+   * Sorts the buffered tuples and writes them out as a new run.
+   */
+  protected void spillRun() {
+    Collections.sort(buffer, comp);
+    TempHeapFile run = new TempHeapFile();
+    for (Tuple tuple : buffer) {
+      tuple.insertIntoFile(run);
+    }
+    runs.addLast(run);
+    buffer.clear();
+  }
+
+  /**
+   * Merges the given runs into a new one, deleting them.
+   */
+  protected TempHeapFile mergeRuns(List<TempHeapFile> inputs) {
+    PriorityQueue<Cursor> queue = newQueue(inputs.size());
+    for (TempHeapFile run : inputs) {
+      addCursor(queue, run);
+    }
+    TempHeapFile output = new TempHeapFile();
+    while (!queue.isEmpty()) {
+      Cursor cursor = queue.poll();
+      cursor.head.insertIntoFile(output);
+      if (cursor.advance()) {
+        queue.add(cursor);
+      }
+    }
+    for (TempHeapFile run : inputs) {
+      run.deleteFile();
+    }
+    return output;
+  }
+
+  /**
+   * Opens the final merge over all of the remaining runs.
+   */
+  protected void openMerge() {
+    merge = newQueue(runs.size());
+    for (TempHeapFile run : runs) {
+      addCursor(merge, run);
+    }
+  }
+
+  /**
+   * Closes the scans of the final merge, if open.
+   */
+  protected void closeMerge() {
+    if (merge != null) {
+      for (Cursor cursor : merge) {
+        cursor.scan.close();
+      }
+      merge = null;
+    }
+  }
+
+  /**
+   * Creates an empty merge queue that orders cursors by their heads.
+   */
+  protected PriorityQueue<Cursor> newQueue(int size) {
+    return new PriorityQueue<Cursor>(Math.max(1, size),
+        new Comparator<Cursor>() {
+          public int compare(Cursor c1, Cursor c2) {
+            return comp.compare(c1.head, c2.head);
+          }
+        });
+  }
+
+  /**
+   * Adds a cursor over the given run to a merge queue, unless it is empty.
+   */
+  protected void addCursor(PriorityQueue<Cursor> queue, TempHeapFile run) {
+    FileScan scan = new FileScan(getSchema(), run);
+    if (scan.hasNext()) {
+      queue.add(new Cursor(scan));
+    } else {
+      scan.close();
+    }
+  }
+
+} // public class Sort extends Iterator implements GlobalConst
@@ -0,0 +1,117 @@
+package relop;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+
+/**
+ * Duplicate elimination for an input that is already sorted on some of its
+ * fields. Duplicates can only occur among tuples with equal sort fields, so
+ * only the distinct tuples of the current group of equal sort fields are kept
+ * in memory; if the input is sorted on all of its fields, that is a single
+ * tuple. The output keeps the order of the input.
+ */
+public class SortedDistinct extends Iterator {
+
+  /** Tuples to deduplicate. */
+  protected Iterator input;
+
+  /** Compares the fields the input is sorted on. */
+  protected TupleComparator comp;
+
+  /** Distinct tuples of the current group. */
+  protected HashSet<ByteBuffer> group;
+
+  /** First tuple of the current group, or null before the first one. */
+  protected Tuple first;
+
+  /** Next tuple to return, if already found. */
+  protected Tuple next;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a duplicate elimination of an input sorted on the given fields
+   * (in either direction).
+   */
+  public SortedDistinct(Iterator input, int[] fields) {
+    setSchema(input.getSchema());
+    this.input = input;
+    this.comp = new TupleComparator(input.getSchema(), fields,
+        new boolean[fields.length]);
+    this.group = new HashSet<ByteBuffer>();
+  }
+
+  /**
+   * Gives a one-line explanation of the iterator, then explains its children.
+   */
+  public void explain(int depth) {
+    indent(depth);
+    System.out.println("SortedDistinct : " + comp.toString(getSchema()));
+    input.explain(depth + 1);
+  }
+
+  /**
+   * Restarts the iterator, i.e. as if it were just constructed.
+   */
+  public void restart() {
+    input.restart();
+    group.clear();
+    first = null;
+    next = null;
+  }
+
+  /**
+   * Returns true if the iterator is open; false otherwise.
+   */
+  public boolean isOpen() {
+    return input != null;
+  }
+
+  /**
+   * Closes the iterator, releasing any resources (i.e. pinned pages).
+   */
+  public void close() {
+    if (input != null) {
+      input.close();
+      input = null;
+      group.clear();
+    }
+  }
+
+  /**
+   * Returns true if there are more tuples, false otherwise.
+   */
+  public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+    while (input.hasNext()) {
+      Tuple tuple = input.getNext();
+      if (first == null || comp.compare(first, tuple) != 0) {
+        // a new group starts
+        group.clear();
+        first = tuple;
+      }
+      if (group.add(ByteBuffer.wrap(tuple.getData()))) {
+        next = tuple;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the next tuple in the iteration.
+   *
+   * @throws IllegalStateException if no more tuples
+   */
+  public Tuple getNext() {
+    if (!hasNext()) {
+      throw new IllegalStateException("no more tuples");
+    }
+    Tuple tuple = next;
+    next = null;
+    return tuple;
+  }
+
+} // public class SortedDistinct extends Iterator
@@ -0,0 +1,40 @@
+package relop;
+
+import global.Minibase;
+import heap.HeapFile;
+
+/**
+ * Scratch heap file for operators that spill to disk. Unlike an unnamed
+ * (temporary) HeapFile, it is never deleted by the garbage collector, which
+ * could otherwise free its pages long after the operator released them; the
+ * operator that creates it must call deleteFile() when done.
+ */
+public class TempHeapFile extends HeapFile {
+
+  /** Prefix of scratch file names; not a valid identifier in MiniSQL. */
+  protected static final String PREFIX = "#tmp";
+
+  /** Sequence number of the last scratch file created. */
+  protected static int counter = 0;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Creates a new, empty scratch file.
+   */
+  public TempHeapFile() {
+    super(nextName());
+  }
+
+  /**
+   * Gets a file name that isn't used in the current database.
+   */
+  protected static synchronized String nextName() {
+    String name;
+    do {
+      name = PREFIX + (++counter);
+    } while (Minibase.DiskManager.get_file_entry(name) != null);
+    return name;
+  }
+
+} // public class TempHeapFile extends HeapFile
@@ -0,0 +1,82 @@
+package relop;
+
+import java.util.Comparator;
+
+/**
+ * Orders tuples on one or more fields, each ascending or descending, comparing
+ * the tuples' raw bytes.
+ */
+public class TupleComparator implements Comparator<Tuple> {
+
+  /** Field numbers to sort on, most significant first. */
+  protected final int[] fields;
+
+  /** True for each field sorted in descending order. */
+  protected final boolean[] desc;
+
+  /** Key accessor of each field. */
+  protected final KeyField[] keys;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs a comparator on the given fields of the given schema.
+   *
+   * @param desc true for each field to sort in descending order
+   */
+  public TupleComparator(Schema schema, int[] fields, boolean[] desc) {
+    this.fields = fields;
+    this.desc = desc;
+    this.keys = new KeyField[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      keys[i] = new KeyField(schema, fields[i]);
+    }
+  }
+
+  /**
+   * Gets the field numbers to sort on, most significant first.
+   */
+  public int[] getFields() {
+    return fields;
+  }
+
+  /**
+   * Gets whether each field is sorted in descending order.
+   */
+  public boolean[] getDesc() {
+    return desc;
+  }
+
+  /**
+   * Compares two tuples of the comparator's schema.
+   */
+  public int compare(Tuple t1, Tuple t2) {
+    byte[] d1 = t1.getData();
+    byte[] d2 = t2.getData();
+    for (int i = 0; i < keys.length; i++) {
+      int c = keys[i].compare(d1, keys[i], d2);
+      if (c != 0) {
+        return desc[i] ? -c : c;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Describes the sort order, e.g. "sid, age DESC".
+   */
+  public String toString(Schema schema) {
+    StringBuilder str = new StringBuilder();
+    for (int i = 0; i < fields.length; i++) {
+      if (i > 0) {
+        str.append(", ");
+      }
+      str.append(schema.fieldName(fields[i]));
+      if (desc[i]) {
+        str.append(" DESC");
+      }
+    }
+    return str.toString();
+  }
+
+} // public class TupleComparator implements Comparator<Tuple>
@@ -0,0 +1,20 @@
+package relop;
+
+/**
+ * A condition compiled against one schema, which tests a tuple's raw bytes
+ * directly instead of looking up and boxing its fields.
+ */
+public interface TupleFilter {
+
+  /** Filter that every tuple passes. */
+  TupleFilter TRUE = data -> true;
+
+  /** Filter that no tuple passes. */
+  TupleFilter FALSE = data -> false;
+
+  /**
+   * True if the tuple with the given data passes the condition.
+   */
+  boolean matches(byte[] data);
+
+} // public interface TupleFilter
@@ -0,0 +1,156 @@
+package relop;
+
+import java.util.Arrays;
+
+/**
+ * In-memory hash table of tuples keyed on one of their fields, allowing
+ * duplicate keys. Unlike HashTableDup, keys are hashed and compared directly
+ * on the tuples' raw bytes, and entries are chained through parallel arrays
+ * rather than boxed into SearchKeys and lists.
+ */
+public class TupleHashTable {
+
+  /** Marks the end of a bucket chain. */
+  public static final int END = -1;
+
+  /** Key field of the stored tuples. */
+  protected final KeyField key;
+
+  /** First entry of each bucket; the bucket count is a power of two. */
+  protected int[] heads;
+
+  /** Next entry in the same bucket, for each entry. */
+  protected int[] next;
+
+  /** Full hash code of each entry. */
+  protected int[] hashes;
+
+  /** The stored tuples. */
+  protected Tuple[] tuples;
+
+  /** Number of stored entries. */
+  protected int size;
+
+  /** Total number of bytes of tuple data stored. */
+  protected long bytes;
+
+  // --------------------------------------------------------------------------
+
+  /**
+   * Constructs an empty table keyed on the given field.
+   */
+  public TupleHashTable(KeyField key) {
+    this.key = key;
+    clear();
+  }
+
+  /**
+   * Removes every entry from the table.
+   */
+  public void clear() {
+    heads = new int[64];
+    Arrays.fill(heads, END);
+    next = new int[64];
+    hashes = new int[64];
+    tuples = new Tuple[64];
+    size = 0;
+    bytes = 0;
+  }
+
+  /**
+   * Gets the number of stored tuples.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the total number of bytes of tuple data stored.
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Adds a tuple under its own key.
+   */
+  public void add(Tuple tuple) {
+    if (size == tuples.length) {
+      grow();
+    }
+    int hash = key.hash(tuple.getData());
+    int bucket = hash & (heads.length - 1);
+    hashes[size] = hash;
+    tuples[size] = tuple;
+    next[size] = heads[bucket];
+    heads[bucket] = size;
+    bytes += tuple.getData().length;
+    size++;
+  }
+
+  /**
+   * Gets the first entry that may match the given probe key, or END.
+   *
+   * @param probeKey key field of the probing tuple
+   * @param data the probing tuple's data
+   */
+  public int first(KeyField probeKey, byte[] data) {
+    int hash = probeKey.hash(data);
+    return match(heads[hash & (heads.length - 1)], hash, probeKey, data);
+  }
+
+  /**
+   * Gets the entry after the given one that matches the same probe key, or
+   * END.
+   */
+  public int next(int entry, KeyField probeKey, byte[] data) {
+    return match(next[entry], hashes[entry], probeKey, data);
+  }
+
+  /**
+   * Gets the tuple stored in the given entry.
+   */
+  public Tuple get(int entry) {
+    return tuples[entry];
+  }
+
+  /**
+   * True if the table has a tuple whose key equals the probe key.
+   */
+  public boolean contains(KeyField probeKey, byte[] data) {
+    return first(probeKey, data) != END;
+  }
+
+  /**
+   * Walks a bucket chain from the given entry to the first real match.
+   */
+  protected int match(int entry, int hash, KeyField probeKey, byte[] data) {
+    while (entry != END) {
+      if (hashes[entry] == hash
+          && key.equals(tuples[entry].getData(), probeKey, data)) {
+        return entry;
+      }
+      entry = next[entry];
+    }
+    return END;
+  }
+
+  /**
+   * Doubles the entry arrays and the bucket count, then rechains the entries.
+   */
+  protected void grow() {
+    int capacity = tuples.length * 2;
+    next = Arrays.copyOf(next, capacity);
+    hashes = Arrays.copyOf(hashes, capacity);
+    tuples = Arrays.copyOf(tuples, capacity);
+
+    heads = new int[capacity];
+    Arrays.fill(heads, END);
+    for (int i = 0; i < size; i++) {
+      int bucket = hashes[i] & (capacity - 1);
+      next[i] = heads[bucket];
+      heads[bucket] = i;
+    }
+  }
+
+} // public class TupleHashTable
@@ -0,0 +1,110 @@
+package tests;
+
+import global.AttrOperator;
+import global.AttrType;
+import global.Minibase;
+import global.Msql;
+import query.CardinalityEstimator;
+import query.ColumnStats;
+import query.PredicateManager;
+import query.QueryException;
+import relop.Predicate;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnalyzeTest extends MinibaseTest {
+
+  @Before
+  public void setUp() throws Exception {
+    super.setUp();
+    Msql.execute("CREATE TABLE Nums (n INTEGER, f FLOAT, s STRING(20));\nQUIT;");
+
+    // n is 0..99, f has 10 values, s has 2 values
+    StringBuilder sql = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      sql.append("INSERT INTO Nums VALUES (" + i + ", " + (i % 10) + ".5, '" + (i < 90 ? "common" : "rare") + "');\n");
+    }
+    sql.append("QUIT;");
+    Msql.execute(sql.toString());
+  }
+
+  private ColumnStats[] analyze() throws Exception {
+    Msql.execute("ANALYZE Nums;\nQUIT;");
+    return Minibase.SystemCatalog.getStats("Nums", Minibase.SystemCatalog.getSchema("Nums"));
+  }
+
+  @Test
+  public void testAnalyzeSummary() throws Exception {
+    ColumnStats[] stats = analyze();
+    Assert.assertEquals("Expected one entry per column", 3, stats.length);
+
+    Assert.assertEquals("Expected different row count", 100, stats[0].getRowCount());
+    Assert.assertEquals("Expected different distinct count", 100, stats[0].getDistinctCount());
+    Assert.assertEquals("Expected different min", 0, stats[0].getMin());
+    Assert.assertEquals("Expected different max", 99, stats[0].getMax());
+    Assert.assertEquals("Expected no nulls", 0, stats[0].getNullCount());
+
+    Assert.assertEquals("Expected different distinct count", 10, stats[1].getDistinctCount());
+    Assert.assertEquals("Expected different min", 0.5f, stats[1].getMin());
+    Assert.assertEquals("Expected different distinct count", 2, stats[2].getDistinctCount());
+    Assert.assertEquals("Expected different max", "rare", stats[2].getMax());
+  }
+
+  @Test
+  public void testAnalyzeHistogram() throws Exception {
+    ColumnStats n = analyze()[0];
+    Assert.assertEquals("Expected a full histogram", ColumnStats.MAX_BUCKETS, n.getBucketCount());
+    int rows = 0;
+    for (int i = 0; i < n.getBucketCount(); i++) {
+      Assert.assertEquals("Expected equi-depth buckets", 10, n.getBucketRows(i));
+      rows += n.getBucketRows(i);
+    }
+    Assert.assertEquals("Expected buckets to cover every row", 100, rows);
+
+    Assert.assertEquals(0.25, n.selectivity(AttrOperator.LT, 25), 0.02);
+    Assert.assertEquals(0.01, n.selectivity(AttrOperator.EQ, 42), 0.001);
+    Assert.assertEquals(0.0, n.selectivity(AttrOperator.EQ, 500), 0.0);
+
+    ColumnStats s = analyze()[2];
+    Assert.assertEquals(0.9, s.selectivity(AttrOperator.EQ, "common"), 0.001);
+    Assert.assertEquals(0.1, s.selectivity(AttrOperator.EQ, "rare"), 0.001);
+  }
+
+  @Test
+  public void testEstimatorUsesStats() throws Exception {
+    Predicate[][] preds = {
+        { new Predicate(AttrOperator.LT, AttrType.COLNAME, "n", AttrType.INTEGER, 25) },
+        { new Predicate(AttrOperator.EQ, AttrType.STRING, "rare", AttrType.COLNAME, "s") }
+    };
+    String[] tables = { "Nums" };
+
+    // without statistics, the defaults apply
+    CardinalityEstimator ce = new CardinalityEstimator(new PredicateManager(preds, tables), tables);
+    Assert.assertEquals(100 * CardinalityEstimator.RANGE_SELECTIVITY * CardinalityEstimator.EQ_SELECTIVITY,
+        ce.filter(100, Arrays.asList(preds)), 0.001);
+    Assert.assertEquals("Expected every value to be distinct", 100, ce.getDistinct("f"), 0.0);
+
+    analyze();
+    ce = new CardinalityEstimator(new PredicateManager(preds, tables), tables);
+    Assert.assertEquals(100 * 0.25 * 0.1, ce.filter(100, Arrays.asList(preds)), 0.2);
+    Assert.assertEquals("Expected the analyzed distinct count", 10, ce.getDistinct("f"), 0.0);
+  }
+
+  @Test
+  public void testDropTableDropsStats() throws Exception {
+    analyze();
+    Msql.execute("DROP TABLE Nums;\nCREATE TABLE Nums (n INTEGER, f FLOAT, s STRING(20));\nQUIT;");
+    ColumnStats[] stats = Minibase.SystemCatalog.getStats("Nums", Minibase.SystemCatalog.getSchema("Nums"));
+    Assert.assertNull("Expected no statistics", stats[0]);
+  }
+
+  @Test (expected=QueryException.class)
+  public void testAnalyzeInvalidTable() throws Exception {
+    Msql.execute("ANALYZE Bad;\nQUIT;");
+  }
+
+}
@@ -0,0 +1,140 @@
+package tests;
+
+import global.PageId;
+import global.RID;
+import global.SearchKey;
+import index.BTreeIndex;
+import index.BTreeScan;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BTreeIndexTest extends MinibaseTest {
+
+  /** Gets the slot numbers of the record ids a scan finds, in order. */
+  private List<Integer> slots(BTreeScan scan) {
+    List<Integer> slots = new ArrayList<Integer>();
+    while (scan.hasNext()) {
+      slots.add(scan.getNext().slotno);
+    }
+    scan.close();
+    return slots;
+  }
+
+  @Test
+  public void testInsertSplitsAndScansInOrder() {
+    BTreeIndex index = new BTreeIndex("IX_Test");
+
+    // enough entries, with repeated keys, to need several levels
+    for (int i = 0; i < 3000; i++) {
+      index.insertEntry(new SearchKey((i * 7) % 500), new RID(new PageId(i / 10), i));
+    }
+    Assert.assertTrue("Expected the root to split", index.getHeight() > 2);
+
+    BTreeScan scan = index.openScan();
+    int count = 0;
+    SearchKey last = null;
+    while (scan.hasNext()) {
+      scan.getNext();
+      Assert.assertTrue("Expected keys in order", last == null || last.compareTo(scan.getLastKey()) <= 0);
+      last = scan.getLastKey();
+      count++;
+    }
+    scan.close();
+    Assert.assertEquals("Expected every entry", 3000, count);
+
+    Assert.assertEquals("Expected every entry with the key", 6, slots(index.openScan(new SearchKey(42))).size());
+    Assert.assertEquals("Expected both bounds", 18, slots(index.openScan(new SearchKey(10), true, new SearchKey(12), true)).size());
+    Assert.assertEquals("Expected neither bound", 6, slots(index.openScan(new SearchKey(10), false, new SearchKey(12), false)).size());
+    Assert.assertEquals("Expected no upper bound", 18, slots(index.openScan(new SearchKey(497), true, null, false)).size());
+    Assert.assertEquals("Expected an empty range", 0, slots(index.openScan(new SearchKey(600), true, null, false)).size());
+
+    index.deleteFile();
+  }
+
+  @Test
+  public void testDeleteEntries() {
+    BTreeIndex index = new BTreeIndex("IX_Test");
+    for (int i = 0; i < 1000; i++) {
+      index.insertEntry(new SearchKey("key " + (i % 100)), new RID(new PageId(1), i));
+    }
+
+    // only the entry with the given record id goes
+    for (int i = 0; i < 1000; i += 100) {
+      index.deleteEntry(new SearchKey("key 0"), new RID(new PageId(1), i));
+    }
+    index.deleteEntry(new SearchKey("key 1"), new RID(new PageId(1), 1));
+    Assert.assertEquals("Expected no entries", 0, slots(index.openScan(new SearchKey("key 0"))).size());
+    Assert.assertEquals("Expected the other entries", 9, slots(index.openScan(new SearchKey("key 1"))).size());
+    Assert.assertEquals("Expected the rest", 989, slots(index.openScan()).size());
+
+    try {
+      index.deleteEntry(new SearchKey("key 1"), new RID(new PageId(1), 1));
+      Assert.fail("Expected the entry to be gone");
+    } catch (IllegalArgumentException exc) {
+      // expected
+    }
+    index.deleteFile();
+  }
+
+  @Test
+  public void testBulkLoad() {
+    int count = 2000;
+    SearchKey[] keys = new SearchKey[count];
+    RID[] rids = new RID[count];
+    for (int i = 0; i < count; i++) {
+      keys[i] = new SearchKey((float) ((i * 13) % 250));
+      rids[i] = new RID(new PageId(i % 17), i);
+    }
+    BTreeIndex index = new BTreeIndex("IX_Test");
+    index.bulkLoad(keys, rids);
+    Assert.assertTrue("Expected inner pages", index.getHeight() > 1);
+
+    List<Integer> found = slots(index.openScan(new SearchKey(100f), true, new SearchKey(110f), false));
+    Assert.assertEquals("Expected different number of entries", 80, found.size());
+    for (int slot : found) {
+      float key = (slot * 13) % 250;
+      Assert.assertTrue("Expected a key in range", key >= 100 && key < 110);
+    }
+
+    // the loaded tree takes further inserts like any other
+    index.insertEntry(new SearchKey(105f), new RID(new PageId(99), count));
+    Assert.assertEquals("Expected the new entry", 9, slots(index.openScan(new SearchKey(105f))).size());
+
+    try {
+      index.bulkLoad(keys, rids);
+      Assert.fail("Expected only an empty index to be loaded");
+    } catch (IllegalStateException exc) {
+      // expected
+    }
+    index.deleteFile();
+  }
+
+  @Test
+  public void testBulkLoadAfterDeletes() {
+    BTreeIndex index = new BTreeIndex("IX_Test");
+    for (int i = 0; i < 300; i++) {
+      index.insertEntry(new SearchKey(i), new RID(new PageId(i % 7), i));
+    }
+    for (int i = 0; i < 300; i++) {
+      index.deleteEntry(new SearchKey(i), new RID(new PageId(i % 7), i));
+    }
+
+    // the emptied tree keeps its levels, but takes a bulk load all the same
+    Assert.assertTrue("Expected inner pages", index.getHeight() > 1);
+    Assert.assertTrue("Expected an empty index", index.isEmpty());
+    SearchKey[] keys = new SearchKey[50];
+    RID[] rids = new RID[50];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = new SearchKey(i);
+      rids[i] = new RID(new PageId(1), i);
+    }
+    index.bulkLoad(keys, rids);
+    Assert.assertEquals("Expected the loaded entries", 50, slots(index.openScan()).size());
+    index.deleteFile();
+  }
+
+}
@@ -35,6 +35,55 @@ public class CreateIndexTest extends MinibaseTest {
     Assert.assertTrue("The index was not built on the correct column.", passes);
   }
 
+  @Test
+  public void testCreateBTreeIndex() throws Exception {
+    Msql.execute("CREATE TABLE Students (sid INTEGER, name STRING(50), age FLOAT);\nCREATE INDEX IX_Age ON Students(Age) USING BTREE;\nQUIT;");
+
+    IndexDesc[] indexes = Minibase.SystemCatalog.getIndexes("Students");
+    Assert.assertEquals("Expected one index", 1, indexes.length);
+    Assert.assertTrue("The index should be a B+ tree.", indexes[0].isBTree());
+    Assert.assertEquals("Expected the catalog to record the type", IndexDesc.BTREE, indexes[0].indexType);
+  }
+
+  @Test
+  public void testCreateCompositeIndex() throws Exception {
+    Msql.execute("CREATE TABLE Grades (gsid INTEGER, gcid INTEGER, grade FLOAT);\nCREATE INDEX IX_SC ON Grades(gsid, gcid) USING BTREE;\nQUIT;");
+
+    IndexDesc index = Minibase.SystemCatalog.getIndex("IX_SC");
+    Assert.assertArrayEquals("Expected the columns in key order", new String[] { "gsid", "gcid" }, index.columnNames);
+
+    Msql.execute("DROP INDEX IX_SC;\nQUIT;");
+    Assert.assertNull("Expected every catalog row to be gone", Minibase.SystemCatalog.getIndex("IX_SC"));
+  }
+
+  @Test
+  public void testCreateBTreeBesideHashIndex() throws Exception {
+    Msql.execute("CREATE TABLE Students (sid INTEGER, name STRING(50), age FLOAT);\nCREATE INDEX IX_Age ON Students(Age);\n"
+        + "CREATE INDEX IX_AgeTree ON Students(age) USING BTREE;\nQUIT;");
+    Assert.assertEquals("Expected both indexes", 2, Minibase.SystemCatalog.getIndexes("Students").length);
+  }
+
+  @Test (expected=QueryException.class)
+  public void testCreateDuplicateIndexOtherCase() throws Exception {
+    Msql.execute("CREATE TABLE Students (sid INTEGER, name STRING(50), age FLOAT);\nCREATE INDEX IX_Age ON Students(Age) USING BTREE;\nQUIT;");
+    Msql.execute("CREATE INDEX IX_Age2 ON Students(AGE) USING btree;\nQUIT;");
+  }
+
+  @Test (expected=QueryException.class)
+  public void testCreateHashIndexInclude() throws Exception {
+    Msql.execute("CREATE TABLE Grades (gsid INTEGER, gcid INTEGER, grade FLOAT);\nCREATE INDEX IX_SC ON Grades(gsid) INCLUDE (grade);\nQUIT;");
+  }
+
+  @Test (expected=QueryException.class)
+  public void testCreateIndexRepeatedColumn() throws Exception {
+    Msql.execute("CREATE TABLE Grades (gsid INTEGER, gcid INTEGER, grade FLOAT);\nCREATE INDEX IX_SC ON Grades(gsid, GSID);\nQUIT;");
+  }
+
+  @Test (expected=QueryException.class)
+  public void testCreateIndexBadType() throws Exception {
+    Msql.execute("CREATE TABLE Students (sid INTEGER, name STRING(50), age FLOAT);\nCREATE INDEX IX_Age ON Students(Age) USING BITMAP;\nQUIT;");
+  }
+
   @Test (expected=QueryException.class)
   public void testCreateDuplicateNamedIndex() throws QueryException {
     try {
@@ -8,6 +8,9 @@ import global.Minibase;
 import global.Msql;
 
 import heap.HeapFile;
+import global.SearchKey;
+import index.HashIndex;
+import index.HashScan;
 
 import relop.Tuple;
 import relop.FileScan;
@@ -76,6 +79,52 @@ public class DeleteTest extends MinibaseTest {
     scan.close();
   }
 
+  @Test
+  public void testDeleteThroughIndex() throws Exception {
+    // enough rows that the index is cheaper than a file scan
+    StringBuilder insert = new StringBuilder("INSERT INTO Students VALUES (100, 'Filler', 1.0)");
+    for (int i = 101; i < 400; i++) {
+      insert.append(", (").append(i).append(", 'Filler', 1.0)");
+    }
+    Msql.execute(insert + ";\nQUIT;");
+
+    Msql.execute("CREATE INDEX IX_Name ON Students(name);\nDELETE Students WHERE name = 'Chris' or name = 'Alice';\nDELETE Students WHERE name = 'Bob' and age > 40.0;\nQUIT;");
+
+    Assert.assertEquals("The record stats weren't updated properly", 303, Minibase.SystemCatalog.getRecCount("Students"));
+    HeapFile file = new HeapFile("Students");
+    FileScan scan = new FileScan(Minibase.SystemCatalog.getSchema("Students"), file);
+    int rowCount = 0;
+    while (scan.hasNext()) {
+      Tuple t = scan.getNext();
+      Assert.assertFalse("Row with name 'Chris' wasn't deleted", "Chris".equals(t.getField("name")));
+      Assert.assertFalse("Row with name 'Alice' wasn't deleted", "Alice".equals(t.getField("name")));
+      rowCount++;
+    }
+    scan.close();
+    Assert.assertEquals("Rows failing the other predicates were deleted", 303, rowCount);
+
+    HashScan index = new HashIndex("IX_Name").openScan(new SearchKey("Chris"));
+    Assert.assertFalse("Index entry wasn't deleted", index.hasNext());
+    index.close();
+  }
+
+  @Test
+  public void testDeleteEveryPage() throws Exception {
+    StringBuilder insert = new StringBuilder("INSERT INTO Students VALUES (100, 'Filler', 1.0)");
+    for (int i = 101; i < 400; i++) {
+      insert.append(", (").append(i).append(", 'Filler', 1.0)");
+    }
+    Msql.execute(insert + ";\nQUIT;");
+
+    // emptied pages are freed, so none may still be pinned by the scan
+    Msql.execute("DELETE Students;\nQUIT;");
+
+    Assert.assertEquals("The record stats weren't updated properly", 0, Minibase.SystemCatalog.getRecCount("Students"));
+    FileScan scan = new FileScan(Minibase.SystemCatalog.getSchema("Students"), new HeapFile("Students"));
+    Assert.assertFalse("Rows weren't deleted", scan.hasNext());
+    scan.close();
+  }
+
   @Test
   public void testNoRowsToDelete() throws ParseException, QueryException, TokenMgrError {
     Msql.execute("DELETE Students WHERE name = 'Elliott';\nQUIT;");
@@ -52,6 +52,30 @@ public class DropIndexTest extends MinibaseTest {
     }
   }
 
+  @Test
+  public void testCatalogReloadedOnOpen() throws Exception {
+    Msql.execute("CREATE TABLE Students (sid INTEGER, name STRING(50), age FLOAT);\n"
+        + "CREATE TABLE Gone (x INTEGER);\n"
+        + "CREATE INDEX IX_Age ON Students(age);\n"
+        + "CREATE INDEX IX_Name ON Students(name, sid) USING BTREE;\n"
+        + "INSERT INTO Students VALUES (1, 'Alice', 25.67);\n"
+        + "INSERT INTO Students VALUES (2, 'Bob', 30.0);\n"
+        + "DROP INDEX IX_Age;\nDROP TABLE Gone;\nQUIT;");
+
+    // reopen the database, which loads the catalog from its files
+    Minibase.BufferManager.flushAllPages();
+    Minibase.DiskManager.closeDB();
+    new Minibase(PATH, DB_SIZE, BUF_SIZE, PRE_SIZE, "Clock", true);
+
+    Assert.assertEquals("Expected the same columns", 3, Minibase.SystemCatalog.getSchema("students").getCount());
+    Assert.assertEquals("Expected the same count", 2, Minibase.SystemCatalog.getRecCount("Students"));
+    Assert.assertNull("Expected the dropped table to stay dropped", Minibase.SystemCatalog.getFileRID("Gone", true));
+    IndexDesc[] indexes = Minibase.SystemCatalog.getIndexes("Students");
+    Assert.assertEquals("Expected only the remaining index", 1, indexes.length);
+    Assert.assertArrayEquals("Expected the same key columns", new String[] {"name", "sid"}, indexes[0].columnNames);
+    Assert.assertEquals("Expected the index by name", "IX_Name", Minibase.SystemCatalog.getIndex("ix_name").indexName);
+  }
+
   @Test (expected=QueryException.class)
   public void testDropBadIndex() throws QueryException {
     try {
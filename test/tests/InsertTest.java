@@ -3,6 +3,7 @@ package tests;
 import global.Minibase;
 import global.Msql;
 import heap.HeapFile;
+import index.BTreeIndex;
 import parser.TokenMgrError;
 import parser.ParseException;
 import query.QueryException;
@@ -14,6 +15,10 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.List;
+
 public class InsertTest extends MinibaseTest {
 
   @Before
@@ -62,6 +67,103 @@ public class InsertTest extends MinibaseTest {
     Assert.assertEquals("The record stats weren't updated properly", 2, Minibase.SystemCatalog.getRecCount("Students"));
   }
 
+  @Test
+  public void testRecordCountReconciledOnOpen() throws Exception {
+    Msql.execute("INSERT INTO Students VALUES (1, 'Alice', 25.67);\nINSERT INTO Students VALUES (2, 'Chris', 12.34);\nQUIT;");
+
+    // a row whose count change is never flushed, as if the system crashed
+    Schema schema = Minibase.SystemCatalog.getSchema("Students");
+    new Tuple(schema, 3, "Bob", 30.0f).insertIntoFile(new HeapFile("Students"));
+    Minibase.SystemCatalog.incrementCount("Students", 1);
+    Minibase.DiskManager.closeDB();
+
+    new Minibase(PATH, DB_SIZE, BUF_SIZE, PRE_SIZE, "Clock", true);
+    Assert.assertEquals("Expected the count of the heap file's records", 3, Minibase.SystemCatalog.getRecCount("Students"));
+  }
+
+  @Test
+  public void testInsertManyRows() throws Exception {
+    StringBuilder sql = new StringBuilder("INSERT INTO Students VALUES (0, 'row 0', 0.0)");
+    for (int i = 1; i < 2000; i++) {
+      sql.append(", (" + i + ", 'row " + i + "', " + (i % 50) + ".0)");
+    }
+    Msql.execute(sql + ";\nQUIT;");
+
+    Assert.assertEquals("Expected every row counted", 2000, Minibase.SystemCatalog.getRecCount("Students"));
+    Assert.assertEquals("Expected every row in the table", 2000, new HeapFile("Students").getRecCnt());
+
+    // the index on age has an entry for every row
+    List<Tuple> output = Msql.testableexecute("SELECT sid FROM Students WHERE age = 7.0;\nQUIT;");
+    Assert.assertEquals("Expected the rows with the key", 40, output.size());
+    for (Tuple t : output) {
+      Assert.assertEquals("Expected only rows with the key", 7, (int) t.getField("sid") % 50);
+    }
+  }
+
+  @Test
+  public void testInsertManyRowsOneBad() throws Exception {
+    try {
+      Msql.execute("INSERT INTO Students VALUES (1, 'Alice', 25.67), (2, 'Chris');\nQUIT;");
+      Assert.fail("Expected the short row to be rejected");
+    } catch (QueryException exc) {
+      // expected
+    }
+    Assert.assertEquals("Expected no rows inserted", 0, Minibase.SystemCatalog.getRecCount("Students"));
+  }
+
+  @Test
+  public void testCopyFromCsv() throws Exception {
+    File csv = File.createTempFile("students", ".csv");
+    try (PrintWriter out = new PrintWriter(csv)) {
+      for (int i = 0; i < 500; i++) {
+        out.println(i + ",name " + i + "," + (i % 25) + ".5");
+      }
+      out.println("500,\"Smith, \"\"Jo\"\"\",7.5");
+      out.println("501,too,many,values");
+      out.println("x,not a number,1.0");
+    }
+    try {
+      Msql.execute("CREATE INDEX IX_Name ON Students(name) USING BTREE;\nCOPY Students FROM '" + csv.getPath() + "';\nQUIT;");
+    } finally {
+      csv.delete();
+    }
+
+    Assert.assertEquals("Expected the well-formed rows counted", 501, Minibase.SystemCatalog.getRecCount("Students"));
+    Assert.assertEquals("Expected the rows with the hashed key", 21,
+        Msql.testableexecute("SELECT sid FROM Students WHERE age = 7.5;\nQUIT;").size());
+    List<Tuple> output = Msql.testableexecute("SELECT sid FROM Students WHERE name = 'Smith, \"Jo\"';\nQUIT;");
+    Assert.assertEquals("Expected the quoted row, through the B+ tree", 1, output.size());
+    Assert.assertEquals("Expected the quoted row's key", 500, output.get(0).getField("sid"));
+  }
+
+  @Test
+  public void testCopyIntoEmptiedTable() throws Exception {
+    File csv = File.createTempFile("students", ".csv");
+    try (PrintWriter out = new PrintWriter(csv)) {
+      for (int i = 0; i < 500; i++) {
+        out.println(i + ",name " + i + "," + (i % 25) + ".5");
+      }
+    }
+
+    // deleting every row leaves the B+ tree's inner pages behind
+    try {
+      Msql.execute("CREATE INDEX IX_Sid ON Students(sid) USING BTREE;\nCOPY Students FROM '" + csv.getPath() + "';\n"
+          + "DELETE Students;\nCOPY Students FROM '" + csv.getPath() + "';\nQUIT;");
+    } finally {
+      csv.delete();
+    }
+
+    Assert.assertEquals("Expected the rows copied again", 500, Minibase.SystemCatalog.getRecCount("Students"));
+    Assert.assertFalse("Expected the emptied index loaded", new BTreeIndex("IX_Sid").isEmpty());
+    Assert.assertEquals("Expected the rows in range, through the B+ tree", 10,
+        Msql.testableexecute("SELECT sid FROM Students WHERE sid >= 100 AND sid < 110;\nQUIT;").size());
+  }
+
+  @Test (expected=QueryException.class)
+  public void testCopyMissingFile() throws Exception {
+    Msql.execute("COPY Students FROM 'no such file.csv';\nQUIT;");
+  }
+
   @Test (expected=QueryException.class)
   public void testInsertBadRow() throws QueryException, ParseException, TokenMgrError {
     Msql.execute("INSERT INTO Students VALUES (1, 'Alice', 25.67, 'test');\nQUIT;");
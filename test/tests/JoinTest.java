@@ -0,0 +1,464 @@
+package tests;
+
+import global.Minibase;
+import global.Msql;
+import heap.HeapFile;
+import query.Optimizer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import relop.FileScan;
+import relop.GraceHashJoin;
+import relop.Iterator;
+import relop.MergeJoin;
+import relop.Sort;
+import relop.Tuple;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class JoinTest extends MinibaseTest {
+
+  private int workMemory;
+
+  @Before
+  public void setUp() throws Exception {
+    super.setUp();
+    workMemory = Optimizer.getWorkMemory();
+
+    Msql.execute("CREATE TABLE Big (x INTEGER, xpad STRING(100));\nQUIT;");
+    Msql.execute("CREATE TABLE Other (y INTEGER, ypad STRING(100));\nQUIT;");
+  }
+
+  @After
+  public void tearDown() {
+    Optimizer.setWorkMemory(workMemory);
+    super.tearDown();
+  }
+
+  private void load(String table, int rows, int mod, int offset) throws Exception {
+    StringBuilder sql = new StringBuilder();
+    for (int i = 0; i < rows; i++) {
+      sql.append("INSERT INTO " + table + " VALUES (" + (offset + i % mod) + ", 'row " + i + "');\n");
+    }
+    sql.append("QUIT;");
+    Msql.execute(sql.toString());
+  }
+
+  private String explain(String query) throws Exception {
+    PrintStream out = System.out;
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(buffer));
+    try {
+      Msql.execute("explain " + query + "\nQUIT;");
+    } finally {
+      System.setOut(out);
+    }
+    return buffer.toString();
+  }
+
+  private Iterator sorted(String table, int[] fields, boolean[] desc, int memPages) {
+    FileScan scan = new FileScan(Minibase.SystemCatalog.getSchema(table), new HeapFile(table));
+    return new Sort(scan, fields, desc, memPages);
+  }
+
+  @Test
+  public void testExternalSortOrder() throws Exception {
+    load("Big", 200, 7, 0);
+
+    Iterator sort = sorted("Big", new int[] {0, 1}, new boolean[] {true, false}, 2);
+    int count = 0;
+    Tuple prev = null;
+    while (sort.hasNext()) {
+      Tuple t = sort.getNext();
+      if (prev != null) {
+        int x = t.getIntFld(0);
+        Assert.assertTrue("Expected descending x", x <= prev.getIntFld(0));
+        if (x == prev.getIntFld(0)) {
+          Assert.assertTrue("Expected ascending xpad", t.getStringFld(1).compareTo(prev.getStringFld(1)) >= 0);
+        }
+      }
+      prev = t;
+      count++;
+    }
+    sort.restart();
+    Assert.assertEquals("Expected the largest key first", 6, sort.getNext().getIntFld(0));
+    sort.close();
+    Assert.assertEquals("Expected different number of tuples", 200, count);
+  }
+
+  @Test
+  public void testMergeJoinDuplicateKeys() throws Exception {
+    load("Big", 30, 5, 0);
+    load("Other", 20, 4, 2);
+
+    Iterator join = new MergeJoin(sorted("Big", new int[] {0}, new boolean[] {false}, 1),
+        sorted("Other", new int[] {0}, new boolean[] {false}, 1), 0, 0);
+    int count = 0;
+    while (join.hasNext()) {
+      Tuple t = join.getNext();
+      Assert.assertEquals("Join keys should match", t.getField("x"), t.getField("y"));
+      count++;
+    }
+    join.close();
+    Assert.assertEquals("Expected different number of tuples", 90, count);
+  }
+
+  @Test
+  public void testOrderBySpills() throws Exception {
+    load("Big", 200, 37, 0);
+    Optimizer.setWorkMemory(2);
+
+    List<Tuple> output = Msql.testableexecute("SELECT x FROM Big ORDER BY x DESC;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 200, output.size());
+    for (int i = 1; i < output.size(); i++) {
+      Assert.assertTrue("Expected descending x", (Integer) output.get(i).getField("x") <= (Integer) output.get(i - 1).getField("x"));
+    }
+  }
+
+  @Test
+  public void testDistinctSpills() throws Exception {
+    load("Big", 300, 120, 0);
+    Optimizer.setWorkMemory(2);
+
+    List<Tuple> output = Msql.testableexecute("SELECT DISTINCT x FROM Big;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 120, output.size());
+    Set<Object> keys = new HashSet<Object>();
+    for (Tuple t : output) {
+      Assert.assertTrue("Expected no duplicates", keys.add(t.getField("x")));
+    }
+  }
+
+  @Test
+  public void testIndexJoinAppliesInnerFilters() throws Exception {
+    Msql.execute("CREATE INDEX IX_Y ON Other(y);\nQUIT;");
+    load("Big", 5, 5, 0);
+    load("Other", 300, 50, 0);
+
+    List<Tuple> output = Msql.testableexecute("SELECT * FROM Big, Other WHERE x = y AND ypad <> 'row 0';\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 29, output.size());
+    for (Tuple t : output) {
+      Assert.assertEquals("Join keys should match", t.getField("x"), t.getField("y"));
+    }
+  }
+
+  @Test
+  public void testProjectionPushdown() throws Exception {
+    Msql.execute("CREATE INDEX IX_Y ON Other(y);\nQUIT;");
+    load("Big", 5, 5, 0);
+    load("Other", 300, 50, 0);
+
+    // only ypad is output, but x is still needed for the join and the sort
+    List<Tuple> output = Msql.testableexecute("SELECT ypad FROM Big, Other WHERE x = y ORDER BY x DESC;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 30, output.size());
+    int last = Integer.MAX_VALUE;
+    for (Tuple t : output) {
+      Assert.assertEquals("Expected only the selected column", 1, t.getAllFields().length);
+      int key = Integer.parseInt(((String) t.getField("ypad")).substring(4)) % 50;
+      Assert.assertTrue("Expected descending join keys", key <= last);
+      last = key;
+    }
+  }
+
+  @Test
+  public void testChainJoinAvoidsCrossProduct() throws Exception {
+    Msql.execute("CREATE TABLE Mid (m1 INTEGER, m2 INTEGER);\nQUIT;");
+    load("Big", 1, 1, 0);
+    load("Other", 1, 1, 0);
+    StringBuilder sql = new StringBuilder();
+    for (int i = 0; i < 300; i++) {
+      sql.append("INSERT INTO Mid VALUES (" + (i % 5) + ", " + (i % 3) + ");\n");
+    }
+    sql.append("QUIT;");
+    Msql.execute(sql.toString());
+
+    // crossing the two tiny tables first looks cheap, but they only connect
+    // through Mid
+    String plan = explain("SELECT * FROM Big, Other, Mid WHERE x = m1 AND m2 = y;");
+    Assert.assertFalse("Expected no cross product:\n" + plan, plan.contains("(cross)"));
+    List<Tuple> output = Msql.testableexecute("SELECT * FROM Big, Other, Mid WHERE x = m1 AND m2 = y;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 20, output.size());
+
+    // a disconnected query needs exactly one
+    plan = explain("SELECT * FROM Big, Other, Mid WHERE x = m1;");
+    Assert.assertEquals("Expected one cross product:\n" + plan, plan.indexOf("(cross)"), plan.lastIndexOf("(cross)"));
+    Assert.assertTrue("Expected one cross product:\n" + plan, plan.contains("(cross)"));
+  }
+
+  @Test
+  public void testNestedLoopJoinShowsPredicates() throws Exception {
+    load("Big", 20, 10, 0);
+    load("Other", 10, 10, 0);
+
+    // an OR of equalities can't be hashed, but it still isn't a cross product
+    String query = "SELECT * FROM Big, Other WHERE x = y OR x < y;";
+    String plan = explain(query);
+    Assert.assertTrue("Expected a nested loops join:\n" + plan, plan.contains("NestedLoopJoin : "));
+    Assert.assertFalse("Expected no cross product:\n" + plan, plan.contains("(cross)"));
+    List<Tuple> output = Msql.testableexecute(query + "\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 110, output.size());
+  }
+
+  @Test
+  public void testSelectListFoldedIntoJoinProjection() throws Exception {
+    load("Big", 20, 10, 0);
+    load("Other", 10, 10, 0);
+
+    // the select list narrows the join's output once, not on top of it
+    String query = "SELECT ypad, x FROM Big, Other WHERE x = y;";
+    String plan = explain(query);
+    Assert.assertFalse("Expected no projection of a projection:\n" + plan, plan.matches("(?s).*Projection[^\n]*\n\\s*Projection.*"));
+    List<Tuple> output = Msql.testableexecute(query + "\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 20, output.size());
+    Assert.assertEquals("Expected the selected columns", 2, output.get(0).getAllFields().length);
+    Assert.assertTrue("Expected ypad first", output.get(0).getField(0) instanceof String);
+
+    // and a sort key needn't be selected
+    output = Msql.testableexecute("SELECT xpad FROM Big, Other WHERE x = y ORDER BY y DESC;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 20, output.size());
+    Assert.assertEquals("Expected one column", 1, output.get(0).getAllFields().length);
+    Assert.assertTrue("Expected the largest key first", output.get(0).getField("xpad").equals("row 9") || output.get(0).getField("xpad").equals("row 19"));
+  }
+
+  @Test
+  public void testInferredEqualityUsesIndex() throws Exception {
+    Msql.execute("CREATE INDEX IX_X ON Big(x);\nQUIT;");
+    load("Big", 100, 20, 0);
+    load("Other", 100, 20, 0);
+
+    // x = 3 follows from x = y AND y = 3, so Big can be read through IX_X
+    String plan = explain("SELECT * FROM Big, Other WHERE x = y AND y = 3;");
+    Assert.assertTrue("Expected an index lookup on Big:\n" + plan, plan.contains("KeyScan : IX_X ON Big"));
+    List<Tuple> output = Msql.testableexecute("SELECT * FROM Big, Other WHERE x = y AND y = 3;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 25, output.size());
+    for (Tuple t : output) {
+      Assert.assertEquals("Expected only the constant", 3, t.getField("x"));
+    }
+  }
+
+  @Test
+  public void testKeyUnionScan() throws Exception {
+    Msql.execute("CREATE INDEX IX_X ON Big(x);\nCREATE INDEX IX_XPAD ON Big(xpad);\nQUIT;");
+    load("Big", 300, 50, 0);
+
+    String plan = explain("SELECT * FROM Big WHERE x = 3 OR x = 7;");
+    Assert.assertTrue("Expected a union of index lookups:\n" + plan, plan.contains("KeyUnionScan : IX_X, IX_X ON Big"));
+    List<Tuple> output = Msql.testableexecute("SELECT * FROM Big WHERE x = 3 OR x = 7;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 12, output.size());
+
+    // 'row 3' also has x = 3, so it must only come back once
+    plan = explain("SELECT * FROM Big WHERE x = 3 OR xpad = 'row 3' OR xpad = 'row 4';");
+    Assert.assertTrue("Expected a union over both indexes:\n" + plan, plan.contains("KeyUnionScan : IX_X, IX_XPAD, IX_XPAD ON Big"));
+    output = Msql.testableexecute("SELECT * FROM Big WHERE x = 3 OR xpad = 'row 3' OR xpad = 'row 4';\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 7, output.size());
+    Set<String> pads = new HashSet<>();
+    for (Tuple t : output) {
+      Assert.assertTrue("Expected each record once", pads.add((String) t.getField("xpad")));
+    }
+
+    // each heap page stays pinned across its records, and is let go at the end
+    Assert.assertEquals("Expected no pages left pinned", Minibase.BufferManager.getNumBuffers(), Minibase.BufferManager.getNumUnpinned());
+  }
+
+  @Test
+  public void testKeyIntersectScan() throws Exception {
+    Msql.execute("CREATE TABLE Grid (a INTEGER, b INTEGER, pad STRING(100));\n"
+        + "CREATE INDEX IX_A ON Grid(a);\nCREATE INDEX IX_B ON Grid(b);\nQUIT;");
+    StringBuilder sql = new StringBuilder();
+    for (int i = 0; i < 600; i++) {
+      sql.append("INSERT INTO Grid VALUES (" + (i % 10) + ", " + (i / 10 % 10) + ", 'row " + i + "');\n");
+    }
+    sql.append("QUIT;");
+    Msql.execute(sql.toString());
+
+    // either index alone finds 60 records, but only 6 have both keys
+    String plan = explain("SELECT * FROM Grid WHERE a = 3 AND b = 4;");
+    Assert.assertTrue("Expected an intersection of index lookups:\n" + plan, plan.contains("KeyIntersectScan : IX_A, IX_B ON Grid"));
+    List<Tuple> output = Msql.testableexecute("SELECT * FROM Grid WHERE a = 3 AND b = 4;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 6, output.size());
+    for (Tuple t : output) {
+      Assert.assertEquals("Expected different a", 3, t.getField("a"));
+      Assert.assertEquals("Expected different b", 4, t.getField("b"));
+    }
+
+    output = Msql.testableexecute("SELECT * FROM Grid WHERE a = 3 AND b = 4 AND a = 5;\nQUIT;");
+    Assert.assertEquals("Expected no tuples", 0, output.size());
+  }
+
+  @Test
+  public void testBTreeRangeScan() throws Exception {
+    StringBuilder sql = new StringBuilder();
+    sql.append("CREATE TABLE Grid (a INTEGER, f FLOAT, pad STRING(100));\n");
+    for (int i = 0; i < 300; i++) {
+      sql.append("INSERT INTO Grid VALUES (" + i + ", " + (i % 30) + ".0, 'row " + i + "');\n");
+    }
+    sql.append("CREATE INDEX IX_F ON Grid(f) USING BTREE;\n");
+
+    // the index has to follow changes made after it was built
+    for (int i = 300; i < 305; i++) {
+      sql.append("INSERT INTO Grid VALUES (" + i + ", 10.5, 'row " + i + "');\n");
+    }
+    sql.append("DELETE FROM Grid WHERE a = 10;\nUPDATE Grid SET f = 50.0 WHERE a = 11;\n");
+    sql.append("UPDATE Grid SET f = 11.5 WHERE a = 12;\nANALYZE Grid;\nQUIT;");
+    Msql.execute(sql.toString());
+
+    // the index returns the range in order, so there's nothing to sort
+    String query = "SELECT a, f FROM Grid WHERE f >= 10.0 AND f < 12.0 ORDER BY f;";
+    String plan = explain(query);
+    Assert.assertTrue("Expected a range scan:\n" + plan, plan.contains("KeyRangeScan : IX_F ON Grid [10.0, 12.0)"));
+    Assert.assertFalse("Expected no sort:\n" + plan, plan.contains("Sort"));
+    List<Tuple> output = Msql.testableexecute(query + "\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 24, output.size());
+    float last = 0;
+    for (Tuple t : output) {
+      float f = (Float) t.getField("f");
+      Assert.assertTrue("Expected f in range", f >= 10 && f < 12);
+      Assert.assertTrue("Expected ascending f", f >= last);
+      last = f;
+    }
+
+    output = Msql.testableexecute("SELECT a FROM Grid WHERE f > 40.0;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 1, output.size());
+    Assert.assertEquals("Expected the updated row", 11, output.get(0).getField("a"));
+  }
+
+  @Test
+  public void testCompositeIndexPrefix() throws Exception {
+    StringBuilder sql = new StringBuilder();
+    sql.append("CREATE TABLE Grades (gsid INTEGER, gcid INTEGER, pad STRING(100));\n");
+    for (int i = 0; i < 400; i++) {
+      sql.append("INSERT INTO Grades VALUES (" + (i % 20) + ", " + (i / 20) + ", 'row " + i + "');\n");
+    }
+    sql.append("CREATE INDEX IX_SC ON Grades(gsid, gcid);\n");
+    sql.append("CREATE INDEX IX_CS ON Grades(gcid, gsid) USING BTREE;\n");
+    sql.append("DELETE FROM Grades WHERE gsid = 3 AND gcid = 4;\n");
+    sql.append("INSERT INTO Grades VALUES (3, 4, 'again');\nANALYZE Grades;\nQUIT;");
+    Msql.execute(sql.toString());
+
+    // equalities on both columns find the one row in the hash index
+    String query = "SELECT pad FROM Grades WHERE gcid = 4 AND gsid = 3;";
+    String plan = explain(query);
+    Assert.assertTrue("Expected a composite key lookup:\n" + plan, plan.contains("IX_SC"));
+    List<Tuple> output = Msql.testableexecute(query + "\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 1, output.size());
+    Assert.assertEquals("Expected the reinserted row", "again", output.get(0).getField("pad"));
+
+    // an equality on the leading column bounds the next one's range
+    query = "SELECT gcid, gsid, pad FROM Grades WHERE gcid = 7 AND gsid > 15 ORDER BY gcid, gsid;";
+    plan = explain(query);
+    Assert.assertTrue("Expected a prefix range scan:\n" + plan, plan.contains("KeyRangeScan : IX_CS ON Grades ((7, 15), (7)]"));
+    Assert.assertFalse("Expected no sort:\n" + plan, plan.contains("Sort"));
+    output = Msql.testableexecute(query + "\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 4, output.size());
+    for (int i = 0; i < output.size(); i++) {
+      Assert.assertEquals("Expected the prefix", 7, output.get(i).getField("gcid"));
+      Assert.assertEquals("Expected ascending gsid", 16 + i, output.get(i).getField("gsid"));
+    }
+  }
+
+  @Test
+  public void testIndexOnlyScan() throws Exception {
+    StringBuilder sql = new StringBuilder();
+    sql.append("CREATE TABLE People (id INTEGER, name STRING(20), age FLOAT, pad STRING(100));\n");
+    for (int i = 0; i < 300; i++) {
+      sql.append("INSERT INTO People VALUES (" + i + ", 'name " + i + "', " + (i % 50) + ".0, 'row " + i + "');\n");
+    }
+    sql.append("CREATE INDEX IX_AGE ON People(age) INCLUDE (name) USING BTREE;\n");
+    sql.append("UPDATE People SET name = 'renamed' WHERE id = 30;\nANALYZE People;\nQUIT;");
+    Msql.execute(sql.toString());
+
+    // the index holds every column the query reads
+    String query = "SELECT name FROM People WHERE age = 30.0 AND name <> 'name 80';";
+    String plan = explain(query);
+    Assert.assertTrue("Expected an index-only scan:\n" + plan, plan.contains("IndexOnlyScan : IX_AGE ON People"));
+    List<Tuple> output = Msql.testableexecute(query + "\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 5, output.size());
+    Assert.assertEquals("Expected names in order", "name 130", output.get(0).getField("name"));
+    Assert.assertEquals("Expected the updated name last", "renamed", output.get(4).getField("name"));
+
+    // but not the padding, so those records are fetched
+    plan = explain("SELECT name, pad FROM People WHERE age = 30.0;");
+    Assert.assertFalse("Expected the records to be read:\n" + plan, plan.contains("IndexOnlyScan"));
+  }
+
+  @Test
+  public void testRuntimeFilterPushedIntoProbeScan() throws Exception {
+    load("Big", 300, 100, 0);
+    load("Other", 100, 100, 0);
+
+    String plan = explain("SELECT * FROM Big, Other WHERE x = y AND ypad < 'row 2';");
+    Assert.assertTrue("Expected a runtime filter on the probe side", plan.contains("IN BLOOM("));
+
+    // rows 0, 1 and 10 to 19 of Other, each matching three rows of Big
+    List<Tuple> output = Msql.testableexecute("SELECT * FROM Big, Other WHERE x = y AND ypad < 'row 2';\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 36, output.size());
+    for (Tuple t : output) {
+      Assert.assertEquals("Join keys should match", t.getField("x"), t.getField("y"));
+    }
+
+    Optimizer.setWorkMemory(1);
+    output = Msql.testableexecute("SELECT * FROM Big, Other WHERE x = y AND ypad < 'row 2';\nQUIT;");
+    Assert.assertEquals("Expected the same tuples when spilling", 36, output.size());
+  }
+
+  @Test
+  public void testGraceHashJoinSpills() throws Exception {
+    load("Big", 100, 100, 0);
+    load("Other", 100, 50, 0);
+    Optimizer.setWorkMemory(1);
+
+    List<Tuple> output = Msql.testableexecute("SELECT * FROM Big, Other WHERE x = y;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 100, output.size());
+    for (Tuple t : output) {
+      Assert.assertEquals("Join keys should match", t.getField("x"), t.getField("y"));
+    }
+  }
+
+  @Test
+  public void testGraceHashJoinSkewedKey() throws Exception {
+    load("Big", 100, 1, 7);
+    load("Other", 100, 20, 0);
+    Optimizer.setWorkMemory(1);
+
+    List<Tuple> output = Msql.testableexecute("SELECT * FROM Big, Other WHERE x = y;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 500, output.size());
+  }
+
+  @Test
+  public void testGraceHashJoinRestartAfterRepartition() throws Exception {
+    load("Big", 40, 20, 0);
+    load("Other", 100, 1, 7);
+
+    // the skewed build partition is split again, which mustn't close the
+    // join's own probe input
+    Iterator join = new GraceHashJoin(new FileScan(Minibase.SystemCatalog.getSchema("Big"), new HeapFile("Big")),
+        new FileScan(Minibase.SystemCatalog.getSchema("Other"), new HeapFile("Other")), 0, 0, 1);
+    for (int pass = 0; pass < 2; pass++) {
+      int count = 0;
+      while (join.hasNext()) {
+        join.getNext();
+        count++;
+      }
+      Assert.assertEquals("Expected different number of tuples", 200, count);
+      join.restart();
+    }
+    join.close();
+  }
+
+  @Test
+  public void testGraceHashJoinMatchesInMemory() throws Exception {
+    load("Big", 60, 13, 0);
+    load("Other", 80, 17, 0);
+
+    List<Tuple> inMemory = Msql.testableexecute("SELECT x, y FROM Big, Other WHERE x = y;\nQUIT;");
+    Optimizer.setWorkMemory(1);
+    List<Tuple> spilled = Msql.testableexecute("SELECT x, y FROM Big, Other WHERE x = y;\nQUIT;");
+    Assert.assertEquals("Expected the same number of tuples", inMemory.size(), spilled.size());
+  }
+
+}
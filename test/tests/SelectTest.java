@@ -6,7 +6,9 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import relop.Tuple;
+import query.Optimizer;
 import query.QueryException;
+import query.ResultCache;
 
 import java.util.*;
 
@@ -116,6 +118,22 @@ public class SelectTest extends MinibaseTest {
     Assert.assertEquals("Expected different number of tuples", 2, output.size());
   }
 
+  @Test
+  public void testSelectCompiledPredicates() throws Exception {
+    // constant on the left, string and float comparisons
+    List<Tuple> output = Msql.testableexecute("SELECT * FROM Students WHERE 'Bob' < name AND age <> 30.0;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 1, output.size());
+    Assert.assertEquals("Expected different name", "Chris", output.get(0).getField("name"));
+
+    // column against column in the same table
+    output = Msql.testableexecute("SELECT * FROM Foo WHERE a < b OR d >= e;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 4, output.size());
+
+    // a clause without columns is decided once
+    output = Msql.testableexecute("SELECT * FROM Foo WHERE 1 = 2 OR a = 2;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 1, output.size());
+  }
+
   @Test
   public void testSelectStudentsGradesAge() throws Exception {
     List<Tuple> output = Msql.testableexecute("SELECT * FROM Students, Grades WHERE sid = gsid AND age = 30.0;\nQUIT;");
@@ -158,6 +176,122 @@ public class SelectTest extends MinibaseTest {
     Assert.assertEquals("Expected different number of tuples", 20, output.size());
   }
   
+  @Test
+  public void testChainFour() throws Exception {
+    List<Tuple> output = Msql.testableexecute("SELECT name, title, b FROM Foo, Courses, Students, Grades where a = sid AND sid = gsid AND cid = gcid;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 5, output.size());
+  }
+
+  @Test
+  public void testEquiJoinDuplicateKeys() throws Exception {
+    List<Tuple> output = Msql.testableexecute("SELECT a, b, gsid, gcid FROM Foo, Grades where a = gsid;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 5, output.size());
+    for (Tuple t : output) {
+      Assert.assertEquals("Join keys should match", t.getField("a"), t.getField("gsid"));
+    }
+  }
+
+  @Test
+  public void testOrderByMixedDirections() throws Exception {
+    List<Tuple> output = Msql.testableexecute("SELECT a, b FROM Foo ORDER BY a DESC, b;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 5, output.size());
+    int[][] expected = {{2, 2}, {1, 2}, {1, 4}, {1, 4}, {1, 5}};
+    for (int i = 0; i < expected.length; i++) {
+      Assert.assertEquals("Expected different a", expected[i][0], output.get(i).getField("a"));
+      Assert.assertEquals("Expected different b", expected[i][1], output.get(i).getField("b"));
+    }
+  }
+
+  @Test
+  public void testOrderByString() throws Exception {
+    List<Tuple> output = Msql.testableexecute("SELECT name FROM Students ORDER BY name;\nQUIT;");
+    String[] expected = {"Alice", "Andy", "Bob", "Chris", "Ron"};
+    Assert.assertEquals("Expected different number of tuples", expected.length, output.size());
+    for (int i = 0; i < expected.length; i++) {
+      Assert.assertEquals("Expected different name", expected[i], output.get(i).getField("name"));
+    }
+  }
+
+  @Test
+  public void testOrderByJoinedFloat() throws Exception {
+    List<Tuple> output = Msql.testableexecute("SELECT name, points FROM Students, Grades WHERE sid = gsid ORDER BY points DESC;\nQUIT;");
+    float[] expected = {4.0f, 3.1f, 3.0f, 2.8f, 2.5f};
+    Assert.assertEquals("Expected different number of tuples", expected.length, output.size());
+    for (int i = 0; i < expected.length; i++) {
+      Assert.assertEquals("Expected different points", expected[i], (Float) output.get(i).getField("points"), 0.0f);
+    }
+  }
+
+  @Test
+  public void testDistinct() throws Exception {
+    List<Tuple> output = Msql.testableexecute("SELECT DISTINCT a, e FROM Foo;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 3, output.size());
+  }
+
+  @Test
+  public void testDistinctOrdered() throws Exception {
+    List<Tuple> output = Msql.testableexecute("SELECT DISTINCT age FROM Students ORDER BY age DESC;\nQUIT;");
+    float[] expected = {50.0f, 30.0f, 25.67f, 12.34f};
+    Assert.assertEquals("Expected different number of tuples", expected.length, output.size());
+    for (int i = 0; i < expected.length; i++) {
+      Assert.assertEquals("Expected different age", expected[i], (Float) output.get(i).getField("age"), 0.0f);
+    }
+  }
+
+  @Test (expected=QueryException.class)
+  public void testDistinctOrderByUnselected() throws Exception {
+    Msql.execute("SELECT DISTINCT a FROM Foo ORDER BY b;\nQUIT");
+  }
+
+  @Test
+  public void testResultCacheInvalidatedByWrites() throws Exception {
+    ResultCache cache = Optimizer.getResultCache();
+    List<Tuple> first = Msql.testableexecute("SELECT name FROM Students WHERE age > 20.0 AND sid < 5;\nQUIT;");
+    Assert.assertEquals("Expected different number of tuples", 3, first.size());
+
+    // the same query, however written, comes from the cache
+    int hits = cache.getHitCount();
+    List<Tuple> second = Msql.testableexecute("select NAME from students where SID < 5 and AGE > 20.0;\nQUIT;");
+    Assert.assertEquals("Expected a cache hit", hits + 1, cache.getHitCount());
+    Assert.assertEquals("Expected the same tuples", first.size(), second.size());
+
+    // but never once the table has changed
+    Msql.execute("INSERT INTO Students VALUES (0, 'Zed', 40.0);\nQUIT;");
+    Assert.assertEquals("Expected the new tuple", 4, Msql.testableexecute("SELECT name FROM Students WHERE age > 20.0 AND sid < 5;\nQUIT;").size());
+    Msql.execute("UPDATE Students SET age = 10.0 WHERE sid = 0;\nQUIT;");
+    Assert.assertEquals("Expected the updated tuple", 3, Msql.testableexecute("SELECT name FROM Students WHERE age > 20.0 AND sid < 5;\nQUIT;").size());
+    Msql.execute("DELETE FROM Students WHERE sid = 1;\nQUIT;");
+    Assert.assertEquals("Expected the tuple deleted", 2, Msql.testableexecute("SELECT name FROM Students WHERE age > 20.0 AND sid < 5;\nQUIT;").size());
+    Assert.assertEquals("Expected no more hits", hits + 1, cache.getHitCount());
+  }
+
+  @Test
+  public void testResultCacheEvictsLeastRecentlyUsed() throws Exception {
+    ResultCache cache = Optimizer.getResultCache();
+    long capacity = cache.getCapacity();
+    cache.setCapacity(700);
+    try {
+      Msql.testableexecute("SELECT * FROM Students;\nQUIT;");
+      Msql.testableexecute("SELECT * FROM Courses;\nQUIT;");
+      Msql.testableexecute("SELECT * FROM Students;\nQUIT;");
+      Assert.assertTrue("Expected the cache to stay in bounds", cache.getSize() <= 700);
+
+      // the courses were used least recently, so made room for the grades
+      Msql.testableexecute("SELECT * FROM Grades;\nQUIT;");
+      int misses = cache.getMissCount();
+      Msql.testableexecute("SELECT * FROM Students;\nQUIT;");
+      Msql.testableexecute("SELECT * FROM Courses;\nQUIT;");
+      Assert.assertEquals("Expected only the courses to be evicted", misses + 1, cache.getMissCount());
+    } finally {
+      cache.setCapacity(capacity);
+    }
+  }
+
+  @Test (expected=QueryException.class)
+  public void testOrderByInvalidColumn() throws Exception {
+    Msql.execute("SELECT * FROM Foo ORDER BY bad;\nQUIT");
+  }
+
   @Test (expected=QueryException.class)
   public void testSelectInvalidTable() throws Exception {
     Msql.execute("SELECT * FROM Grades, Bad;\nQUIT");
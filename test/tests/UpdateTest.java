@@ -2,7 +2,10 @@ package tests;
 
 import global.Minibase;
 import global.Msql;
+import global.SearchKey;
 import heap.HeapFile;
+import index.BTreeIndex;
+import index.BTreeScan;
 import relop.Tuple;
 import relop.FileScan;
 import parser.ParseException;
@@ -137,6 +140,44 @@ public class UpdateTest extends MinibaseTest {
     }
   }
 
+  @Test
+  public void testUpdateThroughIndex() throws Exception {
+    // enough rows that the index is cheaper than a file scan
+    StringBuilder insert = new StringBuilder("INSERT INTO Students VALUES (100, 'Filler', 1.0)");
+    for (int i = 101; i < 400; i++) {
+      insert.append(", (").append(i).append(", 'Filler', 1.0)");
+    }
+    Msql.execute(insert + ";\nQUIT;");
+
+    // the new key lies in the range scanned, so each record must change once
+    Msql.execute("CREATE INDEX IX_Sid ON Students(sid) USING BTREE;\nANALYZE Students;\nUPDATE Students SET sid = 5 WHERE sid > 2 and sid < 6;\nQUIT;");
+
+    HeapFile file = new HeapFile("Students");
+    FileScan scan = new FileScan(Minibase.SystemCatalog.getSchema("Students"), file);
+    int updated = 0;
+    while (scan.hasNext()) {
+      Tuple t = scan.getNext();
+      if ((Integer) t.getField("sid") == 5) {
+        updated++;
+      } else {
+        Assert.assertFalse("Row in the range wasn't updated", (Integer) t.getField("sid") > 2 && (Integer) t.getField("sid") < 5);
+      }
+    }
+    scan.close();
+    Assert.assertEquals("Wrong number of rows updated", 3, updated);
+
+    // and the index holds the new keys
+    SearchKey key = new SearchKey(5);
+    BTreeScan index = new BTreeIndex("IX_Sid").openScan(key, true, key, true);
+    int entries = 0;
+    while (index.hasNext()) {
+      index.getNext();
+      entries++;
+    }
+    index.close();
+    Assert.assertEquals("Index entries weren't updated", 3, entries);
+  }
+
   @Test (expected=QueryException.class)
   public void testUpdateBadColumnName() throws QueryException {
     try {